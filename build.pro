@@ -26,6 +26,7 @@ compiler.
   processorModuleTestPath(path("deps")). // enable JMH annotation processor
   rawArguments(
     "--default-module-for-created-files", "fr.umlv.valuetype",
+    "-parameters",  // XArrayList.readFrom matches the fields by the parameter names
   //  "-Xlint:all",
   //  "-XDallowGenericsOverValues",
     "-XDallowEmptyValues",
@@ -5,12 +5,26 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.IntStream.range;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Array;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public @__inline__ final class CompactList<E> implements Iterable<E> {
+  private static final VarHandle ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(Object[].class);
+  private static final int SPILLED_CAPACITY = 8;
+  
+  // if size > 4, the elements are in array[0..size[ and the capacity of array can be bigger,
+  // the slots after size are shared by all the versions, the first version that claims
+  // the slot just after its size can append in place
 	private final E[] array;
 	private final E embedded0;
   private final E embedded1;
@@ -94,11 +108,10 @@ public @__inline__ final class CompactList<E> implements Iterable<E> {
 				}
 				@Override
 				public E next() {
-					try {
-					  return get(index++);
-					} catch(@SuppressWarnings("unused") IndexOutOfBoundsException e) {
-						throw (NoSuchElementException)new NoSuchElementException("no such element").initCause(e);
+					if (index >= size) {
+						throw new NoSuchElementException("no such element");
 					}
+					return get(index++);
 				}
 			};
 		}
@@ -108,19 +121,125 @@ public @__inline__ final class CompactList<E> implements Iterable<E> {
 			
 			@Override
 			public boolean hasNext() {
-				return index < array.length;
+				return index < size;
 			}
 			@Override
 			public E next() {
-				try {
-					return array[index++];
-				} catch(@SuppressWarnings("unused") ArrayIndexOutOfBoundsException e) {
-					throw (NoSuchElementException)new NoSuchElementException("no such element").initCause(e);
+				if (index >= size) {
+					throw new NoSuchElementException("no such element");
 				}
+				return array[index++];
+			}
+		};
+	}
+	
+	@Override
+	public void forEach(Consumer<? super E> action) {
+		requireNonNull(action);
+		switch(size) {
+		case 0:
+			return;
+		case 1:
+			action.accept(embedded0);
+			return;
+		case 2:
+			action.accept(embedded0);
+			action.accept(embedded1);
+			return;
+		case 3:
+			action.accept(embedded0);
+			action.accept(embedded1);
+			action.accept(embedded2);
+			return;
+		case 4:
+			action.accept(embedded0);
+			action.accept(embedded1);
+			action.accept(embedded2);
+			action.accept(embedded3);
+			return;
+		default:
+			var array = this.array;
+			for(var i = 0; i < size; i++) {
+				action.accept(array[i]);
 			}
+		}
+	}
+	
+	private static final int CHARACTERISTICS =
+			Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+	
+	@Override
+	public Spliterator<E> spliterator() {
+		return switch(size) {
+			case 0 -> Spliterators.emptySpliterator();
+			case 1, 2, 3, 4 -> new EmbeddedSpliterator<>(this);
+			default -> Spliterators.spliterator(array, 0, size, CHARACTERISTICS);
 		};
 	}
 	
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	// a spliterator on the embedded elements, too small to be split
+	private static final class EmbeddedSpliterator<E> implements Spliterator<E> {
+		private final CompactList<E> list;
+		private int index;
+		
+		EmbeddedSpliterator(CompactList<E> list) {
+			this.list = list;
+		}
+		
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			requireNonNull(action);
+			if (index >= list.size) {
+				return false;
+			}
+			action.accept(list.get(index++));
+			return true;
+		}
+		
+		@Override
+		@SuppressWarnings("fallthrough")
+		public void forEachRemaining(Consumer<? super E> action) {
+			requireNonNull(action);
+			var size = list.size;
+			var index = this.index;
+			this.index = size;
+			switch(index) {
+			case 0:
+				action.accept(list.embedded0);
+			case 1:
+				if (size > 1) {
+					action.accept(list.embedded1);
+				}
+			case 2:
+				if (size > 2) {
+					action.accept(list.embedded2);
+				}
+			case 3:
+				if (size > 3) {
+					action.accept(list.embedded3);
+				}
+			default:
+			}
+		}
+		
+		@Override
+		public Spliterator<E> trySplit() {
+			return null;
+		}
+		@Override
+		public long estimateSize() {
+			return list.size - index;
+		}
+		@Override
+		public int characteristics() {
+			return CHARACTERISTICS;
+		}
+	}
+	
 	@SuppressWarnings("unchecked")
 	public CompactList<E> append(E element) {
 		requireNonNull(element);
@@ -129,15 +248,42 @@ public @__inline__ final class CompactList<E> implements Iterable<E> {
 		  case 1 -> of(embedded0, element);
 		  case 2 -> of(embedded0, embedded1, element);
 		  case 3 -> of(embedded0, embedded1, embedded2, element);
-		  case 4 -> of((E[])new Object[] { embedded0, embedded1, embedded2, embedded3, element});
+		  case 4 -> {
+		  	var newArray = (E[])new Object[SPILLED_CAPACITY];
+		  	newArray[0] = embedded0;
+		  	newArray[1] = embedded1;
+		  	newArray[2] = embedded2;
+		  	newArray[3] = embedded3;
+		  	newArray[4] = element;
+		  	yield new CompactList<>(newArray, null, null, null, null, 5);
+		  }
 	    default -> {
-	  	  var newLength = array.length + 1;
-	  	  var newArray = copyOf(array, newLength);
-	  	  newArray[array.length] = element;
-	  	  yield new CompactList<>(newArray, null, null, null, null, newLength);
+	    	var array = this.array;
+	    	var size = this.size;
+	    	if (size < array.length && ARRAY_HANDLE.compareAndSet(array, size, (Object) null, element)) {
+	    		// this version is the newest, append in place
+	    		yield new CompactList<>(array, null, null, null, null, size + 1);
+	    	}
+	    	// full or a newer version already uses the next slot
+	    	// only copy the elements of this version, the next slots may belong to other versions
+	  	  var newArray = (E[]) Array.newInstance(array.getClass().getComponentType(), newCapacity(size));
+	  	  System.arraycopy(array, 0, newArray, 0, size);
+	  	  newArray[size] = element;
+	  	  yield new CompactList<>(newArray, null, null, null, null, size + 1);
 	    }
 		};
 	}
+	
+	private static int newCapacity(int size) {
+		var newCapacity = size + (size >> 1);
+		if (newCapacity - (Integer.MAX_VALUE - 8) > 0) {
+			if (size == Integer.MAX_VALUE) {
+				throw new OutOfMemoryError("Required array length too large");
+			}
+			return size + 1;
+		}
+		return newCapacity;
+	}
   
 	@SuppressWarnings({"unchecked", "fallthrough"})
 	public <T> T[] toArray(IntFunction<? extends T[]> arrayCreator) {
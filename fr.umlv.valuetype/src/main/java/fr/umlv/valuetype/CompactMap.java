@@ -0,0 +1,450 @@
+package fr.umlv.valuetype;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable map that stores up to four entries in its own fields and
+ * spills to an open addressing table, like {@link FlatMap}, beyond that.
+ *
+ * Lookups in the embedded entries are a linear scan that compares the stored
+ * hash before calling {@code equals}.
+ * A new map is created by {@link #with(Object, Object)}, the other mutating
+ * methods of {@link Map} throw an {@link UnsupportedOperationException}.
+ * Like {@link Map#of()}, keys and values can not be {@code null}.
+ */
+public @__inline__ final class CompactMap<K, V> implements Map<K, V> {
+  private static final int SPILLED_CAPACITY = 16;
+
+  private final K key0;
+  private final K key1;
+  private final K key2;
+  private final K key3;
+  private final V value0;
+  private final V value1;
+  private final V value2;
+  private final V value3;
+  private final int hash0;
+  private final int hash1;
+  private final int hash2;
+  private final int hash3;
+  private final Entry<K, V>[] table;  // null if the entries are embedded
+  private final int size;
+
+  private CompactMap(K key0, V value0, int hash0, K key1, V value1, int hash1,
+                     K key2, V value2, int hash2, K key3, V value3, int hash3,
+                     Entry<K, V>[] table, int size) {
+    this.key0 = key0;
+    this.key1 = key1;
+    this.key2 = key2;
+    this.key3 = key3;
+    this.value0 = value0;
+    this.value1 = value1;
+    this.value2 = value2;
+    this.value3 = value3;
+    this.hash0 = hash0;
+    this.hash1 = hash1;
+    this.hash2 = hash2;
+    this.hash3 = hash3;
+    this.table = table;
+    this.size = size;
+  }
+
+  private static <K, V> CompactMap<K, V> spilled(Entry<K, V>[] table, int size) {
+    return new CompactMap<>(null, null, 0, null, null, 0, null, null, 0, null, null, 0, table, size);
+  }
+
+  @__inline__
+  private static final /*inline*/ class Entry<K, V> {
+    final int hash;
+    final K key;     // null if the slot is empty
+    final V value;
+
+    private Entry(int hash, K key, V value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  public static <K, V> CompactMap<K, V> of() {
+    return new CompactMap<>(null, null, 0, null, null, 0, null, null, 0, null, null, 0, null, 0);
+  }
+
+  public static <K, V> CompactMap<K, V> of(K key, V value) {
+    return CompactMap.<K, V>of().with(key, value);
+  }
+
+  private static int hash(Object key) {
+    var hash = key.hashCode();  // implicit nullcheck
+    return hash ^ (hash >>> 16);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  // index of the key in the embedded entries or -1
+  private int embeddedIndex(Object key, int hash) {
+    var size = this.size;
+    if (size > 0 && hash == hash0 && key.equals(key0)) {
+      return 0;
+    }
+    if (size > 1 && hash == hash1 && key.equals(key1)) {
+      return 1;
+    }
+    if (size > 2 && hash == hash2 && key.equals(key2)) {
+      return 2;
+    }
+    if (size > 3 && hash == hash3 && key.equals(key3)) {
+      return 3;
+    }
+    return -1;
+  }
+
+  // index of the key in the table or -1, the table always has an empty slot
+  private static int tableIndex(Entry<?, ?>[] table, Object key, int hash) {
+    var mask = table.length - 1;
+    for (var index = hash & mask;; index = (index + 1) & mask) {
+      var entry = table[index];
+      if (entry.key == null) {
+        return -1;
+      }
+      if (hash == entry.hash && key.equals(entry.key)) {
+        return index;
+      }
+    }
+  }
+
+  private static <K, V> void insert(Entry<K, V>[] table, Entry<K, V> entry) {
+    var mask = table.length - 1;
+    for (var index = entry.hash & mask;; index = (index + 1) & mask) {
+      if (table[index].key == null) {
+        table[index] = entry;
+        return;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> Entry<K, V>[] newTable(int capacity) {
+    return (Entry<K, V>[]) new Entry<?, ?>[capacity];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    var hash = hash(key);
+    if (table == null) {
+      return embeddedIndex(key, hash) != -1;
+    }
+    return tableIndex(table, key, hash) != -1;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    requireNonNull(value);
+    if (table == null) {
+      var size = this.size;
+      return (size > 0 && value.equals(value0)) || (size > 1 && value.equals(value1))
+          || (size > 2 && value.equals(value2)) || (size > 3 && value.equals(value3));
+    }
+    for (var entry : table) {
+      if (entry.key != null && value.equals(entry.value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(Object key) {
+    var hash = hash(key);
+    if (table == null) {
+      return switch (embeddedIndex(key, hash)) {
+        case 0 -> value0;
+        case 1 -> value1;
+        case 2 -> value2;
+        case 3 -> value3;
+        default -> null;
+      };
+    }
+    var index = tableIndex(table, key, hash);
+    return index == -1 ? null : table[index].value;
+  }
+
+  @Override
+  public V getOrDefault(Object key, V defaultValue) {
+    var value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * Returns a map with the same entries as this map and the key associated
+   * to the value, this map is not modified.
+   *
+   * @param key a key
+   * @param value the value associated to the key
+   * @return a new map containing the association
+   * @throws NullPointerException if the key or the value is null
+   */
+  public CompactMap<K, V> with(K key, V value) {
+    var hash = hash(key);
+    requireNonNull(value);
+    var table = this.table;
+    if (table == null) {
+      return switch (embeddedIndex(key, hash)) {
+        case 0 -> new CompactMap<>(key0, value, hash0, key1, value1, hash1, key2, value2, hash2, key3, value3, hash3, null, size);
+        case 1 -> new CompactMap<>(key0, value0, hash0, key1, value, hash1, key2, value2, hash2, key3, value3, hash3, null, size);
+        case 2 -> new CompactMap<>(key0, value0, hash0, key1, value1, hash1, key2, value, hash2, key3, value3, hash3, null, size);
+        case 3 -> new CompactMap<>(key0, value0, hash0, key1, value1, hash1, key2, value2, hash2, key3, value, hash3, null, size);
+        default -> switch (size) {
+          case 0 -> new CompactMap<>(key, value, hash, null, null, 0, null, null, 0, null, null, 0, null, 1);
+          case 1 -> new CompactMap<>(key0, value0, hash0, key, value, hash, null, null, 0, null, null, 0, null, 2);
+          case 2 -> new CompactMap<>(key0, value0, hash0, key1, value1, hash1, key, value, hash, null, null, 0, null, 3);
+          case 3 -> new CompactMap<>(key0, value0, hash0, key1, value1, hash1, key2, value2, hash2, key, value, hash, null, 4);
+          default -> {
+            Entry<K, V>[] newTable = newTable(SPILLED_CAPACITY);
+            insert(newTable, new Entry<>(hash0, key0, value0));
+            insert(newTable, new Entry<>(hash1, key1, value1));
+            insert(newTable, new Entry<>(hash2, key2, value2));
+            insert(newTable, new Entry<>(hash3, key3, value3));
+            insert(newTable, new Entry<>(hash, key, value));
+            yield spilled(newTable, 5);
+          }
+        };
+      };
+    }
+    var index = tableIndex(table, key, hash);
+    if (index != -1) {
+      var newTable = table.clone();
+      newTable[index] = new Entry<>(hash, key, value);
+      return spilled(newTable, size);
+    }
+    Entry<K, V>[] newTable;
+    if (size + 1 > table.length >> 1) {
+      newTable = newTable(table.length << 1);
+      for (var entry : table) {
+        if (entry.key != null) {
+          insert(newTable, entry);
+        }
+      }
+    } else {
+      newTable = table.clone();
+    }
+    insert(newTable, new Entry<>(hash, key, value));
+    return spilled(newTable, size + 1);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    requireNonNull(action);
+    var table = this.table;
+    if (table == null) {
+      var size = this.size;
+      if (size > 0) {
+        action.accept(key0, value0);
+      }
+      if (size > 1) {
+        action.accept(key1, value1);
+      }
+      if (size > 2) {
+        action.accept(key2, value2);
+      }
+      if (size > 3) {
+        action.accept(key3, value3);
+      }
+      return;
+    }
+    for (var entry : table) {
+      if (entry.key != null) {
+        action.accept(entry.key, entry.value);
+      }
+    }
+  }
+
+  // iterates over the embedded entries or over the non empty slots of the table
+  private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+    private final CompactMap<K, V> map;
+    private int index;
+    private int remaining;
+
+    private EntryIterator(CompactMap<K, V> map) {
+      this.map = map;
+      this.remaining = map.size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining != 0;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      remaining--;
+      var table = map.table;
+      if (table == null) {
+        return switch (index++) {
+          case 0 -> Map.entry(map.key0, map.value0);
+          case 1 -> Map.entry(map.key1, map.value1);
+          case 2 -> Map.entry(map.key2, map.value2);
+          default -> Map.entry(map.key3, map.value3);
+        };
+      }
+      var index = this.index;
+      while (table[index].key == null) {
+        index++;
+      }
+      this.index = index + 1;
+      var entry = table[index];
+      return Map.entry(entry.key, entry.value);
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(CompactMap.this);
+      }
+      @Override
+      public int size() {
+        return size;
+      }
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        var entry = (Map.Entry<?, ?>) o;
+        var key = entry.getKey();
+        var value = entry.getValue();
+        return key != null && value != null && value.equals(get(key));
+      }
+    };
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<K> iterator() {
+        var iterator = new EntryIterator<>(CompactMap.this);
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+          @Override
+          public K next() {
+            return iterator.next().getKey();
+          }
+        };
+      }
+      @Override
+      public int size() {
+        return size;
+      }
+      @Override
+      public boolean contains(Object o) {
+        return containsKey(o);
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<V> iterator() {
+        var iterator = new EntryIterator<>(CompactMap.this);
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return iterator.hasNext();
+          }
+          @Override
+          public V next() {
+            return iterator.next().getValue();
+          }
+        };
+      }
+      @Override
+      public int size() {
+        return size;
+      }
+      @Override
+      public boolean contains(Object o) {
+        return containsValue(o);
+      }
+    };
+  }
+
+  @Override
+  public V put(K key, V value) {
+    throw new UnsupportedOperationException();
+  }
+  @Override
+  public V remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) {
+    throw new UnsupportedOperationException();
+  }
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof Map)) {
+      return false;
+    }
+    var map = (Map<?, ?>) obj;
+    if (size != map.size()) {
+      return false;
+    }
+    for (var entry : entrySet()) {
+      if (!entry.getValue().equals(map.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    var hashCode = 0;
+    for (var entry : entrySet()) {
+      hashCode += entry.getKey().hashCode() ^ entry.getValue().hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    var joiner = new StringJoiner(", ", "{", "}");
+    forEach((key, value) -> joiner.add(key + "=" + value));
+    return joiner.toString();
+  }
+}
@@ -1,6 +1,9 @@
 package fr.umlv.valuetype.persistent;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -50,6 +53,42 @@ public interface Cursor<E> {
     return CursorImpl.default;
   }
 
+  default void forEachRemaining(Consumer<? super E> action) {
+    Objects.requireNonNull(action);
+    for(var cursor = this; cursor.hasNext(); cursor = cursor.next()) {
+      action.accept(cursor.element());
+    }
+  }
+
+  /**
+   * Returns a cursor n elements after this one or an empty cursor if there are not enough elements.
+   */
+  default Cursor<E> skip(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("n < 0");
+    }
+    var cursor = this;
+    for(var i = 0; i < n && cursor.hasNext(); i++) {
+      cursor = cursor.next();
+    }
+    return cursor;
+  }
+
+  /**
+   * Returns an unmodifiable list of at most max elements starting at this cursor.
+   * This cursor is not moved, use {@code skip(chunk.size())} to continue the traversal.
+   */
+  default List<E> nextChunk(int max) {
+    if (max < 0) {
+      throw new IllegalArgumentException("max < 0");
+    }
+    var chunk = new ArrayList<E>();
+    for(var cursor = this; chunk.size() < max && cursor.hasNext(); cursor = cursor.next()) {
+      chunk.add(cursor.element());
+    }
+    return Collections.unmodifiableList(chunk);
+  }
+
   default Iterator<E> iteratorRemaining() {
     return new Iterator<>() {
       private Cursor<E> cursor = Cursor.this;
@@ -0,0 +1,7 @@
+package fr.umlv.valuetype.persistent;
+
+public interface DoubleCursor {
+  boolean hasNext();
+  double element();
+  DoubleCursor next();
+}
@@ -0,0 +1,7 @@
+package fr.umlv.valuetype.persistent;
+
+public interface IntCursor {
+  boolean hasNext();
+  int element();
+  IntCursor next();
+}
@@ -0,0 +1,7 @@
+package fr.umlv.valuetype.persistent;
+
+public interface LongCursor {
+  boolean hasNext();
+  long element();
+  LongCursor next();
+}
@@ -0,0 +1,230 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveList.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.DoubleStream;
+
+@__inline__
+public final class PersistentDoubleList {
+  private static final int DEFAULT_SIZE = 16;
+  private static final double[] EMPTY = new double[0];
+
+  private final Thread ownerThread;
+  private final int size;
+  private final double[] array;
+  private final int[] top;  // top[0] is the number of slots of the array used by the versions
+
+  private PersistentDoubleList(Thread ownerThread, double[] array, int[] top, int size) {
+    this.ownerThread = ownerThread;
+    this.array = array;
+    this.top = top;
+    this.size = size;
+  }
+
+  public static PersistentDoubleList of() {
+    return new PersistentDoubleList(currentThread(), EMPTY, new int[1], 0);
+  }
+
+  public static PersistentDoubleList of(double... elements) {
+    var array = Arrays.copyOf(elements, elements.length);
+    return new PersistentDoubleList(currentThread(), array, new int[] { array.length }, array.length);
+  }
+
+  public static PersistentDoubleList generate(int size, IntToDoubleFunction generator) {
+    requireNonNull(generator);
+    var array = new double[size];
+    Arrays.setAll(array, generator);
+    return new PersistentDoubleList(currentThread(), array, new int[] { size }, size);
+  }
+
+  private static void checkOwnerThread(Thread ownerThread) {
+    if (currentThread() != ownerThread) {
+      throw new IllegalStateException("invalid owner thread");
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PersistentDoubleList)) {
+      return false;
+    }
+    var list = (PersistentDoubleList) obj;
+    if (array == list.array) {  // same history
+      return size == list.size;
+    }
+    return Arrays.equals(array, 0, size, list.array, 0, list.size);
+  }
+
+  @Override
+  public int hashCode() {
+    var size = this.size;
+    var array = this.array;
+    var hashCode = 1;
+    for (var i = 0; i < size; i++) {
+      hashCode = 31 * hashCode + Double.hashCode(array[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return stream().mapToObj(String::valueOf).collect(joining(", ", "[", "]"));
+  }
+
+  public PersistentDoubleList append(double element) {
+    checkOwnerThread(ownerThread);
+    var array = this.array;
+    var length = array.length;
+    var size = this.size;
+    if (size == length) {
+      return resize(array, length, element);
+    }
+    if (top[0] != size) {
+      return rearrange(array, size, element);
+    }
+    array[size] = element;
+    top[0] = size + 1;
+    return new PersistentDoubleList(ownerThread, array, top, size + 1);
+  }
+
+  private PersistentDoubleList resize(double[] array, int length, double element) {
+    var newArray = Arrays.copyOf(array, Math.max(DEFAULT_SIZE, length << 1));
+    newArray[length] = element;
+    return new PersistentDoubleList(ownerThread, newArray, new int[] { length + 1 }, length + 1);
+  }
+
+  private PersistentDoubleList rearrange(double[] array, int size, double element) {
+    var newArray = new double[array.length];
+    System.arraycopy(array, 0, newArray, 0, size);
+    newArray[size] = element;
+    return new PersistentDoubleList(ownerThread, newArray, new int[] { size + 1 }, size + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public double get(int index) {
+    Objects.checkIndex(index, size);
+    return array[index];
+  }
+
+  public boolean contains(double element) {
+    return indexOf(element) != -1;
+  }
+
+  public int indexOf(double element) {
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      if (Double.compare(array[i], element) == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public void forEach(DoubleConsumer action) {
+    requireNonNull(action);
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      action.accept(array[i]);
+    }
+  }
+
+  public double sum() {
+    var array = this.array;
+    var size = this.size;
+    var sum = 0.0;
+    for(var i = 0; i < size; i++) {
+      sum += array[i];
+    }
+    return sum;
+  }
+
+  public OptionalDouble min() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalDouble.empty();
+    }
+    var min = array[0];
+    for(var i = 1; i < size; i++) {
+      min = Math.min(min, array[i]);
+    }
+    return OptionalDouble.of(min);
+  }
+
+  public OptionalDouble max() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalDouble.empty();
+    }
+    var max = array[0];
+    for(var i = 1; i < size; i++) {
+      max = Math.max(max, array[i]);
+    }
+    return OptionalDouble.of(max);
+  }
+
+  public DoubleStream stream() {
+    return Arrays.stream(array, 0, size);
+  }
+
+  public double[] toArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  public DoubleCursor cursor() {
+    return new DoubleListCursor(array, 0, size);
+  }
+
+  @__inline__
+  private static final class DoubleListCursor implements DoubleCursor {
+    private final double[] array;
+    private final int index;
+    private final int size;
+
+    private DoubleListCursor(double[] array, int index, int size) {
+      this.array = array;
+      this.index = index;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public double element() {
+      if (index == size) {
+        throw new NoSuchElementException();
+      }
+      return array[index];
+    }
+
+    @Override
+    public DoubleCursor next() {
+      if (index == size) {
+        throw new IllegalStateException();
+      }
+      return new DoubleListCursor(array, index + 1, size);
+    }
+  }
+}
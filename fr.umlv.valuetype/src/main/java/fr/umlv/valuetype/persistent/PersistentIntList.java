@@ -0,0 +1,230 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveList.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+@__inline__
+public final class PersistentIntList {
+  private static final int DEFAULT_SIZE = 16;
+  private static final int[] EMPTY = new int[0];
+
+  private final Thread ownerThread;
+  private final int size;
+  private final int[] array;
+  private final int[] top;  // top[0] is the number of slots of the array used by the versions
+
+  private PersistentIntList(Thread ownerThread, int[] array, int[] top, int size) {
+    this.ownerThread = ownerThread;
+    this.array = array;
+    this.top = top;
+    this.size = size;
+  }
+
+  public static PersistentIntList of() {
+    return new PersistentIntList(currentThread(), EMPTY, new int[1], 0);
+  }
+
+  public static PersistentIntList of(int... elements) {
+    var array = Arrays.copyOf(elements, elements.length);
+    return new PersistentIntList(currentThread(), array, new int[] { array.length }, array.length);
+  }
+
+  public static PersistentIntList generate(int size, IntUnaryOperator generator) {
+    requireNonNull(generator);
+    var array = new int[size];
+    Arrays.setAll(array, generator);
+    return new PersistentIntList(currentThread(), array, new int[] { size }, size);
+  }
+
+  private static void checkOwnerThread(Thread ownerThread) {
+    if (currentThread() != ownerThread) {
+      throw new IllegalStateException("invalid owner thread");
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PersistentIntList)) {
+      return false;
+    }
+    var list = (PersistentIntList) obj;
+    if (array == list.array) {  // same history
+      return size == list.size;
+    }
+    return Arrays.equals(array, 0, size, list.array, 0, list.size);
+  }
+
+  @Override
+  public int hashCode() {
+    var size = this.size;
+    var array = this.array;
+    var hashCode = 1;
+    for (var i = 0; i < size; i++) {
+      hashCode = 31 * hashCode + Integer.hashCode(array[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return stream().mapToObj(String::valueOf).collect(joining(", ", "[", "]"));
+  }
+
+  public PersistentIntList append(int element) {
+    checkOwnerThread(ownerThread);
+    var array = this.array;
+    var length = array.length;
+    var size = this.size;
+    if (size == length) {
+      return resize(array, length, element);
+    }
+    if (top[0] != size) {
+      return rearrange(array, size, element);
+    }
+    array[size] = element;
+    top[0] = size + 1;
+    return new PersistentIntList(ownerThread, array, top, size + 1);
+  }
+
+  private PersistentIntList resize(int[] array, int length, int element) {
+    var newArray = Arrays.copyOf(array, Math.max(DEFAULT_SIZE, length << 1));
+    newArray[length] = element;
+    return new PersistentIntList(ownerThread, newArray, new int[] { length + 1 }, length + 1);
+  }
+
+  private PersistentIntList rearrange(int[] array, int size, int element) {
+    var newArray = new int[array.length];
+    System.arraycopy(array, 0, newArray, 0, size);
+    newArray[size] = element;
+    return new PersistentIntList(ownerThread, newArray, new int[] { size + 1 }, size + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int get(int index) {
+    Objects.checkIndex(index, size);
+    return array[index];
+  }
+
+  public boolean contains(int element) {
+    return indexOf(element) != -1;
+  }
+
+  public int indexOf(int element) {
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      if (Integer.compare(array[i], element) == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public void forEach(IntConsumer action) {
+    requireNonNull(action);
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      action.accept(array[i]);
+    }
+  }
+
+  public int sum() {
+    var array = this.array;
+    var size = this.size;
+    var sum = 0;
+    for(var i = 0; i < size; i++) {
+      sum += array[i];
+    }
+    return sum;
+  }
+
+  public OptionalInt min() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalInt.empty();
+    }
+    var min = array[0];
+    for(var i = 1; i < size; i++) {
+      min = Math.min(min, array[i]);
+    }
+    return OptionalInt.of(min);
+  }
+
+  public OptionalInt max() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalInt.empty();
+    }
+    var max = array[0];
+    for(var i = 1; i < size; i++) {
+      max = Math.max(max, array[i]);
+    }
+    return OptionalInt.of(max);
+  }
+
+  public IntStream stream() {
+    return Arrays.stream(array, 0, size);
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  public IntCursor cursor() {
+    return new IntListCursor(array, 0, size);
+  }
+
+  @__inline__
+  private static final class IntListCursor implements IntCursor {
+    private final int[] array;
+    private final int index;
+    private final int size;
+
+    private IntListCursor(int[] array, int index, int size) {
+      this.array = array;
+      this.index = index;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public int element() {
+      if (index == size) {
+        throw new NoSuchElementException();
+      }
+      return array[index];
+    }
+
+    @Override
+    public IntCursor next() {
+      if (index == size) {
+        throw new IllegalStateException();
+      }
+      return new IntListCursor(array, index + 1, size);
+    }
+  }
+}
@@ -7,7 +7,10 @@ import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.IntStream.range;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Array;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -16,21 +19,38 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 @__inline__
-public final class PersistentList<T> implements List<T> {
+public final class PersistentList<T> implements List<T>, RandomAccess {
   private static final int DEFAULT_SIZE = 16;
+  private static final int PARALLEL_THRESHOLD = 1 << 16;
+  private static final int PARALLEL_CHUNK_SIZE = 1 << 12;
+  private static final VarHandle ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(Object[].class);
 
-  private final Thread ownerThread;
+  private final Thread ownerThread;  // null if the list can be appended concurrently
   private final int size;
   private final T[] array;
+  private final int hashCode;  // hash code of the elements, computed incrementally
 
-  private PersistentList(Thread ownerThread, T[] array, int size) {
+  private PersistentList(Thread ownerThread, T[] array, int size, int hashCode) {
     this.ownerThread = ownerThread;
     this.array = array;
     this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  private static int hashCodeRange(int hashCode, Object[] array, int from, int to) {
+    for(var i = from; i < to; i++) {
+      hashCode = 31 * hashCode + array[i].hashCode();
+    }
+    return hashCode;
   }
 
   public static <T> PersistentList<T> from(IntFunction<? extends T[]> arrayCreator) {
@@ -38,7 +58,86 @@ public final class PersistentList<T> implements List<T> {
     if (array.length != 0) {
       throw new IllegalArgumentException("array creator not implemented correctly");
     }
-    return new PersistentList<>(currentThread(), array, 0);
+    return new PersistentList<>(currentThread(), array, 0, 1);
+  }
+
+  /**
+   * Creates an empty list that can be appended from any thread.
+   * Threads claim the next slot of the shared array with a CAS,
+   * only the threads that lose the race copy the array.
+   * Like any other values, the versions must be safely published to be read by other threads.
+   */
+  public static <T> PersistentList<T> concurrent(IntFunction<? extends T[]> arrayCreator) {
+    var array = arrayCreator.apply(0);
+    if (array.length != 0) {
+      throw new IllegalArgumentException("array creator not implemented correctly");
+    }
+    return new PersistentList<>(null, array, 0, 1);
+  }
+
+  public static <T> Builder<T> builder(IntFunction<? extends T[]> arrayCreator) {
+    var array = arrayCreator.apply(0);
+    if (array.length != 0) {
+      throw new IllegalArgumentException("array creator not implemented correctly");
+    }
+    return new Builder<>(array);
+  }
+
+  /**
+   * A mutable builder of a {@link PersistentList}, the elements are added in place
+   * until {@link #freeze()} is called.
+   * A builder is not thread safe and can not be used after it has been frozen.
+   */
+  public static final class Builder<T> {
+    private T[] array;
+    private int size;
+    private int hashCode = 1;
+
+    private Builder(T[] array) {
+      this.array = array;
+    }
+
+    private T[] ensureCapacity(int minCapacity) {
+      var array = this.array;
+      if (array == null) {
+        throw new IllegalStateException("builder already frozen");
+      }
+      if (minCapacity > array.length) {
+        return this.array = Arrays.copyOf(array, max(DEFAULT_SIZE, max(minCapacity, array.length << 1)));
+      }
+      return array;
+    }
+
+    public Builder<T> add(T element) {
+      requireNonNull(element);
+      var array = ensureCapacity(size + 1);
+      array[size++] = element;
+      hashCode = 31 * hashCode + element.hashCode();
+      return this;
+    }
+
+    public Builder<T> addAll(Collection<? extends T> collection) {
+      var elements = toNonNullArray(collection);
+      var array = ensureCapacity(size + elements.length);
+      System.arraycopy(elements, 0, array, size, elements.length);
+      hashCode = hashCodeRange(hashCode, elements, 0, elements.length);
+      size += elements.length;
+      return this;
+    }
+
+    public PersistentList<T> freeze() {
+      var array = ensureCapacity(0);
+      this.array = null;
+      return new PersistentList<>(currentThread(), array, size, hashCode);
+    }
+  }
+
+  private static Object[] toNonNullArray(Collection<?> collection) {
+    var elements = collection.toArray();  // implicit NPE
+    for(var element: elements) {
+      requireNonNull(element);
+    }
+    return elements;
   }
 
   public static <T> PersistentList<T> generate(
@@ -49,7 +148,7 @@ public final class PersistentList<T> implements List<T> {
     }
     var newArray = Arrays.copyOf(array, size);
     Arrays.setAll(newArray, generator);
-    return new PersistentList<>(currentThread(), newArray, size);
+    return new PersistentList<>(currentThread(), newArray, size, hashCodeRange(1, newArray, 0, size));
   }
 
   public static <T> PersistentList<T> of(T element) {
@@ -57,7 +156,7 @@ public final class PersistentList<T> implements List<T> {
     @SuppressWarnings("unchecked")
     var array = (T[]) Array.newInstance(element.getClass(), 1);
     array[0] = element;
-    return new PersistentList<>(currentThread(), array, 1);
+    return new PersistentList<>(currentThread(), array, 1, 31 + element.hashCode());
   }
 
   @SafeVarargs
@@ -66,7 +165,7 @@ public final class PersistentList<T> implements List<T> {
     for(var element: array) {
       requireNonNull(element);
     }
-    return new PersistentList<>(currentThread(), array, array.length);
+    return new PersistentList<>(currentThread(), array, array.length, hashCodeRange(1, array, 0, array.length));
   }
 
   private static void checkOwnerThread(Thread ownerThread) {
@@ -79,9 +178,12 @@ public final class PersistentList<T> implements List<T> {
   public boolean equals(Object obj) {
     if (obj instanceof  PersistentList) {
       var list = (PersistentList<?>) obj;
-      if (size != list.size) {
+      if (size != list.size || hashCode != list.hashCode) {
         return false;
       }
+      if (array == list.array) {  // same history
+        return true;
+      }
       for(var i = 0; i < size; i++) {
         if (!array[i].equals(list.array[i])) {
           return false;
@@ -96,18 +198,16 @@ public final class PersistentList<T> implements List<T> {
   }
 
   private boolean equalsList(Object o) {
-    var iterator = ((List<?>) o).iterator();
+    var list = (List<?>) o;
+    if (size != list.size()) {
+      return false;
+    }
+    var iterator = list.iterator();
     return Arrays.stream(array, 0, size).allMatch(e -> e.equals(iterator.next()));
   }
 
   @Override
   public int hashCode() {
-    var size = this.size;
-    var array = this.array;
-    var hashCode = 1;
-    for (var i = 0; i < size; i++) {
-      hashCode = 31 * hashCode + array[i].hashCode();
-    }
     return hashCode;
   }
 
@@ -118,6 +218,9 @@ public final class PersistentList<T> implements List<T> {
 
   public PersistentList<T> append(T element) {
     requireNonNull(element);
+    if (ownerThread == null) {
+      return appendConcurrently(element);
+    }
     checkOwnerThread(ownerThread);
     var array = this.array;
     var length = array.length;
@@ -129,14 +232,62 @@ public final class PersistentList<T> implements List<T> {
       return rearrange(array, size, element);
     }
     array[size] = element;
-    return new PersistentList<>(ownerThread, array, size + 1);
+    return new PersistentList<>(ownerThread, array, size + 1, 31 * hashCode + element.hashCode());
+  }
+
+  public PersistentList<T> appendAll(Collection<? extends T> collection) {
+    var elements = toNonNullArray(collection);
+    if (ownerThread != null) {
+      checkOwnerThread(ownerThread);
+    }
+    var length = elements.length;
+    if (length == 0) {
+      return this;
+    }
+    var array = this.array;
+    var size = this.size;
+    var newSize = size + length;
+    var newHashCode = hashCodeRange(hashCode, elements, 0, length);
+    if (newSize <= array.length && claimSlot(array, size, elements[0])) {
+      System.arraycopy(elements, 1, array, size + 1, length - 1);
+      return new PersistentList<>(ownerThread, array, newSize, newHashCode);
+    }
+    @SuppressWarnings("unchecked")
+    var newArray = (T[]) Array.newInstance(array.getClass().getComponentType(), max(newSize, array.length << 1));
+    System.arraycopy(array, 0, newArray, 0, size);
+    System.arraycopy(elements, 0, newArray, size, length);
+    return new PersistentList<>(ownerThread, newArray, newSize, newHashCode);
+  }
+
+  // the thread that fills the slot just after a version owns all the slots after it
+  private boolean claimSlot(Object[] array, int index, Object element) {
+    if (ownerThread == null) {
+      return ARRAY_HANDLE.compareAndSet(array, index, (Object) null, element);
+    }
+    if (array[index] != null) {
+      return false;
+    }
+    array[index] = element;
+    return true;
+  }
+
+  private PersistentList<T> appendConcurrently(T element) {
+    var array = this.array;
+    var size = this.size;
+    if (size == array.length) {
+      return resize(array, size, element);
+    }
+    if (!ARRAY_HANDLE.compareAndSet((Object[]) array, size, (Object) null, (Object) element)) {
+      return rearrange(array, size, element);
+    }
+    return new PersistentList<>(null, array, size + 1, 31 * hashCode + element.hashCode());
   }
 
   private PersistentList<T> resize(T[] array, int length, T element) {
     var newSize = max(DEFAULT_SIZE, length << 1);
     var newArray = Arrays.copyOf(array, newSize);
     newArray[length] = element;
-    return new PersistentList<>(ownerThread, newArray, length + 1);
+    return new PersistentList<>(ownerThread, newArray, length + 1, 31 * hashCode + element.hashCode());
   }
 
   private PersistentList<T> rearrange(T[] array, int size, T element) {
@@ -144,7 +295,7 @@ public final class PersistentList<T> implements List<T> {
     var newArray = (T[]) Array.newInstance(array.getClass().getComponentType(), array.length);
     System.arraycopy(array, 0, newArray, 0, size);
     newArray[size] = element;
-    return new PersistentList<>(ownerThread, newArray, size + 1);
+    return new PersistentList<>(ownerThread, newArray, size + 1, 31 * hashCode + element.hashCode());
   }
 
   @Override
@@ -157,22 +308,25 @@ public final class PersistentList<T> implements List<T> {
     return size == 0;
   }
 
+  /**
+   * {@inheritDoc}
+   * If the list is large, the elements are scanned in parallel using the fork/join common pool.
+   */
   @Override
   public boolean contains(Object o) {
-    requireNonNull(o);
-    return Arrays.stream(array, 0, size).anyMatch(e -> e.equals(o));
+    return indexOf(o) != -1;
   }
 
   public Cursor<T> cursor() {
     return new ListCursor<>(array, 0, size);
   }
 
-  private static class ListCursor<T> implements Cursor<T> {
+  @__inline__
+  private static final class ListCursor<T> implements Cursor<T> {
     private final T[] array;
     private final int index;
     private final int size;
 
-
     private ListCursor(T[] array, int index, int size) {
       this.array = array;
       this.index = index;
@@ -199,11 +353,42 @@ public final class PersistentList<T> implements List<T> {
       }
       return new ListCursor<>(array, index + 1, size);
     }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      requireNonNull(action);
+      var array = this.array;
+      var size = this.size;
+      for(var i = index; i < size; i++) {
+        action.accept(array[i]);
+      }
+    }
+
+    @Override
+    public Cursor<T> skip(int n) {
+      if (n < 0) {
+        throw new IllegalArgumentException("n < 0");
+      }
+      return new ListCursor<>(array, index + Math.min(n, size - index), size);
+    }
+
+    @Override
+    public SubList<T> nextChunk(int max) {
+      if (max < 0) {
+        throw new IllegalArgumentException("max < 0");
+      }
+      return new SubList<>(array, index, index + Math.min(max, size - index));
+    }
+
+    @Override
+    public Iterator<T> iteratorRemaining() {
+      return new PersistentListIterator<>(array, index, size);
+    }
   }
 
   @Override
   public Iterator<T> iterator() {
-    return new PersistentListIterator<>(size, array);
+    return new PersistentListIterator<>(array, 0, size);
   }
 
   private static final class PersistentListIterator<T> implements Iterator<T> {
@@ -211,9 +396,10 @@ public final class PersistentList<T> implements List<T> {
     private int index;
     private final int size;
 
-    private PersistentListIterator(int size, T[] array) {
-      this.size = size;
+    private PersistentListIterator(T[] array, int index, int size) {
       this.array = array;
+      this.index = index;
+      this.size = size;
     }
 
     @Override
@@ -327,17 +513,104 @@ public final class PersistentList<T> implements List<T> {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * {@inheritDoc}
+   * If the list is large, the elements are scanned in parallel using the fork/join common pool.
+   */
   @Override
   public int indexOf(Object o) {
     requireNonNull(o);
-    return range(0, size).filter(i -> array[i].equals(o)).findFirst().orElse(-1);
+    var array = this.array;
+    var size = this.size;
+    if (size >= PARALLEL_THRESHOLD) {
+      return range(0, size).parallel().filter(i -> o.equals(array[i])).findFirst().orElse(-1);
+    }
+    for(var i = 0; i < size; i++) {
+      if (o.equals(array[i])) {
+        return i;
+      }
+    }
+    return -1;
   }
 
+  /**
+   * {@inheritDoc}
+   * If the list is large, the elements are scanned in parallel using the fork/join common pool,
+   * by chunks from the end of the list, so the scan stops at the chunk containing the last match.
+   */
   @Override
   public int lastIndexOf(Object o) {
     requireNonNull(o);
-    var last = this.size - 1;
-    return range(0, size).map(i -> last - i).filter(i -> array[i].equals(o)).findFirst().orElse(-1);
+    var array = this.array;
+    var size = this.size;
+    if (size >= PARALLEL_THRESHOLD) {
+      // the chunks are in reverse order, so findFirst() returns the match of the last chunk
+      // and cancels the scan of the chunks before it
+      var chunkCount = (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+      return range(0, chunkCount).parallel()
+          .map(chunk -> {
+            var start = (chunkCount - 1 - chunk) * PARALLEL_CHUNK_SIZE;
+            return lastIndexOf(o, array, start, Math.min(start + PARALLEL_CHUNK_SIZE, size));
+          })
+          .filter(index -> index != -1)
+          .findFirst()
+          .orElse(-1);
+    }
+    return lastIndexOf(o, array, 0, size);
+  }
+
+  private static int lastIndexOf(Object o, Object[] array, int start, int end) {
+    for(var i = end; --i >= start;) {
+      if (o.equals(array[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void forEach(Consumer<? super T> action) {
+    requireNonNull(action);
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      action.accept(array[i]);
+    }
+  }
+
+  /**
+   * Performs the action on each element using the fork/join common pool,
+   * the elements are not visited in order.
+   */
+  public void parallelForEach(Consumer<? super T> action) {
+    requireNonNull(action);
+    Arrays.stream(array, 0, size).parallel().forEach(action);
+  }
+
+  public <V> V reduce(V initial, BiFunction<? super V, ? super T, ? extends V> accumulate) {
+    requireNonNull(accumulate);
+    var array = this.array;
+    var size = this.size;
+    var v = initial;
+    for(var i = 0; i < size; i++) {
+      v = accumulate.apply(v, array[i]);
+    }
+    return v;
+  }
+
+  /**
+   * Reduces the elements using the fork/join common pool,
+   * the operator has to be associative and identity has to be an identity for the operator.
+   */
+  public T parallelReduce(T identity, BinaryOperator<T> operator) {
+    requireNonNull(operator);
+    return Arrays.stream(array, 0, size).parallel().reduce(identity, operator);
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    return Spliterators.spliterator(array, 0, size,
+        Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
   }
 
   @Override
@@ -351,9 +624,96 @@ public final class PersistentList<T> implements List<T> {
   }
 
   @Override
-  public List<T> subList(int fromIndex, int toIndex) {
+  public SubList<T> subList(int fromIndex, int toIndex) {
     Objects.checkFromToIndex(fromIndex, toIndex, size);
-    return List.copyOf(Arrays.asList(array)).subList(fromIndex, toIndex);
+    return new SubList<>(array, fromIndex, toIndex);
+  }
+
+  /**
+   * An immutable view of a range of a {@link PersistentList}, it shares the array of the list.
+   */
+  public static final class SubList<T> extends AbstractList<T> implements RandomAccess {
+    private final T[] array;
+    private final int from;
+    private final int to;
+
+    private SubList(T[] array, int from, int to) {
+      this.array = array;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public T get(int index) {
+      Objects.checkIndex(index, to - from);
+      return array[from + index];
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return indexOf(o) != -1;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      requireNonNull(o);
+      for(var i = from; i < to; i++) {
+        if (o.equals(array[i])) {
+          return i - from;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+      requireNonNull(o);
+      for(var i = to; --i >= from;) {
+        if (o.equals(array[i])) {
+          return i - from;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+      requireNonNull(action);
+      for(var i = from; i < to; i++) {
+        action.accept(array[i]);
+      }
+    }
+
+    @Override
+    public Object[] toArray() {
+      return Arrays.copyOfRange(array, from, to, Object[].class);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return new PersistentListIterator<>(array, from, to);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+      return Spliterators.spliterator(array, from, to,
+          Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+    }
+
+    public Cursor<T> cursor() {
+      return new ListCursor<>(array, from, to);
+    }
+
+    @Override
+    public SubList<T> subList(int fromIndex, int toIndex) {
+      Objects.checkFromToIndex(fromIndex, toIndex, to - from);
+      return new SubList<>(array, from + fromIndex, from + toIndex);
+    }
   }
 
   private static final class PersistentListListIterator<T> implements ListIterator<T> {
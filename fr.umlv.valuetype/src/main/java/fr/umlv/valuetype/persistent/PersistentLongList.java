@@ -0,0 +1,230 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveList.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+import java.util.function.IntToLongFunction;
+import java.util.stream.LongStream;
+
+@__inline__
+public final class PersistentLongList {
+  private static final int DEFAULT_SIZE = 16;
+  private static final long[] EMPTY = new long[0];
+
+  private final Thread ownerThread;
+  private final int size;
+  private final long[] array;
+  private final int[] top;  // top[0] is the number of slots of the array used by the versions
+
+  private PersistentLongList(Thread ownerThread, long[] array, int[] top, int size) {
+    this.ownerThread = ownerThread;
+    this.array = array;
+    this.top = top;
+    this.size = size;
+  }
+
+  public static PersistentLongList of() {
+    return new PersistentLongList(currentThread(), EMPTY, new int[1], 0);
+  }
+
+  public static PersistentLongList of(long... elements) {
+    var array = Arrays.copyOf(elements, elements.length);
+    return new PersistentLongList(currentThread(), array, new int[] { array.length }, array.length);
+  }
+
+  public static PersistentLongList generate(int size, IntToLongFunction generator) {
+    requireNonNull(generator);
+    var array = new long[size];
+    Arrays.setAll(array, generator);
+    return new PersistentLongList(currentThread(), array, new int[] { size }, size);
+  }
+
+  private static void checkOwnerThread(Thread ownerThread) {
+    if (currentThread() != ownerThread) {
+      throw new IllegalStateException("invalid owner thread");
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PersistentLongList)) {
+      return false;
+    }
+    var list = (PersistentLongList) obj;
+    if (array == list.array) {  // same history
+      return size == list.size;
+    }
+    return Arrays.equals(array, 0, size, list.array, 0, list.size);
+  }
+
+  @Override
+  public int hashCode() {
+    var size = this.size;
+    var array = this.array;
+    var hashCode = 1;
+    for (var i = 0; i < size; i++) {
+      hashCode = 31 * hashCode + Long.hashCode(array[i]);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return stream().mapToObj(String::valueOf).collect(joining(", ", "[", "]"));
+  }
+
+  public PersistentLongList append(long element) {
+    checkOwnerThread(ownerThread);
+    var array = this.array;
+    var length = array.length;
+    var size = this.size;
+    if (size == length) {
+      return resize(array, length, element);
+    }
+    if (top[0] != size) {
+      return rearrange(array, size, element);
+    }
+    array[size] = element;
+    top[0] = size + 1;
+    return new PersistentLongList(ownerThread, array, top, size + 1);
+  }
+
+  private PersistentLongList resize(long[] array, int length, long element) {
+    var newArray = Arrays.copyOf(array, Math.max(DEFAULT_SIZE, length << 1));
+    newArray[length] = element;
+    return new PersistentLongList(ownerThread, newArray, new int[] { length + 1 }, length + 1);
+  }
+
+  private PersistentLongList rearrange(long[] array, int size, long element) {
+    var newArray = new long[array.length];
+    System.arraycopy(array, 0, newArray, 0, size);
+    newArray[size] = element;
+    return new PersistentLongList(ownerThread, newArray, new int[] { size + 1 }, size + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public long get(int index) {
+    Objects.checkIndex(index, size);
+    return array[index];
+  }
+
+  public boolean contains(long element) {
+    return indexOf(element) != -1;
+  }
+
+  public int indexOf(long element) {
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      if (Long.compare(array[i], element) == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public void forEach(LongConsumer action) {
+    requireNonNull(action);
+    var array = this.array;
+    var size = this.size;
+    for(var i = 0; i < size; i++) {
+      action.accept(array[i]);
+    }
+  }
+
+  public long sum() {
+    var array = this.array;
+    var size = this.size;
+    var sum = 0L;
+    for(var i = 0; i < size; i++) {
+      sum += array[i];
+    }
+    return sum;
+  }
+
+  public OptionalLong min() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalLong.empty();
+    }
+    var min = array[0];
+    for(var i = 1; i < size; i++) {
+      min = Math.min(min, array[i]);
+    }
+    return OptionalLong.of(min);
+  }
+
+  public OptionalLong max() {
+    var array = this.array;
+    var size = this.size;
+    if (size == 0) {
+      return OptionalLong.empty();
+    }
+    var max = array[0];
+    for(var i = 1; i < size; i++) {
+      max = Math.max(max, array[i]);
+    }
+    return OptionalLong.of(max);
+  }
+
+  public LongStream stream() {
+    return Arrays.stream(array, 0, size);
+  }
+
+  public long[] toArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  public LongCursor cursor() {
+    return new LongListCursor(array, 0, size);
+  }
+
+  @__inline__
+  private static final class LongListCursor implements LongCursor {
+    private final long[] array;
+    private final int index;
+    private final int size;
+
+    private LongListCursor(long[] array, int index, int size) {
+      this.array = array;
+      this.index = index;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public long element() {
+      if (index == size) {
+        throw new NoSuchElementException();
+      }
+      return array[index];
+    }
+
+    @Override
+    public LongCursor next() {
+      if (index == size) {
+        throw new IllegalStateException();
+      }
+      return new LongListCursor(array, index + 1, size);
+    }
+  }
+}
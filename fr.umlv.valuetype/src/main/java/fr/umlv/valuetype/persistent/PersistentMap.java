@@ -4,7 +4,11 @@ import static java.lang.Thread.currentThread;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Array;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -12,20 +16,55 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
-
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A persistent hash map using open addressing with Swiss table like probing.
+ *
+ * Each slot of the table has a control byte, either {@code EMPTY} or the 7 low bits of the
+ * spread hash of its key, and the spread hash itself is stored alongside the entry.
+ * Probing scans the control bytes of a group of 8 slots at once, compares the stored hash
+ * before calling {@code equals} and never recomputes {@code hashCode()} when the table grows.
+ */
 @__inline__
 public final class PersistentMap<K, V> implements Map<K, V> {
   private static final int DEFAULT_SIZE = 16;
+  private static final int GROUP_WIDTH = 8;
+  private static final byte EMPTY = (byte) 0x80;
+  private static final long LSB = 0x0101010101010101L;
+  private static final long MSB = 0x8080808080808080L;
+  private static final int MOVED = -2;  // in order[size], a newer version lives in another table
+  private static final VarHandle GROUP_HANDLE =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
 
   private final Thread ownerThread;
   private final GenEntry<K, V>[] entries;
+  private final byte[] controls;
+  private final int[] hashes;
+  private final int[] order;  // generation -> index in the table, -1 if not yet appended, or MOVED
+  private final Object lineage;  // shared by all the versions that share the same generations
   private final int size;
 
-  private PersistentMap(Thread ownerThread, GenEntry<K, V>[] entries, int size) {
+  private PersistentMap(
+      Thread ownerThread,
+      GenEntry<K, V>[] entries,
+      byte[] controls,
+      int[] hashes,
+      int[] order,
+      Object lineage,
+      int size) {
     this.ownerThread = ownerThread;
     this.entries = entries;
+    this.controls = controls;
+    this.hashes = hashes;
+    this.order = order;
+    this.lineage = lineage;
     this.size = size;
   }
 
@@ -50,86 +89,310 @@ public final class PersistentMap<K, V> implements Map<K, V> {
     if (array.length != 0 || !array.getClass().getComponentType().isInlineClass()) {
       throw new IllegalArgumentException("array creator not implemented correctly");
     }
-    return new PersistentMap<>(currentThread(), array, 0);
+    return new PersistentMap<>(
+        currentThread(), array, new byte[0], new int[0], new int[] { -1 }, new Object(), 0);
   }
 
+  // a frozen map has no owner thread and can be read from any thread
   private static void checkOwnerThread(Thread ownerThread) {
-    if (currentThread() != ownerThread) {
+    if (ownerThread != null && currentThread() != ownerThread) {
       throw new IllegalStateException("invalid owner thread");
     }
   }
 
+  // mix the bits, so keys with close hash codes (sequential ids) or with the same low bits
+  // end up in different groups
+  static int spread(int hashCode) {  // package private for testing
+    var hash = hashCode * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  static byte tag(int hash) {  // package private for testing
+    return (byte) (hash & 0x7F);
+  }
+
+  private static int firstGroup(int hash, int mask) {
+    return (hash >>> 7) & mask & -GROUP_WIDTH;
+  }
+
+  private static long group(byte[] controls, int group) {
+    return (long) GROUP_HANDLE.get(controls, group);
+  }
+
+  // the high bit of each byte equal to the tag is set,
+  // may have false positives after a true positive, they are filtered by the hash check
+  private static long matchTag(long group, byte tag) {
+    var bits = group ^ (LSB * tag);
+    return (bits - LSB) & ~bits & MSB;
+  }
+
+  private static long matchEmpty(long group) {
+    return group & MSB;
+  }
+
+  private static int slot(int group, long matches) {
+    return group + (Long.numberOfTrailingZeros(matches) >>> 3);
+  }
+
+  // the index of the key visible in this version or -1
+  private int find(Object key, int hash) {
+    var controls = this.controls;
+    if (controls.length == 0) {
+      return -1;
+    }
+    var mask = controls.length - 1;
+    var tag = tag(hash);
+    for (var group = firstGroup(hash, mask); ; group = (group + GROUP_WIDTH) & mask) {
+      var bits = group(controls, group);
+      for (var matches = matchTag(bits, tag); matches != 0; matches &= matches - 1) {
+        var index = slot(group, matches);
+        if (hashes[index] == hash) {
+          var entry = entries[index];
+          if (entry.generation() < size && key.equals(entry.key())) {
+            return index;
+          }
+        }
+      }
+      if (matchEmpty(bits) != 0) {
+        return -1;
+      }
+    }
+  }
+
+  private static int freeIndex(byte[] controls, int hash) {
+    var mask = controls.length - 1;
+    for (var group = firstGroup(hash, mask); ; group = (group + GROUP_WIDTH) & mask) {
+      var empties = matchEmpty(group(controls, group));
+      if (empties != 0) {
+        return slot(group, empties);
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of this version that can be read from any thread without any thread check.
+   * The snapshot has its own copy of the table, so the owner thread can continue to append to this
+   * version; appending to the snapshot returns a new map owned by the calling thread that starts
+   * a new lineage (see {@link #deltaSince(PersistentMap)}).
+   * The snapshot still has to be published safely (final field, volatile, concurrent collection).
+   */
+  public PersistentMap<K, V> freeze() {
+    if (ownerThread == null) {
+      return this;
+    }
+    checkOwnerThread(ownerThread);
+    return copy(null, entries.length, lineage);
+  }
+
+  public boolean isFrozen() {
+    return ownerThread == null;
+  }
+
+  // a copy of the table without the entries of the newer versions,
+  // the entries are re-inserted in generation order so the generations are kept
+  private PersistentMap<K, V> copy(Thread ownerThread, int length, Object lineage) {
+    @SuppressWarnings("unchecked")
+    var newEntries =
+        (GenEntry<K, V>[]) Array.newInstance(entries.getClass().getComponentType(), length);
+    var newControls = new byte[length];
+    Arrays.fill(newControls, EMPTY);
+    var newHashes = new int[length];
+    var newOrder = new int[Math.max(1, length)];  // order[size] exists even for an empty table
+    Arrays.fill(newOrder, size, newOrder.length, -1);
+    for (var generation = 0; generation < size; generation++) {
+      var oldIndex = order[generation];
+      var hash = hashes[oldIndex];
+      var index = freeIndex(newControls, hash);
+      newEntries[index] = entries[oldIndex];
+      newControls[index] = tag(hash);
+      newHashes[index] = hash;
+      newOrder[generation] = index;
+    }
+    return new PersistentMap<>(
+        ownerThread, newEntries, newControls, newHashes, newOrder, lineage, size);
+  }
+
   public PersistentMap<K, V> append(K key, V value) {
     requireNonNull(key);
     requireNonNull(value);
+    if (ownerThread == null) {  // the table of a frozen map is read by other threads
+      // a snapshot can be appended several times, so the copy is not its only successor
+      return copy(currentThread(), entries.length, new Object()).append(key, value);
+    }
     checkOwnerThread(ownerThread);
+    var hash = spread(key.hashCode());
+    var index = find(key, hash);
+    if (index != -1) {
+      return replace(index, hash, key, value);
+    }
     var length = entries.length;
-    if (length == 0) {
-      return oneEntry(key, value);
+    var fork = order[size] != -1;  // a newer version already exists
+    if (size >= length - (length >> 3)) {  // max load factor 7/8
+      return grow(Math.max(DEFAULT_SIZE, length << 1), fork).insert(hash, key, value);
+    }
+    if (fork) {
+      return copy(ownerThread, length, new Object()).insert(hash, key, value);
     }
+    return insert(hash, key, value);
+  }
+
+  // a copy in a new table that keeps the lineage only if it is the first successor of this version,
+  // the next successors see MOVED and fork
+  private PersistentMap<K, V> grow(int length, boolean fork) {
+    if (fork) {
+      return copy(ownerThread, length, new Object());
+    }
+    order[size] = MOVED;
+    return copy(ownerThread, length, lineage);
+  }
 
-    var index = key.hashCode() & (length - 1);
-    for (; ; index = (index + 1) & (length - 1)) {
-      var entry = entries[index];
-      var entryKey = entry.key();
-      if (entryKey == null) {
-        break;
+  // the smallest table length that can store size entries without growing
+  private static int tableLength(int size) {
+    var length = DEFAULT_SIZE;
+    while (size > length - (length >> 3)) {
+      length <<= 1;
+    }
+    return length;
+  }
+
+  /**
+   * Appends all the entries of a map, in the iteration order of the map.
+   * The table grows at most once, to a length computed from the number of entries,
+   * and no intermediary version is created.
+   */
+  public PersistentMap<K, V> appendAll(Map<? extends K, ? extends V> map) {
+    requireNonNull(map);
+    var ownerThread = this.ownerThread;
+    if (ownerThread == null) {  // the table of a frozen map is read by other threads
+      ownerThread = currentThread();
+    } else {
+      checkOwnerThread(ownerThread);
+    }
+    var length = Math.max(entries.length, tableLength(size + map.size()));
+    var fork = order[size] != -1;  // a newer version already exists
+    PersistentMap<K, V> result;
+    var inPlace = false;
+    if (this.ownerThread == null) {
+      result = copy(ownerThread, length, new Object());
+    } else if (length != entries.length) {
+      result = grow(length, fork);
+    } else if (fork) {
+      result = copy(ownerThread, length, new Object());
+    } else {
+      result = this;
+      inPlace = true;
+    }
+    var replaced = false;
+    for (var entry : map.entrySet()) {
+      var key = requireNonNull(entry.getKey());
+      var value = requireNonNull(entry.getValue());
+      var hash = spread(key.hashCode());
+      var index = result.find(key, hash);
+      if (index == -1) {
+        result = result.insert(hash, key, value);
+        continue;
       }
-      if (key.equals(entryKey)) {
-        return replace(index, key, value, size);
+      if (value.equals(result.entries[index].value())) {
+        continue;
       }
+      if (inPlace) {  // the table is shared with the older versions
+        result = result.copy(ownerThread, length, new Object());
+        inPlace = false;
+        index = result.find(key, hash);
+      }
+      var oldEntry = result.entries[index];
+      result.entries[index] = oldEntry.with(key, value, oldEntry.generation());
+      replaced = true;
     }
-
-    entries[index] = entries[index].with(key, value, size);
-    if (size == length << 1) {
-      return resize(key, value, size);
+    if (replaced && result.lineage == lineage) {
+      // an entry changed without a new generation, start a new lineage
+      return new PersistentMap<>(
+          ownerThread,
+          result.entries,
+          result.controls,
+          result.hashes,
+          result.order,
+          new Object(),
+          result.size);
     }
-    return new PersistentMap<>(ownerThread, entries, size + 1);
+    return result;
   }
 
-  private PersistentMap<K, V> oneEntry(K key, V value) {
-    var newEntries = Arrays.copyOf(entries, DEFAULT_SIZE);
-    var index = key.hashCode() & (DEFAULT_SIZE - 1);
-    newEntries[index] = newEntries[index].with(key, value, 0);
-    return new PersistentMap<>(ownerThread, newEntries, 1);
+  /**
+   * Returns a collector that creates a PersistentMap with one table sized from the number of
+   * elements. The returned map is owned by the thread that calls {@code collect}.
+   *
+   * @throws IllegalStateException if two elements have the same key.
+   */
+  public static <T, K, V> Collector<T, ?, PersistentMap.ref<K, V>> toPersistentMap(
+      IntFunction<? extends GenEntry<K, V>[]> arrayCreator,
+      Function<? super T, ? extends K> keyMapper,
+      Function<? super T, ? extends V> valueMapper) {
+    requireNonNull(arrayCreator);
+    requireNonNull(keyMapper);
+    requireNonNull(valueMapper);
+    return Collector.of(
+        ArrayList<T>::new,
+        ArrayList::add,
+        (list1, list2) -> {
+          list1.addAll(list2);
+          return list1;
+        },
+        list -> {
+          var map =
+              PersistentMap.<K, V>fromArrayCreator(arrayCreator)
+                  .copy(currentThread(), tableLength(list.size()), new Object());
+          for (var element : list) {
+            K key = requireNonNull(keyMapper.apply(element));
+            V value = requireNonNull(valueMapper.apply(element));
+            var hash = spread(key.hashCode());
+            if (map.find(key, hash) != -1) {
+              throw new IllegalStateException("duplicate key " + key);
+            }
+            map = map.insert(hash, key, value);
+          }
+          return map;
+        });
   }
 
-  private PersistentMap<K, V> replace(int index, K key, V value, int size) {
+  private PersistentMap<K, V> insert(int hash, K key, V value) {
+    var index = freeIndex(controls, hash);
+    entries[index] = entries[index].with(key, value, size);
+    hashes[index] = hash;
+    controls[index] = tag(hash);
+    order[size] = index;
+    return new PersistentMap<>(ownerThread, entries, controls, hashes, order, lineage, size + 1);
+  }
+
+  private PersistentMap<K, V> replace(int index, int hash, K key, V value) {
     var oldEntry = entries[index];
     if (value.equals(oldEntry.value())) {
       return this;
     }
-    @SuppressWarnings("unchecked")
-    var newEntries =
-        (GenEntry<K, V>[]) Array.newInstance(entries.getClass().getComponentType(), entries.length);
-    for (var i = 0; i < newEntries.length; i++) {
-      var entry = entries[i];
-      newEntries[i] = entry.with(entry.key(), entry.value(), 0); // reset generation
-    }
-    newEntries[index] = oldEntry.with(key, value, 0);
-    return new PersistentMap<>(ownerThread, newEntries, size);
+    // the entry changes without a new generation, so the copy starts a new lineage
+    var map = copy(ownerThread, entries.length, new Object());
+    var newIndex = map.find(key, hash);
+    map.entries[newIndex] = oldEntry.with(key, value, oldEntry.generation());
+    return map;
   }
 
-  private PersistentMap<K, V> resize(K key, V value, int size) {
-    var newLength = size << 2;
-    @SuppressWarnings("unchecked")
-    var newEntries =
-        (GenEntry<K, V>[]) Array.newInstance(entries.getClass().getComponentType(), newLength);
-
-    loop:
-    for (var entry : entries) {
-      if (entry.key() != null) {
-        var index = key.hashCode() & (newLength - 1);
-        for (; ; ) {
-          if (newEntries[index].key() == null) {
-            newEntries[index] = entry.with(key, value, size);
-            continue loop;
-          }
-          index = (index + 1) & (newLength - 1);
-        }
-      }
+  /**
+   * Returns the entries appended since an older version of this map, in insertion order,
+   * in O(number of entries appended).
+   *
+   * @param older a version this map was derived from by appending new keys.
+   * @throws IllegalArgumentException if this map was not derived from {@code older} only by
+   *     appending new keys; replacing the value of a key, appending to a version that already
+   *     has a newer version or appending to a frozen snapshot starts a new lineage.
+   */
+  public Stream<Map.Entry<K, V>> deltaSince(PersistentMap<K, V> older) {
+    checkOwnerThread(ownerThread);
+    if (older.lineage != lineage || older.size > size) {
+      throw new IllegalArgumentException("not an older version of this map");
     }
-    return new PersistentMap<>(ownerThread, newEntries, size + 1);
+    var entries = this.entries;
+    var order = this.order;
+    return IntStream.range(older.size, size).mapToObj(generation -> entries[order[generation]]);
   }
 
   @Override
@@ -147,34 +410,37 @@ public final class PersistentMap<K, V> implements Map<K, V> {
   @Override
   public Set<Map.Entry<K, V>> entrySet() {
     checkOwnerThread(ownerThread);
-    return new MapEntrySet<>(entries, size, identity(), ownerThread);
+    return new MapEntrySet<>(entries, order, size, identity(), ownerThread);
   }
 
   @Override
   public Set<K> keySet() {
     checkOwnerThread(ownerThread);
-    return new MapEntrySet<>(entries, size, GenEntry::key, ownerThread);
+    return new MapEntrySet<>(entries, order, size, GenEntry::key, ownerThread);
   }
 
   @Override
   public Collection<V> values() {
     checkOwnerThread(ownerThread);
-    return new MapEntrySet<>(entries, size, GenEntry::value, ownerThread);
+    return new MapEntrySet<>(entries, order, size, GenEntry::value, ownerThread);
   }
 
   @__inline__
   private static final class MapEntrySet<K, V, R> implements Set<R> {
     private final GenEntry<K, V>[] entries;
+    private final int[] order;
     private final int size;
     private final Function<? super GenEntry<K, V>, ? extends R> mapper;
     private final Thread ownerThread;
 
     private MapEntrySet(
         GenEntry<K, V>[] entries,
+        int[] order,
         int size,
         Function<? super GenEntry<K, V>, ? extends R> mapper,
         Thread ownerThread) {
       this.entries = entries;
+      this.order = order;
       this.size = size;
       this.mapper = mapper;
       this.ownerThread = ownerThread;
@@ -196,24 +462,34 @@ public final class PersistentMap<K, V> implements Map<K, V> {
     public boolean contains(Object o) {
       requireNonNull(o);
       checkOwnerThread(ownerThread);
-      return Arrays.stream(entries)
-          .filter(entry -> entry.generation() < size)
-          .anyMatch(entry -> mapper.apply(entry).equals(o));
+      for (var generation = 0; generation < size; generation++) {
+        if (mapper.apply(entries[order[generation]]).equals(o)) {
+          return true;
+        }
+      }
+      return false;
     }
 
     @Override
     public Iterator<R> iterator() {
       checkOwnerThread(ownerThread);
-      return new MapEntryIterator<>(entries, size, mapper);
+      return new MapEntryIterator<>(entries, order, size, mapper);
+    }
+
+    @Override
+    public Spliterator<R> spliterator() {
+      checkOwnerThread(ownerThread);
+      return new MapEntrySpliterator<>(entries, order, 0, size, mapper);
     }
 
     @Override
     public Object[] toArray() {
       checkOwnerThread(ownerThread);
-      return Arrays.stream(entries)
-          .filter(entry -> entry.generation() < size)
-          .map(mapper)
-          .toArray();
+      var array = new Object[size];
+      for (var generation = 0; generation < size; generation++) {
+        array[generation] = mapper.apply(entries[order[generation]]);
+      }
+      return array;
     }
 
     @Override
@@ -229,7 +505,7 @@ public final class PersistentMap<K, V> implements Map<K, V> {
       for (var i = 0; i < size; i++) {
         array[i] = (T) iterator.next();
       }
-      if (a.length >= size) {
+      if (a.length > size) {
         array[size] = null;
       }
       return array;
@@ -272,35 +548,28 @@ public final class PersistentMap<K, V> implements Map<K, V> {
       throw new UnsupportedOperationException();
     }
 
+    // iterate in insertion order
     private static final class MapEntryIterator<K, V, R> implements Iterator<R> {
       private final GenEntry<K, V>[] entries;
+      private final int[] order;
       private final int size;
       private final Function<? super GenEntry<K, V>, ? extends R> mapper;
-      private int index;
+      private int generation;
 
       private MapEntryIterator(
           GenEntry<K, V>[] entries,
+          int[] order,
           int size,
           Function<? super GenEntry<K, V>, ? extends R> mapper) {
         this.entries = entries;
+        this.order = order;
         this.size = size;
         this.mapper = mapper;
-        index = nextIndex(0);
-      }
-
-      private int nextIndex(int index) {
-        for (var i = index; i < size; i++) {
-          var entry = entries[i];
-          if (entry.key() != null && entry.generation() < size) {
-            return i;
-          }
-        }
-        return -1;
       }
 
       @Override
       public boolean hasNext() {
-        return index != -1;
+        return generation < size;
       }
 
       @Override
@@ -308,9 +577,67 @@ public final class PersistentMap<K, V> implements Map<K, V> {
         if (!(hasNext())) {
           throw new NoSuchElementException("no element");
         }
-        var entry = entries[index];
-        index = nextIndex(index + 1);
-        return mapper.apply(entry);
+        return mapper.apply(entries[order[generation++]]);
+      }
+    }
+
+    private static final class MapEntrySpliterator<K, V, R> implements Spliterator<R> {
+      private final GenEntry<K, V>[] entries;
+      private final int[] order;
+      private int generation;
+      private final int end;
+      private final Function<? super GenEntry<K, V>, ? extends R> mapper;
+
+      private MapEntrySpliterator(
+          GenEntry<K, V>[] entries,
+          int[] order,
+          int generation,
+          int end,
+          Function<? super GenEntry<K, V>, ? extends R> mapper) {
+        this.entries = entries;
+        this.order = order;
+        this.generation = generation;
+        this.end = end;
+        this.mapper = mapper;
+      }
+
+      @Override
+      public boolean tryAdvance(Consumer<? super R> action) {
+        requireNonNull(action);
+        if (generation >= end) {
+          return false;
+        }
+        action.accept(mapper.apply(entries[order[generation++]]));
+        return true;
+      }
+
+      @Override
+      public void forEachRemaining(Consumer<? super R> action) {
+        requireNonNull(action);
+        for (; generation < end; generation++) {
+          action.accept(mapper.apply(entries[order[generation]]));
+        }
+      }
+
+      @Override
+      public Spliterator<R> trySplit() {
+        var middle = (generation + end) >>> 1;
+        if (middle <= generation) {
+          return null;
+        }
+        var prefix = new MapEntrySpliterator<K, V, R>(entries, order, generation, middle, mapper);
+        generation = middle;
+        return prefix;
+      }
+
+      @Override
+      public long estimateSize() {
+        return end - generation;
+      }
+
+      @Override
+      public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
       }
     }
   }
@@ -344,44 +671,26 @@ public final class PersistentMap<K, V> implements Map<K, V> {
   public V getOrDefault(Object key, V defaultValue) {
     requireNonNull(key);
     checkOwnerThread(ownerThread);
-    var entries = this.entries;
-    var generation = size;
-    var index = key.hashCode() & (entries.length - 1);
-    for (; ; index = (index + 1) & (entries.length - 1)) {
-      var entry = entries[index];
-      if (entry.key() == null) {
-        return defaultValue;
-      }
-      if (entry.key().equals(key) && entry.generation() < generation) {
-        return entry.value();
-      }
-    }
+    var index = find(key, spread(key.hashCode()));
+    return index == -1 ? defaultValue : entries[index].value();
   }
 
   @Override
   public boolean containsKey(Object key) {
     requireNonNull(key);
     checkOwnerThread(ownerThread);
-    var entries = this.entries;
-    var generation = size;
-    var index = key.hashCode() & (entries.length - 1);
-    for (; ; index = (index + 1) & (entries.length - 1)) {
-      var entry = entries[index];
-      if (entry.key() == null) {
-        return false;
-      }
-      if (entry.key().equals(key) && entry.generation() < generation) {
-        return true;
-      }
-    }
+    return find(key, spread(key.hashCode())) != -1;
   }
 
   @Override
   public boolean containsValue(Object value) {
     requireNonNull(value);
     checkOwnerThread(ownerThread);
-    return Arrays.stream(entries, 0, size)
-        .filter(entry -> entry.key() != null && entry.generation() < size)
-        .anyMatch(entry -> entry.value().equals(value));
+    for (var generation = 0; generation < size; generation++) {
+      if (entries[order[generation]].value().equals(value)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
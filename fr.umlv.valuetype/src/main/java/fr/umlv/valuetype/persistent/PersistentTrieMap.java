@@ -0,0 +1,476 @@
+package fr.umlv.valuetype.persistent;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * A persistent map implemented as a hash array mapped trie (CHAMP layout),
+ * the entries are stored inline in the nodes.
+ *
+ * Unlike {@link PersistentMap}, the nodes are never shared in a mutable way,
+ * so {@link #append(Object, Object)} and {@link #without(Object)} cost O(log32 n)
+ * on any version and can be called from any thread.
+ */
+@__inline__
+public final class PersistentTrieMap<K, V> implements Map<K, V> {
+  private static final int SHIFT = 5;
+  private static final int MASK = (1 << SHIFT) - 1;
+  private static final int HASH_BITS = 32;
+  private static final int MAX_DEPTH = (HASH_BITS + SHIFT - 1) / SHIFT + 1;
+
+  private final Node<K, V> root;
+  private final int size;
+
+  private PersistentTrieMap(Node<K, V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @__inline__
+  private static final class Entry<K, V> implements Map.Entry<K, V> {
+    private final int hash;
+    private final K key;
+    private final V value;
+
+    private Entry(int hash, K key, V value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      var entry = (Map.Entry<?, ?>) o;
+      return key.equals(entry.getKey()) && value.equals(entry.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  // a node with dataMap == 0 and nodeMap == 0 below the last level is a collision node,
+  // its entries are not sorted
+  private static final class Node<K, V> {
+    private static final Entry<?, ?>[] EMPTY_ENTRIES = new Entry<?, ?>[0];
+    private static final Node<?, ?>[] EMPTY_NODES = new Node<?, ?>[0];
+    private static final Node<?, ?> EMPTY = new Node<>(0, 0, EMPTY_ENTRIES, EMPTY_NODES);
+
+    private final int dataMap;
+    private final int nodeMap;
+    private final Entry<K, V>[] entries;
+    private final Node<K, V>[] nodes;
+
+    @SuppressWarnings("unchecked")
+    private Node(int dataMap, int nodeMap, Entry<?, ?>[] entries, Node<?, ?>[] nodes) {
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.entries = (Entry<K, V>[]) entries;
+      this.nodes = (Node<K, V>[]) nodes;
+    }
+
+    private static int index(int bitmap, int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+
+    V get(int hash, Object key, int shift) {
+      var node = this;
+      for(;; shift += SHIFT) {
+        if (shift >= HASH_BITS) {
+          for(var entry: node.entries) {
+            if (entry.hash == hash && key.equals(entry.key)) {
+              return entry.value;
+            }
+          }
+          return null;
+        }
+        var bit = bit(hash, shift);
+        if ((node.dataMap & bit) != 0) {
+          var entry = node.entries[index(node.dataMap, bit)];
+          return (entry.hash == hash && key.equals(entry.key))? entry.value: null;
+        }
+        if ((node.nodeMap & bit) == 0) {
+          return null;
+        }
+        node = node.nodes[index(node.nodeMap, bit)];
+      }
+    }
+
+    Node<K, V> put(Entry<K, V> newEntry, int shift, int[] sizeDelta) {
+      var hash = newEntry.hash;
+      if (shift >= HASH_BITS) {
+        for(var i = 0; i < entries.length; i++) {
+          var entry = entries[i];
+          if (entry.hash == hash && newEntry.key.equals(entry.key)) {
+            return newEntry.value.equals(entry.value)? this: withEntry(i, newEntry);
+          }
+        }
+        sizeDelta[0] = 1;
+        var newEntries = Arrays.copyOf(entries, entries.length + 1);
+        newEntries[entries.length] = newEntry;
+        return new Node<>(0, 0, newEntries, nodes);
+      }
+      var bit = bit(hash, shift);
+      if ((dataMap & bit) != 0) {
+        var index = index(dataMap, bit);
+        var entry = entries[index];
+        if (entry.hash == hash && newEntry.key.equals(entry.key)) {
+          return newEntry.value.equals(entry.value)? this: withEntry(index, newEntry);
+        }
+        sizeDelta[0] = 1;
+        return withEntryMovedToNode(bit, index, merge(entry, newEntry, shift + SHIFT));
+      }
+      if ((nodeMap & bit) != 0) {
+        var index = index(nodeMap, bit);
+        var node = nodes[index];
+        var newNode = node.put(newEntry, shift + SHIFT, sizeDelta);
+        return (newNode == node)? this: withNode(index, newNode);
+      }
+      sizeDelta[0] = 1;
+      return withEntryInserted(bit, newEntry);
+    }
+
+    Node<K, V> remove(int hash, Object key, int shift, int[] sizeDelta) {
+      if (shift >= HASH_BITS) {
+        for(var i = 0; i < entries.length; i++) {
+          var entry = entries[i];
+          if (entry.hash == hash && key.equals(entry.key)) {
+            sizeDelta[0] = -1;
+            return new Node<>(0, 0, removeAt(entries, i), nodes);
+          }
+        }
+        return this;
+      }
+      var bit = bit(hash, shift);
+      if ((dataMap & bit) != 0) {
+        var index = index(dataMap, bit);
+        var entry = entries[index];
+        if (entry.hash != hash || !key.equals(entry.key)) {
+          return this;
+        }
+        sizeDelta[0] = -1;
+        return new Node<>(dataMap ^ bit, nodeMap, removeAt(entries, index), nodes);
+      }
+      if ((nodeMap & bit) != 0) {
+        var index = index(nodeMap, bit);
+        var node = nodes[index];
+        var newNode = node.remove(hash, key, shift + SHIFT, sizeDelta);
+        if (newNode == node) {
+          return this;
+        }
+        if (newNode.nodeMap == 0 && newNode.entries.length == 1) {  // keep the trie compact
+          return withNodeMovedToEntry(bit, index, newNode.entries[0]);
+        }
+        return withNode(index, newNode);
+      }
+      return this;
+    }
+
+    private static <K, V> Node<K, V> merge(Entry<K, V> entry1, Entry<K, V> entry2, int shift) {
+      if (shift >= HASH_BITS) {
+        return new Node<>(0, 0, new Entry<?, ?>[] { entry1, entry2 }, EMPTY_NODES);
+      }
+      var bit1 = bit(entry1.hash, shift);
+      var bit2 = bit(entry2.hash, shift);
+      if (bit1 == bit2) {
+        return new Node<>(0, bit1, EMPTY_ENTRIES, new Node<?, ?>[] { merge(entry1, entry2, shift + SHIFT) });
+      }
+      var entries = (Integer.compareUnsigned(bit1, bit2) < 0)?  // bit 31 is negative
+          new Entry<?, ?>[] { entry1, entry2 }:
+          new Entry<?, ?>[] { entry2, entry1 };
+      return new Node<>(bit1 | bit2, 0, entries, EMPTY_NODES);
+    }
+
+    private Node<K, V> withEntry(int index, Entry<K, V> entry) {
+      var newEntries = entries.clone();
+      newEntries[index] = entry;
+      return new Node<>(dataMap, nodeMap, newEntries, nodes);
+    }
+
+    private Node<K, V> withNode(int index, Node<K, V> node) {
+      var newNodes = nodes.clone();
+      newNodes[index] = node;
+      return new Node<>(dataMap, nodeMap, entries, newNodes);
+    }
+
+    private Node<K, V> withEntryInserted(int bit, Entry<K, V> entry) {
+      return new Node<>(dataMap | bit, nodeMap, insertAt(entries, index(dataMap, bit), entry), nodes);
+    }
+
+    private Node<K, V> withEntryMovedToNode(int bit, int entryIndex, Node<K, V> node) {
+      var newNodeMap = nodeMap | bit;
+      return new Node<>(dataMap ^ bit, newNodeMap,
+          removeAt(entries, entryIndex), insertAt(nodes, index(newNodeMap, bit), node));
+    }
+
+    private Node<K, V> withNodeMovedToEntry(int bit, int nodeIndex, Entry<K, V> entry) {
+      var newDataMap = dataMap | bit;
+      return new Node<>(newDataMap, nodeMap ^ bit,
+          insertAt(entries, index(newDataMap, bit), entry), removeAt(nodes, nodeIndex));
+    }
+
+    private static <T> T[] insertAt(T[] array, int index, T element) {
+      var newArray = Arrays.copyOf(array, array.length + 1);
+      System.arraycopy(array, index, newArray, index + 1, array.length - index);
+      newArray[index] = element;
+      return newArray;
+    }
+
+    private static <T> T[] removeAt(T[] array, int index) {
+      var newArray = Arrays.copyOf(array, array.length - 1);
+      System.arraycopy(array, index + 1, newArray, index, array.length - index - 1);
+      return newArray;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentTrieMap<K, V> empty() {
+    return new PersistentTrieMap<>((Node<K, V>) Node.EMPTY, 0);
+  }
+
+  public PersistentTrieMap<K, V> append(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    var sizeDelta = new int[1];
+    var newRoot = root.put(new Entry<>(key.hashCode(), key, value), 0, sizeDelta);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentTrieMap<>(newRoot, size + sizeDelta[0]);
+  }
+
+  public PersistentTrieMap<K, V> without(Object key) {
+    requireNonNull(key);
+    var sizeDelta = new int[1];
+    var newRoot = root.remove(key.hashCode(), key, 0, sizeDelta);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentTrieMap<>(newRoot, size + sizeDelta[0]);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    return getOrDefault(key, null);
+  }
+
+  @Override
+  public V getOrDefault(Object key, V defaultValue) {
+    requireNonNull(key);
+    var value = root.get(key.hashCode(), key, 0);
+    return (value == null)? defaultValue: value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    requireNonNull(key);
+    return root.get(key.hashCode(), key, 0) != null;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    requireNonNull(value);
+    return values().contains(value);
+  }
+
+  private static final class EntryIterator<K, V, R> implements Iterator<R> {
+    private final Function<? super Entry<K, V>, ? extends R> mapper;
+    private final Node<?, ?>[] stack = new Node<?, ?>[MAX_DEPTH];
+    private final int[] positions = new int[MAX_DEPTH];  // entries first, then nodes
+    private int depth;
+
+    private EntryIterator(Node<K, V> root, Function<? super Entry<K, V>, ? extends R> mapper) {
+      this.mapper = mapper;
+      stack[0] = root;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while(depth >= 0) {
+        var node = stack[depth];
+        var position = positions[depth];
+        var entryCount = node.entries.length;
+        if (position < entryCount) {
+          return true;
+        }
+        if (position - entryCount < node.nodes.length) {
+          positions[depth] = position + 1;
+          stack[++depth] = node.nodes[position - entryCount];
+          positions[depth] = 0;
+          continue;
+        }
+        depth--;
+      }
+      return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      var node = (Node<K, V>) stack[depth];
+      return mapper.apply(node.entries[positions[depth]++]);
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    var root = this.root;
+    var size = this.size;
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<K, V, Map.Entry<K, V>>(root, entry -> entry);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Set<K> keySet() {
+    var root = this.root;
+    var size = this.size;
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<K> iterator() {
+        return new EntryIterator<>(root, entry -> entry.key);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        return root.get(o.hashCode(), o, 0) != null;  // implicit NPE
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    var root = this.root;
+    var size = this.size;
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new EntryIterator<>(root, entry -> entry.value);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof Map)) {
+      return false;
+    }
+    var map = (Map<?, ?>) obj;
+    if (size != map.size()) {
+      return false;
+    }
+    for(var entry: entrySet()) {
+      if (!entry.getValue().equals(map.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    var hashCode = 0;
+    for(var entry: entrySet()) {
+      hashCode += entry.hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    var joiner = new StringJoiner(", ", "{", "}");
+    for(var entry: entrySet()) {
+      joiner.add(entry.toString());
+    }
+    return joiner.toString();
+  }
+
+  @Override
+  public V put(K key, V value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public V remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> m) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,270 @@
+package fr.umlv.valuetype.persistent;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+/**
+ * A persistent list implemented as a 32-way bitmapped vector trie with a tail buffer.
+ *
+ * Unlike {@link PersistentList}, no version owns the storage, so {@link #append(Object)},
+ * {@link #update(int, Object)} and {@link #removeLast()} cost O(log32 n) on any version,
+ * not only on the newest one.
+ */
+@__inline__
+public final class PersistentVector<T> implements Iterable<T> {
+  private static final int SHIFT = 5;
+  private static final int WIDTH = 1 << SHIFT;
+  private static final int MASK = WIDTH - 1;
+  private static final Object[] EMPTY_NODE = new Object[WIDTH];
+  private static final Object[] EMPTY_TAIL = new Object[0];
+
+  private final int size;
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+
+  private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  public static <T> PersistentVector<T> of() {
+    return new PersistentVector<>(0, SHIFT, EMPTY_NODE, EMPTY_TAIL);
+  }
+
+  @SafeVarargs
+  public static <T> PersistentVector<T> of(T... elements) {
+    var vector = PersistentVector.<T>of();
+    for(var element: elements) {
+      vector = vector.append(element);
+    }
+    return vector;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  private int tailOffset() {
+    return size < WIDTH? 0: ((size - 1) >>> SHIFT) << SHIFT;
+  }
+
+  private Object[] leafFor(int index) {
+    if (index >= tailOffset()) {
+      return tail;
+    }
+    var node = root;
+    for(var level = shift; level > 0; level -= SHIFT) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return node;
+  }
+
+  @SuppressWarnings("unchecked")
+  public T get(int index) {
+    Objects.checkIndex(index, size);
+    return (T) leafFor(index)[index & MASK];
+  }
+
+  public PersistentVector<T> append(T element) {
+    requireNonNull(element);
+    var tail = this.tail;
+    if (tail.length < WIDTH) {
+      var newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = element;
+      return new PersistentVector<>(size + 1, shift, root, newTail);
+    }
+    var newShift = shift;
+    Object[] newRoot;
+    if ((size >>> SHIFT) > (1 << shift)) {  // root overflow
+      newRoot = new Object[WIDTH];
+      newRoot[0] = root;
+      newRoot[1] = newPath(shift, tail);
+      newShift += SHIFT;
+    } else {
+      newRoot = pushTail(shift, root, tail);
+    }
+    return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] { element });
+  }
+
+  private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+    var subIndex = ((size - 1) >>> level) & MASK;
+    var newNode = parent.clone();
+    Object[] nodeToInsert;
+    if (level == SHIFT) {
+      nodeToInsert = tailNode;
+    } else {
+      var child = (Object[]) parent[subIndex];
+      nodeToInsert = (child != null)?
+          pushTail(level - SHIFT, child, tailNode):
+          newPath(level - SHIFT, tailNode);
+    }
+    newNode[subIndex] = nodeToInsert;
+    return newNode;
+  }
+
+  private static Object[] newPath(int level, Object[] node) {
+    if (level == 0) {
+      return node;
+    }
+    var newNode = new Object[WIDTH];
+    newNode[0] = newPath(level - SHIFT, node);
+    return newNode;
+  }
+
+  public PersistentVector<T> update(int index, T element) {
+    requireNonNull(element);
+    Objects.checkIndex(index, size);
+    if (index >= tailOffset()) {
+      var newTail = tail.clone();
+      newTail[index & MASK] = element;
+      return new PersistentVector<>(size, shift, root, newTail);
+    }
+    return new PersistentVector<>(size, shift, update(shift, root, index, element), tail);
+  }
+
+  private static Object[] update(int level, Object[] node, int index, Object element) {
+    var newNode = node.clone();
+    if (level == 0) {
+      newNode[index & MASK] = element;
+    } else {
+      var subIndex = (index >>> level) & MASK;
+      newNode[subIndex] = update(level - SHIFT, (Object[]) node[subIndex], index, element);
+    }
+    return newNode;
+  }
+
+  public PersistentVector<T> removeLast() {
+    var size = this.size;
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    if (size == 1) {
+      return of();
+    }
+    if (tail.length > 1) {
+      return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+    }
+    var newTail = leafFor(size - 2);
+    var newRoot = popTail(shift, root);
+    var newShift = shift;
+    if (newRoot == null) {
+      newRoot = EMPTY_NODE;
+    }
+    if (shift > SHIFT && newRoot[1] == null) {
+      newRoot = (Object[]) newRoot[0];
+      newShift -= SHIFT;
+    }
+    return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+  }
+
+  private Object[] popTail(int level, Object[] node) {
+    var subIndex = ((size - 2) >>> level) & MASK;
+    if (level > SHIFT) {
+      var newChild = popTail(level - SHIFT, (Object[]) node[subIndex]);
+      if (newChild == null && subIndex == 0) {
+        return null;
+      }
+      var newNode = node.clone();
+      newNode[subIndex] = newChild;
+      return newNode;
+    }
+    if (subIndex == 0) {
+      return null;
+    }
+    var newNode = node.clone();
+    newNode[subIndex] = null;
+    return newNode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof PersistentVector)) {
+      return false;
+    }
+    var vector = (PersistentVector<?>) obj;
+    if (size != vector.size) {
+      return false;
+    }
+    var iterator = vector.iterator();
+    for(var element: this) {
+      if (!element.equals(iterator.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    var hashCode = 1;
+    for(var element: this) {
+      hashCode = 31 * hashCode + element.hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    var joiner = new StringJoiner(", ", "[", "]");
+    for(var element: this) {
+      joiner.add(element.toString());
+    }
+    return joiner.toString();
+  }
+
+  public Cursor<T> cursor() {
+    return Cursor.from(iterator());
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    var size = this.size;
+    return new Iterator<>() {
+      private int index;
+      private Object[] leaf;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        if ((index & MASK) == 0) {
+          leaf = leafFor(index);
+        }
+        return (T) leaf[index++ & MASK];
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public void forEachRemaining(Consumer<? super T> action) {
+        requireNonNull(action);
+        while(index < size) {
+          var leaf = leafFor(index);
+          var end = Math.min(size, (index | MASK) + 1);
+          for(; index < end; index++) {
+            action.accept((T) leaf[index & MASK]);
+          }
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,912 @@
+/* Copyright (c) 1997, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+// Generated by GeneratePrimitiveLists from PrimitiveXArrayList.java.template, do not edit.
+package fr.umlv.valuetype.xlist;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Resizable-array of {@code double}s, a specialization of {@link XArrayList}
+ * that stores the elements in a {@code double[]} instead of boxing them.
+ *
+ * <p>The growth policy, the bulk operations and the fail-fast behavior are
+ * the ones of {@link XArrayList}; positional access uses the element type
+ * directly, {@link #get(int)} returns a {@code double} and the cursor returned
+ * by {@link #cursor()} is a {@link DoubleInlineCursor}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @see XArrayList
+ */
+public class DoubleXArrayList implements Cloneable {
+    /**
+     * Default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Shared empty array instance used for empty instances.
+     */
+    private static final double[] EMPTY_ELEMENTDATA = {};
+
+    /**
+     * Shared empty array instance used for default sized empty instances. We
+     * distinguish this from EMPTY_ELEMENTDATA to know how much to inflate when
+     * first element is added.
+     */
+    private static final double[] DEFAULTCAPACITY_EMPTY_ELEMENTDATA = {};
+
+    /**
+     * The array buffer into which the elements are stored.
+     */
+    double[] elementData; // non-private to simplify nested class access
+
+    /**
+     * The number of elements the list contains.
+     */
+    int size;
+
+    /**
+     * The number of times this list has been structurally modified.
+     */
+    int modCount;
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public DoubleXArrayList(int initialCapacity) {
+        if (initialCapacity > 0) {
+            this.elementData = new double[initialCapacity];
+        } else if (initialCapacity == 0) {
+            this.elementData = EMPTY_ELEMENTDATA;
+        } else {
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                                               initialCapacity);
+        }
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public DoubleXArrayList() {
+        this.elementData = DEFAULTCAPACITY_EMPTY_ELEMENTDATA;
+    }
+
+    /**
+     * Returns a list containing the specified elements.
+     *
+     * @param elements the elements to be placed into the list
+     * @return a new list containing the specified elements
+     * @throws NullPointerException if the specified array is null
+     */
+    public static DoubleXArrayList of(double... elements) {
+        DoubleXArrayList list = new DoubleXArrayList(elements.length);
+        System.arraycopy(elements, 0, list.elementData, 0, elements.length);
+        list.size = elements.length;
+        return list;
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.
+     */
+    public void trimToSize() {
+        applyCursorRemovals();
+        modCount++;
+        if (size < elementData.length) {
+            elementData = (size == 0)
+              ? EMPTY_ELEMENTDATA
+              : Arrays.copyOf(elementData, size);
+        }
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it
+     * can hold at least the number of elements specified by the minimum
+     * capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        applyCursorRemovals();
+        if (minCapacity > elementData.length
+            && !(elementData == DEFAULTCAPACITY_EMPTY_ELEMENTDATA
+                 && minCapacity <= DEFAULT_CAPACITY)) {
+            modCount++;
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Increases the capacity to ensure that it can hold at least the
+     * number of elements specified by the minimum capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     * @throws OutOfMemoryError if minCapacity is less than zero
+     */
+    private double[] grow(int minCapacity) {
+        int oldCapacity = elementData.length;
+        if (oldCapacity > 0 || elementData != DEFAULTCAPACITY_EMPTY_ELEMENTDATA) {
+            int newCapacity = newLength(oldCapacity,
+                    minCapacity - oldCapacity, /* minimum growth */
+                    oldCapacity >> 1           /* preferred growth */);
+            return elementData = Arrays.copyOf(elementData, newCapacity);
+        } else {
+            return elementData = new double[Math.max(DEFAULT_CAPACITY, minCapacity)];
+        }
+    }
+
+    private double[] grow() {
+        return grow(size + 1);
+    }
+
+    /**
+     * Returns the number of elements in this list.
+     *
+     * @return the number of elements in this list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this list contains no elements.
+     *
+     * @return {@code true} if this list contains no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if this list contains the specified element.
+     *
+     * @param value element whose presence in this list is to be tested
+     * @return {@code true} if this list contains the specified element
+     */
+    public boolean contains(double value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Returns the index of the first occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.
+     */
+    public int indexOf(double value) {
+        final double[] es = elementData;
+        for (int i = 0, end = size; i < end; i++) {
+            if (Double.compare(es[i], value) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last occurrence of the specified element
+     * in this list, or -1 if this list does not contain the element.
+     */
+    public int lastIndexOf(double value) {
+        final double[] es = elementData;
+        for (int i = size - 1; i >= 0; i--) {
+            if (Double.compare(es[i], value) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a copy of this list.
+     *
+     * @return a clone of this list
+     */
+    public DoubleXArrayList clone() {
+        applyCursorRemovals();
+        try {
+            DoubleXArrayList v = (DoubleXArrayList) super.clone();
+            v.elementData = Arrays.copyOf(elementData, size);
+            v.modCount = 0;
+            return v;
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+    }
+
+    /**
+     * Returns an array containing all of the elements in this list
+     * in proper sequence (from first to last element).
+     *
+     * @return an array containing all of the elements in this list in
+     *         proper sequence
+     */
+    public double[] toArray() {
+        applyCursorRemovals();
+        return Arrays.copyOf(elementData, size);
+    }
+
+    // Positional Access Operations
+
+    /**
+     * Returns the element at the specified position in this list.
+     *
+     * @param  index index of the element to return
+     * @return the element at the specified position in this list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double get(int index) {
+        Objects.checkIndex(index, size);
+        return elementData[index];
+    }
+
+    /**
+     * Replaces the element at the specified position in this list with
+     * the specified element.
+     *
+     * @param index index of the element to replace
+     * @param element element to be stored at the specified position
+     * @return the element previously at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double set(int index, double element) {
+        Objects.checkIndex(index, size);
+        double oldValue = elementData[index];
+        elementData[index] = element;
+        return oldValue;
+    }
+
+    /**
+     * This helper method split out from add(double) to keep method
+     * bytecode size under 35 (the -XX:MaxInlineSize default value),
+     * which helps when add(double) is called in a C1-compiled loop.
+     */
+    private void add(double e, double[] elementData, int s) {
+      if (s == elementData.length) {
+        elementData = grow();
+      }
+        elementData[s] = e;
+        size = s + 1;
+    }
+
+    /**
+     * Appends the specified element to the end of this list.
+     *
+     * @param e element to be appended to this list
+     * @return {@code true}
+     */
+    public boolean add(double e) {
+        applyCursorRemovals();
+        modCount++;
+        add(e, elementData, size);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list. Shifts the element currently at that position (if any) and
+     * any subsequent elements to the right (adds one to their indices).
+     *
+     * @param index index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public void add(int index, double element) {
+        applyCursorRemovals();
+        rangeCheckForAdd(index);
+        modCount++;
+        final int s;
+        double[] elementData;
+      if ((s = size) == (elementData = this.elementData).length) {
+        elementData = grow();
+      }
+        System.arraycopy(elementData, index,
+                         elementData, index + 1,
+                         s - index);
+        elementData[index] = element;
+        size = s + 1;
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     * Shifts any subsequent elements to the left (subtracts one from their
+     * indices).
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public double removeAt(int index) {
+        applyCursorRemovals();
+        Objects.checkIndex(index, size);
+        final double[] es = elementData;
+
+        double oldValue = es[index];
+        fastRemove(es, index);
+
+        return oldValue;
+    }
+
+    /**
+     * Removes the first occurrence of the specified element from this list,
+     * if it is present.
+     *
+     * @param value element to be removed from this list, if present
+     * @return {@code true} if this list contained the specified element
+     */
+    public boolean removeValue(double value) {
+        applyCursorRemovals();
+        int i = indexOf(value);
+      if (i < 0) {
+        return false;
+      }
+        fastRemove(elementData, i);
+        return true;
+    }
+
+    /**
+     * Private remove method that skips bounds checking and does not
+     * return the value removed.
+     */
+    private void fastRemove(double[] es, int i) {
+        modCount++;
+        final int newSize;
+      if ((newSize = size - 1) > i) {
+        System.arraycopy(es, i + 1, es, i, newSize - i);
+      }
+        size = newSize;
+    }
+
+    /**
+     * Removes all of the elements from this list.  The list will
+     * be empty after this call returns.
+     */
+    public void clear() {
+        applyCursorRemovals();
+        modCount++;
+        size = 0;
+    }
+
+    /**
+     * Appends all of the specified elements to the end of this list.
+     *
+     * @param a the elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified array is null
+     */
+    public boolean addAll(double... a) {
+        return addAll(a, a.length);
+    }
+
+    /**
+     * Appends all of the elements of the specified list to the end of
+     * this list.
+     *
+     * @param list list containing elements to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the specified list is null
+     */
+    public boolean addAll(DoubleXArrayList list) {
+        list.applyCursorRemovals();
+        return addAll(list.elementData, list.size);
+    }
+
+    private boolean addAll(double[] a, int numNew) {
+        applyCursorRemovals();
+        modCount++;
+      if (numNew == 0) {
+        return false;
+      }
+        double[] elementData;
+        final int s;
+      if (numNew > (elementData = this.elementData).length - (s = size)) {
+        elementData = grow(s + numNew);
+      }
+        System.arraycopy(a, 0, elementData, s, numNew);
+        size = s + numNew;
+        return true;
+    }
+
+    /**
+     * Removes from this list all of the elements whose index is between
+     * {@code fromIndex}, inclusive, and {@code toIndex}, exclusive.
+     *
+     * @throws IndexOutOfBoundsException if {@code fromIndex} or
+     *         {@code toIndex} is out of range
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        applyCursorRemovals();
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        modCount++;
+        shiftTailOverGap(elementData, fromIndex, toIndex);
+    }
+
+    /** Erases the gap from lo to hi, by sliding down following elements. */
+    private void shiftTailOverGap(double[] es, int lo, int hi) {
+        System.arraycopy(es, hi, es, lo, size - hi);
+        size -= hi - lo;
+    }
+
+    /**
+     * A version of rangeCheck used by add.
+     */
+    private void rangeCheckForAdd(int index) {
+      if (index > size || index < 0) {
+        throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+      }
+    }
+
+    /**
+     * Removes all elements satisfying the given predicate.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be
+     *        removed
+     * @return {@code true} if any elements were removed
+     * @throws NullPointerException if the specified filter is null
+     */
+    public boolean removeIf(DoublePredicate filter) {
+        applyCursorRemovals();
+        Objects.requireNonNull(filter);
+        int expectedModCount = modCount;
+        final double[] es = elementData;
+        final int end = size;
+        int i = 0;
+        // Optimize for initial run of survivors
+      for (; i < end && !filter.test(es[i]); i++) {
+        ;
+      }
+        // Tolerate predicates that reentrantly access the collection for
+        // read (but writers still get CME), so traverse once to find
+        // elements to delete, a second pass to physically expunge.
+        if (i < end) {
+            final int beg = i;
+            final long[] deathRow = nBits(end - beg);
+            deathRow[0] = 1L;   // set bit 0
+          for (i = beg + 1; i < end; i++) {
+            if (filter.test(es[i])) {
+              setBit(deathRow, i - beg);
+            }
+          }
+          if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+            modCount++;
+            int w = beg;
+          for (i = beg; i < end; i++) {
+            if (isClear(deathRow, i - beg)) {
+              es[w++] = es[i];
+            }
+          }
+            shiftTailOverGap(es, w, end);
+            return true;
+        } else {
+          if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+            return false;
+        }
+    }
+
+    /**
+     * Replaces each element of this list with the result of applying the
+     * operator to that element.
+     *
+     * @param operator the operator to apply to each element
+     * @throws NullPointerException if the specified operator is null
+     */
+    public void replaceAll(DoubleUnaryOperator operator) {
+        applyCursorRemovals();
+        Objects.requireNonNull(operator);
+        final int expectedModCount = modCount;
+        final double[] es = elementData;
+      for (int i = 0, end = size; modCount == expectedModCount && i < end; i++) {
+        es[i] = operator.applyAsDouble(es[i]);
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+        modCount++;
+    }
+
+    /**
+     * Sorts this list into ascending numerical order, using the total
+     * order of {@link Double#compare(double, double)}.
+     */
+    public void sort() {
+        applyCursorRemovals();
+        Arrays.sort(elementData, 0, size);
+        modCount++;
+    }
+
+    /**
+     * Performs the given action for each element of this list.
+     *
+     * @param action the action to be performed for each element
+     * @throws NullPointerException if the specified action is null
+     */
+    public void forEach(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final double[] es = elementData;
+        final int size = this.size;
+      for (int i = 0; modCount == expectedModCount && i < size; i++) {
+        action.accept(es[i]);
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    /**
+     * Creates a <em>fail-fast</em> {@link Spliterator} over the elements in
+     * this list.
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    public Spliterator.OfDouble spliterator() {
+        return new DoubleListSpliterator(this, 0, size, modCount);
+    }
+
+    /**
+     * Returns a sequential {@code DoubleStream} over the elements in this list.
+     *
+     * @return a sequential {@code DoubleStream} over the elements in this list
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel {@code DoubleStream} over the elements in
+     * this list.
+     *
+     * @return a possibly parallel {@code DoubleStream} over the elements in this list
+     */
+    public DoubleStream parallelStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    /** Index-based split-by-two Spliterator */
+    private static final class DoubleListSpliterator implements Spliterator.OfDouble {
+        private final DoubleXArrayList list;
+        private int index;                   // current index, modified on advance/split
+        private final int fence;             // one past last index
+        private final int expectedModCount;
+
+        DoubleListSpliterator(DoubleXArrayList list, int origin, int fence, int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        public DoubleListSpliterator trySplit() {
+            int lo = index, mid = (lo + fence) >>> 1;
+            return (lo >= mid) ? null : // divide range in half unless too small
+                new DoubleListSpliterator(list, lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            int i = index;
+            if (i < fence) {
+                index = i + 1;
+                action.accept(list.elementData[i]);
+              if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+              }
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            final double[] es = list.elementData;
+            final int hi = fence;
+          if (hi > es.length) {
+            throw new ConcurrentModificationException();
+          }
+            for (int i = index; i < hi; i++) {
+                action.accept(es[i]);
+            }
+            index = hi;
+          if (list.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Return a new cursor for this list.
+     *
+     * <p>The cursor supports {@link DoubleInlineCursor#remove() remove},
+     * {@link DoubleInlineCursor#set(double) set} and
+     * {@link DoubleInlineCursor#retreat() retreat}, elements removed through
+     * a cursor are expunged in one pass when a cursor advances past the
+     * last element or is {@link DoubleInlineCursor#close() closed},
+     * like in {@link XArrayList#cursor()}.
+     *
+     * @return a cursor
+     */
+    public DoubleInlineCursor cursor() {
+        return new DoubleListCursor(this, -1, modCount, false).advance();
+    }
+
+    private DoubleListCursor endCursor() {
+        applyCursorRemovals();
+        return new DoubleListCursor(this, size, modCount, false);
+    }
+
+    /**
+     * Elements removed through a cursor but not yet expunged,
+     * null if there is no pending removal.
+     */
+    private long[] cursorDeathRow;
+
+    /**
+     * Expunges the elements removed through a cursor whose traversal has
+     * not reached the end of this list.
+     *
+     * @see XArrayList#applyCursorRemovals()
+     */
+    public void applyCursorRemovals() {
+        if (cursorDeathRow != null) {
+            expungeCursorRemovals();
+        }
+    }
+
+    /**
+     * Slides the survivors over the elements removed through a cursor,
+     * like the second pass of removeIf.
+     */
+    private void expungeCursorRemovals() {
+        final long[] deathRow = cursorDeathRow;
+        cursorDeathRow = null;
+        final double[] es = elementData;
+        final int end = size;
+        int w = 0;
+        for (int i = 0; i < end; i++) {
+          if (isClear(deathRow, i)) {
+            es[w++] = es[i];
+          }
+        }
+        modCount++;
+        shiftTailOverGap(es, w, end);
+    }
+
+    private void removeAtCursor(int index) {
+      if (cursorDeathRow == null) {
+        cursorDeathRow = nBits(size);
+      }
+        setBit(cursorDeathRow, index);
+        modCount++;
+    }
+
+    private boolean isRemovedAtCursor(int index) {
+        final long[] deathRow = cursorDeathRow;
+        return deathRow != null && !isClear(deathRow, index);
+    }
+
+    /**
+     * Create an inline cursor for this list.
+     */
+    private static inline class DoubleListCursor implements DoubleInlineCursor {
+        private DoubleXArrayList list;
+        private int index;          // index of the element, -1 or size if before the first or after the last
+        private int size;
+        private double[] elementData;
+        private int expectedModCount;
+        private boolean removed;    // true if the element at index has been removed by this cursor
+
+        private DoubleListCursor(DoubleXArrayList list, int index, int expectedModCount, boolean removed) {
+            this.list = list;
+            this.index = index;
+            this.size = list.size;
+            this.elementData = list.elementData;
+            this.expectedModCount = expectedModCount;
+            this.removed = removed;
+        }
+
+        private void checkForComodification() {
+          if (list.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+        }
+
+        @Override
+        public boolean exists() {
+            checkForComodification();
+            return !removed && index >= 0 && index < size;
+        }
+
+        @Override
+        public double get() {
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
+            return elementData[index];
+        }
+
+        @Override
+        public DoubleListCursor advance() {
+            checkForComodification();
+            int i = Math.max(index + 1, 0);
+          for (; i < size && list.isRemovedAtCursor(i); i++) {
+            ;
+          }
+          if (i >= size) {
+            // end of the traversal, expunge the elements removed through a cursor
+            return list.endCursor();
+          }
+            return new DoubleListCursor(list, i, expectedModCount, false);
+        }
+
+        @Override
+        public DoubleListCursor retreat() {
+            checkForComodification();
+            int i = Math.min(index - 1, size - 1);
+          for (; i >= 0 && list.isRemovedAtCursor(i); i--) {
+            ;
+          }
+            return new DoubleListCursor(list, Math.max(i, -1), expectedModCount, false);
+        }
+
+        @Override
+        public DoubleListCursor remove() {
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
+            list.removeAtCursor(index);
+            return new DoubleListCursor(list, index, list.modCount, true);
+        }
+
+        @Override
+        public void set(double element) {
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
+            elementData[index] = element;
+        }
+
+        @Override
+        public void close() {
+            list.applyCursorRemovals();
+        }
+    }
+
+    /**
+     * Compares the specified object with this list for equality, two
+     * lists are equal if they contain the same elements in the same order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof DoubleXArrayList)) {
+            return false;
+        }
+        DoubleXArrayList other = (DoubleXArrayList) o;
+        return Arrays.equals(elementData, 0, size, other.elementData, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        final double[] es = elementData;
+        int hashCode = 1;
+        for (int i = 0, end = size; i < end; i++) {
+            hashCode = 31 * hashCode + Double.hashCode(es[i]);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(elementData, size));
+    }
+
+    // A tiny bit set implementation
+
+    private static long[] nBits(int n) {
+        return new long[((n - 1) >> 6) + 1];
+    }
+    private static void setBit(long[] bits, int i) {
+        bits[i >> 6] |= 1L << i;
+    }
+    private static boolean isClear(long[] bits, int i) {
+        return (bits[i >> 6] & (1L << i)) == 0;
+    }
+
+    /**
+     * Calculates a new array length given an array's current length, a preferred
+     * growth value, and a minimum growth value.  If the preferred growth value
+     * is less than the minimum growth value, the minimum growth value is used in
+     * its place.  If the sum of the current length and the preferred growth
+     * value does not exceed {@link #MAX_ARRAY_LENGTH}, that sum is returned.
+     * If the sum of the current length and the minimum growth value does not
+     * exceed {@code MAX_ARRAY_LENGTH}, then {@code MAX_ARRAY_LENGTH} is returned.
+     * If the sum does not overflow an int, then {@code Integer.MAX_VALUE} is
+     * returned.  Otherwise, {@code OutOfMemoryError} is thrown.
+     *
+     * @param oldLength   current length of the array (must be non negative)
+     * @param minGrowth   minimum required growth of the array length (must be
+     *                    positive)
+     * @param prefGrowth  preferred growth of the array length (ignored, if less
+     *                    then {@code minGrowth})
+     * @return the new length of the array
+     * @throws OutOfMemoryError if increasing {@code oldLength} by
+     *                    {@code minGrowth} overflows.
+     */
+    private static int newLength(int oldLength, int minGrowth, int prefGrowth) {
+        // assert oldLength >= 0
+        // assert minGrowth > 0
+
+        int newLength = Math.max(minGrowth, prefGrowth) + oldLength;
+        if (newLength - MAX_ARRAY_LENGTH <= 0) {
+            return newLength;
+        }
+        return hugeLength(oldLength, minGrowth);
+    }
+
+    private static int hugeLength(int oldLength, int minGrowth) {
+        int minLength = oldLength + minGrowth;
+        if (minLength < 0) { // overflow
+            throw new OutOfMemoryError("Required array length too large");
+        }
+        if (minLength <= MAX_ARRAY_LENGTH) {
+            return MAX_ARRAY_LENGTH;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+}
@@ -48,6 +48,19 @@ import java.util.NoSuchElementException;
  * }
  * </pre>
  * <p>
+ * A collection may defer the removals until a Cursor advances past its last
+ * element, a traversal that stops before the end calls {@link #close()}
+ * to apply them:
+ * <pre>{@code
+ *  for (var cursor = c.cursor(); cursor.exists(); cursor = cursor.advance()) {
+ *      if (...) {
+ *          cursor.close();
+ *          break;
+ *      }
+ *  }
+ * }
+ * </pre>
+ * <p>
  * @param <T> the type of the element.
  */
 public interface InlineCursor<T> {
@@ -55,13 +68,13 @@ public interface InlineCursor<T> {
      * Return true if the Cursor refers to an element.
      *
      * If the collection has been modified since the Cursor was created
-     * the element can not be known to exist.
-     * This method does not throw {@link ConcurrentModificationException}
-     * if the collection has been modified but returns false.
+     * the element can not be known to exist, so a traversal using
+     * a stale Cursor fails instead of stopping silently.
      *
-     * @return  true if this Cursor refers to an element in the collection and
-     *          the collection has not been modified since the cursor was created;
+     * @return  true if this Cursor refers to an element in the collection,
      *          false otherwise
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
      */
     boolean exists();
 
@@ -76,6 +89,20 @@ public interface InlineCursor<T> {
      */
     InlineCursor<T> advance();
 
+    /**
+     * Return a Cursor for the previous element before the current element.
+     * If there is no element preceding this element the returned
+     * Cursor will be non-existent. To wit: {@code Cursor.exists() == false}.
+     *
+     * @return return a cursor for the previous element before this element
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @throws UnsupportedOperationException if the cursor can only advance
+     */
+    default InlineCursor<T> retreat() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Return the current element referred to by the Cursor.
      *
@@ -109,4 +136,34 @@ public interface InlineCursor<T> {
     default InlineCursor<T> remove() {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Replace the current element.
+     *
+     * Replacing an element is not a structural modification,
+     * this Cursor and the other Cursors stay valid.
+     *
+     * @param element the new element
+     * @throws NoSuchElementException if the referenced element does not exist
+     *         or no longer exists
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @throws UnsupportedOperationException if the collection can not be modified
+     */
+    default void set(T element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Ends the traversal.
+     *
+     * If the collection defers the removals done through its Cursors,
+     * they are applied, so the other methods of the collection no longer
+     * see the removed elements; this Cursor and the other Cursors are then
+     * not valid anymore.  Ending a traversal that has reached the end of
+     * the collection or has not removed an element does nothing.
+     */
+    default void close() {
+        // the removals are not deferred
+    }
 }
\ No newline at end of file
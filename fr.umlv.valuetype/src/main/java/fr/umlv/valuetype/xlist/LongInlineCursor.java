@@ -0,0 +1,108 @@
+// Generated by GeneratePrimitiveLists from PrimitiveInlineCursor.java.template, do not edit.
+package fr.umlv.valuetype.xlist;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * An inline cursor on a collection of {@code long}, a specialization of
+ * {@link InlineCursor} with a {@link #get()} that returns a primitive
+ * instead of a boxed {@code Long}.
+ * <p>
+ * The typical traversal pattern is:
+ * <pre>{@code
+ *  LongXArrayList list = ...;
+ *  for (var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+ *      long el = cursor.get();
+ *  }
+ * }
+ * </pre>
+ *
+ * @see InlineCursor
+ */
+public interface LongInlineCursor {
+    /**
+     * Return true if the Cursor refers to an element.
+     *
+     * @return  true if this Cursor refers to an element in the collection,
+     *          false otherwise
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @see InlineCursor#exists()
+     */
+    boolean exists();
+
+    /**
+     * Return a Cursor for the next element after the current element.
+     *
+     * @return return a cursor for the next element after this element
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @see InlineCursor#advance()
+     */
+    LongInlineCursor advance();
+
+    /**
+     * Return a Cursor for the previous element before the current element.
+     *
+     * @return return a cursor for the previous element before this element
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @throws UnsupportedOperationException if the cursor can only advance
+     * @see InlineCursor#retreat()
+     */
+    default LongInlineCursor retreat() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return the current element referred to by the Cursor.
+     *
+     * @return  return the element in the collection if the collection
+     *          has not been modified since the cursor was created
+     * @throws NoSuchElementException if the referenced element does not exist
+     *         or no longer exists
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @see InlineCursor#get()
+     */
+    long get();
+
+    /**
+     * Remove the current element if it exists.
+     *
+     * @return a Cursor for a non-existent position before the next element;
+     *         the Cursor does not refer to an element
+     * @throws NoSuchElementException if not valid
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @see InlineCursor#remove()
+     */
+    default LongInlineCursor remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Replace the current element.
+     *
+     * @param element the new element
+     * @throws NoSuchElementException if the referenced element does not exist
+     *         or no longer exists
+     * @throws ConcurrentModificationException if the collection
+     *         has been modified since this Cursor was created
+     * @throws UnsupportedOperationException if the collection can not be modified
+     * @see InlineCursor#set(Object)
+     */
+    default void set(long element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Ends the traversal, applies the removals deferred by the collection.
+     *
+     * @see InlineCursor#close()
+     */
+    default void close() {
+        // the removals are not deferred
+    }
+}
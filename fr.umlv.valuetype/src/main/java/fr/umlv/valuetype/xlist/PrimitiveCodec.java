@@ -0,0 +1,58 @@
+package fr.umlv.valuetype.xlist;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+
+/**
+ * Template of the bulk encoder and decoder of a {@link PrimitiveLayout}.
+ *
+ * <p>This class is never loaded as is, each layout defines a hidden class
+ * from the bytes of this class with the writer and the reader of the layout
+ * as class data, so {@link #WRITER} and {@link #READER} are constants that
+ * the JIT inlines in the loops below.
+ */
+final class PrimitiveCodec {
+    /** (Object element, ByteBuffer buffer, int offset)void */
+    private static final MethodHandle WRITER;
+
+    /** (ByteBuffer buffer, int offset)Object */
+    private static final MethodHandle READER;
+
+    static {
+        var lookup = MethodHandles.lookup();
+        try {
+            WRITER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 0);
+            READER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private PrimitiveCodec() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Encodes the elements from index from (inclusive) to index to (exclusive)
+     * of es, starting at the offset of the buffer.
+     */
+    static void write(Object[] es, int from, int to, ByteBuffer buffer, int offset, int stride)
+            throws Throwable {
+        for (int i = from; i < to; i++, offset += stride) {
+            WRITER.invokeExact(es[i], buffer, offset);
+        }
+    }
+
+    /**
+     * Decodes the elements starting at the offset of the buffer into es,
+     * from index from (inclusive) to index to (exclusive).
+     */
+    static void read(ByteBuffer buffer, int offset, int stride, Object[] es, int from, int to)
+            throws Throwable {
+        for (int i = from; i < to; i++, offset += stride) {
+            es[i] = (Object) READER.invokeExact(buffer, offset);
+        }
+    }
+}
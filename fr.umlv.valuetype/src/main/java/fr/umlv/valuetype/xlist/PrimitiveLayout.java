@@ -0,0 +1,377 @@
+package fr.umlv.valuetype.xlist;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Binary layout of a class made only of primitive fields, used by
+ * {@link XArrayList#writeTo(java.nio.channels.WritableByteChannel)} and
+ * {@link XArrayList#readFrom(Class, java.nio.channels.ReadableByteChannel)}.
+ *
+ * <p>An element is encoded as its instance fields, sorted by name because
+ * the order of {@link Class#getDeclaredFields()} is unspecified, packed
+ * without padding; a {@code boolean} is encoded as one byte.
+ * The writer reads the fields with their getters and the reader creates
+ * the element with a constructor or a static factory method taking
+ * the values of the fields, so the element class does not need to expose
+ * its fields.  The parameters of the constructor or the factory method
+ * are matched with the fields by name, so the element class has to be
+ * compiled with {@code -parameters}.
+ *
+ * <p>The writer and the reader are each a single method handle tree
+ * that uses absolute {@link ByteBuffer} accesses, so encoding or decoding
+ * an element does not box the values of the fields.  They are the class
+ * data of a hidden class defined from {@link PrimitiveCodec}, so they are
+ * constants inlined in the loops that encode or decode the elements in bulk.
+ * The layout of a class is computed once.
+ */
+final class PrimitiveLayout {
+    /**
+     * The name and the descriptor of the primitive type of each field,
+     * in encoding order, like {@code "x:I;y:I;"}, in UTF-8.
+     */
+    final byte[] descriptor;
+
+    /** Number of bytes of an encoded element. */
+    final int stride;
+
+    /** PrimitiveCodec.write(Object[] es, int from, int to, ByteBuffer buffer, int offset, int stride) */
+    private final MethodHandle bulkWriter;
+
+    /** PrimitiveCodec.read(ByteBuffer buffer, int offset, int stride, Object[] es, int from, int to) */
+    private final MethodHandle bulkReader;
+
+    private PrimitiveLayout(byte[] descriptor, int stride, MethodHandle bulkWriter, MethodHandle bulkReader) {
+        this.descriptor = descriptor;
+        this.stride = stride;
+        this.bulkWriter = bulkWriter;
+        this.bulkReader = bulkReader;
+    }
+
+    /**
+     * Encodes the elements of es from index from (inclusive) to index to
+     * (exclusive), starting at the offset of the buffer.
+     */
+    void write(Object[] es, int from, int to, ByteBuffer buffer, int offset) {
+        try {
+            bulkWriter.invokeExact(es, from, to, buffer, offset, stride);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    /**
+     * Decodes the elements starting at the offset of the buffer into es,
+     * from index from (inclusive) to index to (exclusive).
+     */
+    void read(ByteBuffer buffer, int offset, Object[] es, int from, int to) {
+        try {
+            bulkReader.invokeExact(buffer, offset, stride, es, from, to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    private static final ClassValue<PrimitiveLayout> LAYOUTS = new ClassValue<>() {
+        @Override
+        protected PrimitiveLayout computeValue(Class<?> elementClass) {
+            return create(elementClass);
+        }
+    };
+
+    /**
+     * Returns the layout of an element class.
+     *
+     * @param elementClass the element class
+     * @return the layout of the element class
+     * @throws IllegalArgumentException if the class has a non primitive
+     *         instance field, no instance field, no constructor or static
+     *         factory method taking the fields, is compiled without the
+     *         names of the parameters or is not accessible
+     */
+    static PrimitiveLayout of(Class<?> elementClass) {
+        return LAYOUTS.get(elementClass);
+    }
+
+    /**
+     * Computes the layout of an element class.
+     *
+     * @param elementClass the element class
+     * @return the layout of the element class
+     * @throws IllegalArgumentException if the class has a non primitive
+     *         instance field, no instance field, no constructor or static
+     *         factory method taking the fields, is compiled without the
+     *         names of the parameters or is not accessible
+     */
+    private static PrimitiveLayout create(Class<?> elementClass) {
+        var fields = new ArrayList<Field>();
+        for (var field : elementClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (!field.getType().isPrimitive()) {
+                throw new IllegalArgumentException(elementClass.getName() +
+                        " has a non primitive field " + field.getName());
+            }
+            fields.add(field);
+        }
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException(elementClass.getName() + " has no field");
+        }
+
+        Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(elementClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(elementClass.getName() + " is not accessible", e);
+        }
+
+        var parameterFields = new Field[fields.size()];
+        var reader = factory(lookup, elementClass, fields, parameterFields);
+
+        var encodedFields = new ArrayList<>(fields);
+        encodedFields.sort(Comparator.comparing(Field::getName));
+        var offsets = new int[encodedFields.size()];
+        var descriptor = new StringBuilder();
+        var writer = MethodHandles.empty(methodType(void.class, Object.class, ByteBuffer.class, int.class));
+        var offset = 0;
+        try {
+            for (var i = 0; i < offsets.length; i++) {
+                var field = encodedFields.get(i);
+                var type = field.getType();
+                descriptor.append(field.getName()).append(':').append(descriptorOf(type)).append(';');
+                var getter = lookup.unreflectGetter(field)
+                        .asType(methodType(type, Object.class));
+                writer = MethodHandles.foldArguments(writer, fieldWriter(type, offset, getter));
+                offsets[i] = offset;
+                offset += sizeOf(type);
+            }
+            // replace each parameter of the factory by a read at the offset of its field,
+            // from the last to the first so the index of the next parameters do not change
+            for (var i = parameterFields.length; --i >= 0;) {
+                var field = parameterFields[i];
+                var fieldOffset = offsets[encodedFields.indexOf(field)];
+                reader = MethodHandles.collectArguments(reader, i, fieldReader(field.getType(), fieldOffset));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(elementClass.getName() + " is not accessible", e);
+        }
+        var reorder = new int[2 * parameterFields.length];
+        for (var i = 0; i < reorder.length; i++) {
+            reorder[i] = i & 1;
+        }
+        reader = MethodHandles.permuteArguments(reader,
+                methodType(Object.class, ByteBuffer.class, int.class), reorder);
+
+        MethodHandle bulkWriter, bulkReader;
+        try {
+            var codec = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(CodecHolder.CODEC_BYTES, List.of(writer, reader), true);
+            var codecClass = codec.lookupClass();
+            bulkWriter = codec.findStatic(codecClass, "write", methodType(void.class,
+                    Object[].class, int.class, int.class, ByteBuffer.class, int.class, int.class));
+            bulkReader = codec.findStatic(codecClass, "read", methodType(void.class,
+                    ByteBuffer.class, int.class, int.class, Object[].class, int.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+        return new PrimitiveLayout(descriptor.toString().getBytes(StandardCharsets.UTF_8),
+                offset, bulkWriter, bulkReader);
+    }
+
+    /**
+     * The bytes of the class PrimitiveCodec, loaded once.
+     */
+    private static final class CodecHolder {
+        private static final byte[] CODEC_BYTES;
+        static {
+            try (var input = PrimitiveLayout.class.getResourceAsStream("PrimitiveCodec.class")) {
+                CODEC_BYTES = input.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Finds a constructor or a static factory method whose parameters have
+     * the names and the types of the fields, returns it typed as (types...)Object
+     * and stores the field of each parameter in parameterFields.
+     */
+    private static MethodHandle factory(Lookup lookup, Class<?> elementClass, List<Field> fields,
+                                        Field[] parameterFields) {
+        var candidates = new ArrayList<Executable>(List.of(elementClass.getDeclaredConstructors()));
+        for (Method method : elementClass.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) && !method.isSynthetic()
+                    && method.getReturnType() == elementClass) {
+                candidates.add(method);
+            }
+        }
+        Executable executable = null;
+        for (var candidate : candidates) {
+            if (candidate.getParameterCount() == fields.size()
+                    && matchParameters(candidate.getParameters(), fields, parameterFields)) {
+                executable = candidate;
+                break;
+            }
+        }
+        if (executable == null) {
+            throw new IllegalArgumentException(elementClass.getName() +
+                    " has no constructor or factory method taking the fields " +
+                    fields.stream().map(Field::getName).collect(Collectors.joining(", ")));
+        }
+        MethodHandle factory;
+        try {
+            factory = (executable instanceof Constructor)
+                    ? lookup.unreflectConstructor((Constructor<?>) executable)
+                    : lookup.unreflect((Method) executable);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(elementClass.getName() + " is not accessible", e);
+        }
+        return factory.asType(factory.type().changeReturnType(Object.class));
+    }
+
+    /**
+     * Matches each parameter with the field of the same name and type,
+     * the order of the declaration of the fields being unspecified.
+     *
+     * @return {@code true} if all the parameters match a field
+     * @throws IllegalArgumentException if the names of the parameters
+     *         are not available
+     */
+    private static boolean matchParameters(Parameter[] parameters, List<Field> fields, Field[] parameterFields) {
+        for (var i = 0; i < parameters.length; i++) {
+            var parameter = parameters[i];
+            if (!parameter.isNamePresent()) {
+                throw new IllegalArgumentException(parameter.getDeclaringExecutable() +
+                        " has no parameter names, compile with -parameters");
+            }
+            var field = fields.stream()
+                    .filter(f -> f.getName().equals(parameter.getName()) && f.getType() == parameter.getType())
+                    .findFirst();
+            if (field.isEmpty()) {
+                return false;
+            }
+            parameterFields[i] = field.get();
+        }
+        return true;
+    }
+
+    private static char descriptorOf(Class<?> type) {
+        return methodType(type).toMethodDescriptorString().charAt(2);
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == boolean.class || type == byte.class) {
+            return 1;
+        }
+        if (type == char.class || type == short.class) {
+            return 2;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        return 8;
+    }
+
+    /** (Object element, ByteBuffer buffer, int offset)void */
+    private static MethodHandle fieldWriter(Class<?> type, int fieldOffset, MethodHandle getter)
+            throws IllegalAccessException {
+        var bufferType = (type == boolean.class) ? byte.class : type;
+        if (type == boolean.class) {
+            getter = MethodHandles.filterReturnValue(getter, BOOLEAN_TO_BYTE);
+        }
+        MethodHandle put;
+        try {
+            put = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, putName(bufferType),
+                    methodType(ByteBuffer.class, int.class, bufferType));
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+        // (ByteBuffer buffer, int offset, T value)void
+        put = put.asType(methodType(void.class, ByteBuffer.class, int.class, bufferType));
+        put = MethodHandles.filterArguments(put, 1, MethodHandles.insertArguments(ADD, 1, fieldOffset));
+        // (ByteBuffer buffer, int offset, Object element)void
+        put = MethodHandles.filterArguments(put, 2, getter);
+        return MethodHandles.permuteArguments(put,
+                methodType(void.class, Object.class, ByteBuffer.class, int.class), 1, 2, 0);
+    }
+
+    /** (ByteBuffer buffer, int offset)T */
+    private static MethodHandle fieldReader(Class<?> type, int fieldOffset) throws IllegalAccessException {
+        var bufferType = (type == boolean.class) ? byte.class : type;
+        MethodHandle get;
+        try {
+            get = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, getName(bufferType),
+                    methodType(bufferType, int.class));
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+        get = MethodHandles.filterArguments(get, 1, MethodHandles.insertArguments(ADD, 1, fieldOffset));
+        if (type == boolean.class) {
+            get = MethodHandles.filterReturnValue(get, BYTE_TO_BOOLEAN);
+        }
+        return get;
+    }
+
+    private static String putName(Class<?> type) {
+        return (type == byte.class) ? "put" : "put" + capitalize(type);
+    }
+
+    private static String getName(Class<?> type) {
+        return (type == byte.class) ? "get" : "get" + capitalize(type);
+    }
+
+    private static String capitalize(Class<?> type) {
+        var name = type.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static int add(int offset, int fieldOffset) {
+        return offset + fieldOffset;
+    }
+
+    private static byte booleanToByte(boolean value) {
+        return (byte) (value ? 1 : 0);
+    }
+
+    private static boolean byteToBoolean(byte value) {
+        return value != 0;
+    }
+
+    private static final MethodHandle ADD, BOOLEAN_TO_BYTE, BYTE_TO_BOOLEAN;
+    static {
+        var lookup = MethodHandles.lookup();
+        try {
+            ADD = lookup.findStatic(PrimitiveLayout.class, "add",
+                    methodType(int.class, int.class, int.class));
+            BOOLEAN_TO_BYTE = lookup.findStatic(PrimitiveLayout.class, "booleanToByte",
+                    methodType(byte.class, boolean.class));
+            BYTE_TO_BOOLEAN = lookup.findStatic(PrimitiveLayout.class, "byteToBoolean",
+                    methodType(boolean.class, byte.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
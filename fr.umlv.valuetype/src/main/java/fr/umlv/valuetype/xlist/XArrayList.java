@@ -24,6 +24,17 @@
 
 package fr.umlv.valuetype.xlist;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -41,6 +52,9 @@ import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 //import jdk.internal.access.SharedSecrets;
 //import jdk.internal.util.ArraysSupport;
 
@@ -149,6 +163,13 @@ public class XArrayList<E> extends AbstractList<E>
      */
     transient Object[] elementData; // non-private to simplify nested class access
 
+    /**
+     * The value stored in the unused slots of elementData, {@code null} or,
+     * if the elements are stored flattened, the default value of the inline
+     * element class (a flattened array can not store {@code null}).
+     */
+    transient Object emptyElement;
+
     /**
      * The size of the ArrayList (the number of elements it contains).
      *
@@ -156,6 +177,12 @@ public class XArrayList<E> extends AbstractList<E>
      */
     int size;
 
+    /**
+     * The occupancy ratio below which the backing array is shrunk
+     * after a removal, 0 if the array is never shrunk automatically.
+     */
+    private transient float shrinkOccupancy;
+
     /**
      * Constructs an empty list with the specified initial capacity.
      *
@@ -174,6 +201,33 @@ public class XArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Constructs an empty list with the specified initial capacity that
+     * stores its elements in an array of the specified element class.
+     * If the element class is an inline class, the elements are stored
+     * flattened in the array instead of being pointers to buffered values,
+     * and this layout is kept when the list grows, is trimmed, sorted,
+     * cloned or converted with {@link #toArray()}.
+     * A list with flattened elements can not contain {@code null}.
+     *
+     * @param  elementClass  the class of the elements of the list
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative or if the element class is a primitive type
+     */
+    public XArrayList(Class<?> elementClass, int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                                               initialCapacity);
+        }
+        if (elementClass.isPrimitive()) {
+            throw new IllegalArgumentException("Illegal element class: " +
+                                               elementClass);
+        }
+        this.elementData = (Object[]) Array.newInstance(elementClass, initialCapacity);
+        this.emptyElement = Array.get(Array.newInstance(elementClass, 1), 0);
+    }
+
     /**
      * Constructs an empty list with an initial capacity of ten.
      */
@@ -209,12 +263,63 @@ public class XArrayList<E> extends AbstractList<E>
      * the storage of an {@code XArrayList} instance.
      */
     public void trimToSize() {
+        applyCursorRemovals();
         modCount++;
         if (size < elementData.length) {
-            elementData = (size == 0)
+            final Object[] es = elementData;
+            elementData = (size == 0 && es.getClass() == Object[].class)
               ? EMPTY_ELEMENTDATA
-              : Arrays.copyOf(elementData, size);
+              : Arrays.copyOf(es, size);
+            XArrayListFootprintEvent.emit("trimToSize", es, es.length, size, size, size, 1);
+        }
+    }
+
+    /**
+     * Sets the occupancy ratio below which the backing array is
+     * automatically shrunk when elements are removed.  When the number of
+     * elements drops below {@code minOccupancy * capacity}, the array is
+     * reallocated with room for half the remaining elements more, so
+     * alternating removals and additions do not reallocate each time.
+     * The ratio is 0 by default, the array is never shrunk automatically.
+     *
+     * @param minOccupancy the occupancy ratio, between 0 (never shrink)
+     *        and 0.5
+     * @throws IllegalArgumentException if the ratio is not between 0 and 0.5
+     */
+    public void setShrinkOccupancy(float minOccupancy) {
+        if (!(minOccupancy >= 0f && minOccupancy <= 0.5f)) {
+            throw new IllegalArgumentException("Illegal occupancy: " +
+                                               minOccupancy);
         }
+        shrinkOccupancy = minOccupancy;
+    }
+
+    /**
+     * Returns the occupancy ratio below which the backing array is
+     * automatically shrunk, 0 if the array is never shrunk.
+     *
+     * @return the occupancy ratio
+     * @see #setShrinkOccupancy(float)
+     */
+    public float getShrinkOccupancy() {
+        return shrinkOccupancy;
+    }
+
+    /**
+     * Shrinks the backing array if its occupancy is below the
+     * shrink occupancy ratio.
+     */
+    private void shrinkIfSparse() {
+        final float minOccupancy = shrinkOccupancy;
+        final Object[] es = elementData;
+        final int oldCapacity = es.length;
+        if (minOccupancy == 0f || oldCapacity <= DEFAULT_CAPACITY
+            || size >= oldCapacity * minOccupancy) {
+            return;
+        }
+        final int newCapacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+        elementData = Arrays.copyOf(es, newCapacity);
+        XArrayListFootprintEvent.emit("shrink", es, oldCapacity, newCapacity, size, size, 0);
     }
 
     /**
@@ -225,11 +330,12 @@ public class XArrayList<E> extends AbstractList<E>
      * @param minCapacity the desired minimum capacity
      */
     public void ensureCapacity(int minCapacity) {
+        applyCursorRemovals();
         if (minCapacity > elementData.length
             && !(elementData == DEFAULTCAPACITY_EMPTY_ELEMENTDATA
                  && minCapacity <= DEFAULT_CAPACITY)) {
             modCount++;
-            grow(minCapacity);
+            grow(minCapacity, "ensureCapacity");
         }
     }
 
@@ -241,14 +347,23 @@ public class XArrayList<E> extends AbstractList<E>
      * @throws OutOfMemoryError if minCapacity is less than zero
      */
     private Object[] grow(int minCapacity) {
+        return grow(minCapacity, "grow");
+    }
+
+    private Object[] grow(int minCapacity, String operation) {
         int oldCapacity = elementData.length;
         if (oldCapacity > 0 || elementData != DEFAULTCAPACITY_EMPTY_ELEMENTDATA) {
             int newCapacity = newLength(oldCapacity,
                     minCapacity - oldCapacity, /* minimum growth */
                     oldCapacity >> 1           /* preferred growth */);
-            return elementData = Arrays.copyOf(elementData, newCapacity);
+            final Object[] es = elementData;
+            elementData = Arrays.copyOf(es, newCapacity);
+            XArrayListFootprintEvent.emit(operation, es, oldCapacity, newCapacity, size, oldCapacity, 0);
+            return elementData;
         } else {
-            return elementData = new Object[Math.max(DEFAULT_CAPACITY, minCapacity)];
+            elementData = new Object[Math.max(DEFAULT_CAPACITY, minCapacity)];
+            XArrayListFootprintEvent.emit(operation, elementData, 0, elementData.length, size, 0, 0);
+            return elementData;
         }
     }
 
@@ -352,6 +467,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @return a clone of this {@code XArrayList} instance
      */
     public Object clone() {
+        applyCursorRemovals();
         try {
             XArrayList<?> v = (XArrayList<?>) super.clone();
             v.elementData = Arrays.copyOf(elementData, size);
@@ -378,6 +494,7 @@ public class XArrayList<E> extends AbstractList<E>
      *         proper sequence
      */
     public Object[] toArray() {
+        applyCursorRemovals();
         return Arrays.copyOf(elementData, size);
     }
 
@@ -407,6 +524,7 @@ public class XArrayList<E> extends AbstractList<E>
      */
     @SuppressWarnings("unchecked")
     public <T> T[] toArray(T[] a) {
+        applyCursorRemovals();
       if (a.length < size)
       // Make a new array of a's runtime type, but my contents:
       {
@@ -479,6 +597,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @return {@code true} (as specified by {@link Collection#add})
      */
     public boolean add(E e) {
+        applyCursorRemovals();
         modCount++;
         add(e, elementData, size);
         return true;
@@ -494,6 +613,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @throws IndexOutOfBoundsException {@inheritDoc}
      */
     public void add(int index, E element) {
+        applyCursorRemovals();
         rangeCheckForAdd(index);
         modCount++;
         final int s;
@@ -518,6 +638,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @throws IndexOutOfBoundsException {@inheritDoc}
      */
     public E remove(int index) {
+        applyCursorRemovals();
         Objects.checkIndex(index, size);
         final Object[] es = elementData;
 
@@ -628,6 +749,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @return {@code true} if this list contained the specified element
      */
     public boolean remove(Object o) {
+        applyCursorRemovals();
         final Object[] es = elementData;
         final int size = this.size;
         int i = 0;
@@ -661,7 +783,10 @@ public class XArrayList<E> extends AbstractList<E>
       if ((newSize = size - 1) > i) {
         System.arraycopy(es, i + 1, es, i, newSize - i);
       }
-        es[size = newSize] = null;
+        es[size = newSize] = emptyElement;
+        XArrayListFootprintEvent.emit("fastRemove", es, es.length, es.length, newSize,
+                                      newSize - i, 1);
+        shrinkIfSparse();
     }
 
     /**
@@ -669,10 +794,11 @@ public class XArrayList<E> extends AbstractList<E>
      * be empty after this call returns.
      */
     public void clear() {
+        applyCursorRemovals();
         modCount++;
         final Object[] es = elementData;
       for (int to = size, i = size = 0; i < to; i++) {
-        es[i] = null;
+        es[i] = emptyElement;
       }
     }
 
@@ -690,6 +816,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @throws NullPointerException if the specified collection is null
      */
     public boolean addAll(Collection<? extends E> c) {
+        applyCursorRemovals();
         Object[] a = c.toArray();
         modCount++;
         int numNew = a.length;
@@ -722,6 +849,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @throws NullPointerException if the specified collection is null
      */
     public boolean addAll(int index, Collection<? extends E> c) {
+        applyCursorRemovals();
         rangeCheckForAdd(index);
 
         Object[] a = c.toArray();
@@ -761,6 +889,7 @@ public class XArrayList<E> extends AbstractList<E>
      *          toIndex < fromIndex})
      */
     protected void removeRange(int fromIndex, int toIndex) {
+        applyCursorRemovals();
         if (fromIndex > toIndex) {
             throw new IndexOutOfBoundsException(
                     outOfBoundsMsg(fromIndex, toIndex));
@@ -773,8 +902,9 @@ public class XArrayList<E> extends AbstractList<E>
     private void shiftTailOverGap(Object[] es, int lo, int hi) {
         System.arraycopy(es, hi, es, lo, size - hi);
       for (int to = size, i = (size -= hi - lo); i < to; i++) {
-        es[i] = null;
+        es[i] = emptyElement;
       }
+        shrinkIfSparse();
     }
 
     /**
@@ -818,6 +948,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @see Collection#contains(Object)
      */
     public boolean removeAll(Collection<?> c) {
+        applyCursorRemovals();
         return batchRemove(c, false, 0, size);
     }
 
@@ -838,6 +969,7 @@ public class XArrayList<E> extends AbstractList<E>
      * @see Collection#contains(Object)
      */
     public boolean retainAll(Collection<?> c) {
+        applyCursorRemovals();
         return batchRemove(c, true, 0, size);
     }
 
@@ -855,6 +987,7 @@ public class XArrayList<E> extends AbstractList<E>
             break;
           }
         }
+        final int firstRemoved = r;
         int w = r++;
         try {
           for (Object e; r < end; r++) {
@@ -870,6 +1003,9 @@ public class XArrayList<E> extends AbstractList<E>
             throw ex;
         } finally {
             modCount += end - w;
+            XArrayListFootprintEvent.emit("batchRemove", es, es.length, es.length,
+                                          size - (end - w),
+                                          (w - firstRemoved) + (size - end), end - w);
             shiftTailOverGap(es, w, end);
         }
         return true;
@@ -887,6 +1023,7 @@ public class XArrayList<E> extends AbstractList<E>
      */
     private void writeObject(java.io.ObjectOutputStream s)
         throws java.io.IOException {
+        applyCursorRemovals();
         // Write out element count, and any hidden stuff
         int expectedModCount = modCount;
         s.defaultWriteObject();
@@ -939,6 +1076,179 @@ public class XArrayList<E> extends AbstractList<E>
         }
     }
 
+    /**
+     * Magic number of the binary format of {@link #writeTo(WritableByteChannel)}.
+     */
+    private static final int BINARY_MAGIC = 0x58414C31;  // "XAL1"
+
+    /**
+     * Size of the direct buffers used by {@link #writeTo(WritableByteChannel)}
+     * and {@link #readFrom(Class, ReadableByteChannel)}.
+     */
+    private static final int BINARY_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes the elements of this list to a channel in a compact binary
+     * format.  The elements must be instances of the element class of the
+     * list, a class made only of primitive fields, typically an inline class
+     * like {@code Point}; the list must have been created with
+     * {@link #XArrayList(Class, int)}.
+     *
+     * <p>The format is a header (a magic number, the length of the
+     * descriptor of the fields, the name and the type of each field and
+     * the number of elements) followed by the fields of each element,
+     * sorted by name, in little endian.  The fields are encoded in bulk in a direct
+     * {@link ByteBuffer} instead of being written one at a time like
+     * the serialization does, by a loop specialized for the element class.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalStateException if the element class of this list
+     *         is not made only of primitive fields
+     * @throws ConcurrentModificationException if the list is modified
+     *         during the write
+     * @see #readFrom(Class, ReadableByteChannel)
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        applyCursorRemovals();
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final int size = this.size;
+        final PrimitiveLayout layout;
+        try {
+            layout = PrimitiveLayout.of(es.getClass().getComponentType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        final int stride = layout.stride;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(
+                Math.max(BINARY_BUFFER_SIZE, 12 + layout.descriptor.length))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(BINARY_MAGIC)
+            .putInt(layout.descriptor.length)
+            .put(layout.descriptor)
+            .putInt(size);
+        for (int i = 0; i < size;) {
+          if (buffer.remaining() < stride) {
+            writeFully(channel, buffer);
+          }
+            final int count = Math.min(size - i, buffer.remaining() / stride);
+            final int position = buffer.position();
+            layout.write(es, i, i + count, buffer, position);
+            buffer.position(position + count * stride);
+            i += count;
+        }
+        writeFully(channel, buffer);
+        checkForComodification(expectedModCount);
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+        throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads a list written by {@link #writeTo(WritableByteChannel)}.
+     * The returned list stores its elements in an array of the element class,
+     * flattened if the element class is an inline class.
+     *
+     * <p>If the channel is a {@link FileChannel}, the elements are decoded
+     * from a memory-mapped view of the file, from the current position,
+     * and the position of the channel is moved after the elements;
+     * otherwise the elements are read in chunks in a direct buffer.
+     *
+     * @param <E> the type of the elements
+     * @param elementClass the element class, made only of primitive fields
+     * @param channel the channel to read from
+     * @return a new list containing the elements read
+     * @throws IOException if an I/O error occurs, if the data was not written
+     *         by {@code writeTo} or with an element class with different
+     *         field names or types
+     * @throws IllegalArgumentException if the element class is not made only
+     *         of primitive fields or has no constructor or static factory
+     *         taking the values of its fields
+     * @see #writeTo(WritableByteChannel)
+     */
+    public static <E> XArrayList<E> readFrom(Class<E> elementClass, ReadableByteChannel channel)
+        throws IOException {
+        final PrimitiveLayout layout = PrimitiveLayout.of(elementClass);
+        final int stride = layout.stride;
+        final ByteBuffer header = ByteBuffer.allocate(12 + layout.descriptor.length)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        header.limit(8);
+        readFully(channel, header);
+        if (header.getInt(0) != BINARY_MAGIC) {
+            throw new StreamCorruptedException("invalid magic number");
+        }
+        final int descriptorLength = header.getInt(4);
+        if (descriptorLength < 0) {
+            throw new StreamCorruptedException("invalid descriptor length: " + descriptorLength);
+        }
+        if (descriptorLength != layout.descriptor.length) {
+            throw new InvalidClassException(elementClass.getName(), "invalid fields");
+        }
+        final byte[] descriptor = new byte[descriptorLength];
+        header.limit(header.capacity());
+        readFully(channel, header);
+        header.position(8);
+        header.get(descriptor);
+        if (!Arrays.equals(descriptor, layout.descriptor)) {
+            throw new InvalidClassException(elementClass.getName(), "invalid fields");
+        }
+        final int size = header.getInt();
+        if (size < 0) {
+            throw new InvalidObjectException("Invalid size: " + size);
+        }
+
+        final long length = (long) size * stride;
+        final XArrayList<E> list;
+        if (channel instanceof FileChannel && length <= Integer.MAX_VALUE) {
+            final FileChannel fileChannel = (FileChannel) channel;
+            final long position = fileChannel.position();
+            if (fileChannel.size() - position < length) {
+                throw new EOFException();
+            }
+            final ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            list = new XArrayList<>(elementClass, size);
+            layout.read(buffer, 0, list.elementData, 0, size);
+            fileChannel.position(position + length);
+        } else {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(BINARY_BUFFER_SIZE, stride))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            // read whole elements only, so nothing is read after the last one
+            final int chunk = buffer.capacity() / stride * stride;
+            // the size is not trusted, the list grows with the elements
+            // actually read so a corrupted size can not exhaust the heap
+            list = new XArrayList<>(elementClass, Math.min(size, chunk / stride));
+            for (int i = 0; i < size;) {
+                buffer.clear().limit((int) Math.min(chunk, (long) (size - i) * stride));
+                readFully(channel, buffer);
+                final int count = buffer.limit() / stride;
+              if (i + count > list.elementData.length) {
+                list.grow(i + count);
+              }
+                layout.read(buffer, 0, list.elementData, i, i + count);
+                i += count;
+            }
+        }
+        list.size = size;
+        return list;
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer)
+        throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException();
+            }
+        }
+    }
+
     /**
      * Returns a list iterator over the elements in this list (in proper
      * sequence), starting at the specified position in the list.
@@ -1118,10 +1428,86 @@ public class XArrayList<E> extends AbstractList<E>
 
     /**
      * Return a new cursor for this XArrayList.
+     *
+     * <p>The cursor supports {@link InlineCursor#remove() remove},
+     * {@link InlineCursor#set(Object) set} and
+     * {@link InlineCursor#retreat() retreat}.  Elements removed through
+     * a cursor are recorded in a bit set and expunged in one pass when a
+     * cursor advances past the last element, so removing k elements during
+     * a traversal costs O(n) instead of O(n*k).  Until then cursors skip the
+     * removed elements but the queries of this list still see them;
+     * a traversal that stops before the end has to call
+     * {@link InlineCursor#close()} or {@link #applyCursorRemovals()}.
+     * The removals are also applied before any structural modification of
+     * this list and by {@code toArray}, {@code clone}, the serialization
+     * and {@link #writeTo(WritableByteChannel)}.
+     *
      * @return a cursor
      */
     public InlineCursor<E> cursor() {
-        return new AListCursor<E>(0, size, elementData);
+        return firstCursor();
+    }
+
+    private AListCursor<E> firstCursor() {
+        return new AListCursor<E>(this, -1, modCount, false).advance();
+    }
+
+    private AListCursor<E> endCursor() {
+        applyCursorRemovals();
+        return new AListCursor<E>(this, size, modCount, false);
+    }
+
+    /**
+     * Elements removed through a cursor but not yet expunged,
+     * null if there is no pending removal.
+     */
+    private transient long[] cursorDeathRow;
+
+    /**
+     * Expunges the elements removed through a cursor whose traversal has
+     * not reached the end of this list.  Outstanding cursors are invalidated
+     * if there was such an element.
+     *
+     * @see #cursor()
+     */
+    public void applyCursorRemovals() {
+        if (cursorDeathRow != null) {
+            expungeCursorRemovals();
+        }
+    }
+
+    /**
+     * Slides the survivors over the elements removed through a cursor,
+     * like the second pass of removeIf.
+     */
+    private void expungeCursorRemovals() {
+        final long[] deathRow = cursorDeathRow;
+        cursorDeathRow = null;
+        final Object[] es = elementData;
+        final int end = size;
+        int w = 0;
+        for (int i = 0; i < end; i++) {
+          if (isClear(deathRow, i)) {
+            es[w++] = es[i];
+          }
+        }
+        modCount++;
+        XArrayListFootprintEvent.emit("expungeCursorRemovals", es, es.length, es.length, w,
+                                      w - firstSetBit(deathRow), 1);
+        shiftTailOverGap(es, w, end);
+    }
+
+    private void removeAtCursor(int index) {
+      if (cursorDeathRow == null) {
+        cursorDeathRow = nBits(size);
+      }
+        setBit(cursorDeathRow, index);
+        modCount++;
+    }
+
+    private boolean isRemovedAtCursor(int index) {
+        final long[] deathRow = cursorDeathRow;
+        return deathRow != null && !isClear(deathRow, index);
     }
 
     /**
@@ -1129,32 +1515,187 @@ public class XArrayList<E> extends AbstractList<E>
      */
     private static inline class AListCursor<E> implements InlineCursor<E> {
         // Inner class field 'this' is initialized
-        private int index;          // index of next element to return; if neg is removed index
+        private XArrayList<E> list;
+        private int index;          // index of the element, -1 or size if before the first or after the last
         private int size;
         private Object[] elementData;
+        private int expectedModCount;
+        private boolean removed;    // true if the element at index has been removed by this cursor
 
-        private AListCursor(int index, int size, Object[] elementData) {
+        private AListCursor(XArrayList<E> list, int index, int expectedModCount, boolean removed) {
+            this.list = list;
             this.index = index;
-            this.size = size;
-            this.elementData = elementData;
+            this.size = list.size;
+            this.elementData = list.elementData;
+            this.expectedModCount = expectedModCount;
+            this.removed = removed;
+        }
+
+        private void checkForComodification() {
+          if (list.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
         }
 
         @Override
         public boolean exists() {
-            return index < size;
+            checkForComodification();
+            return !removed && index >= 0 && index < size;
         }
 
         @SuppressWarnings("unchecked")
         public E get() {
-            if (index == size) {
-                throw new NoSuchElementException();
-            }
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
             return (E) elementData[index];
         }
 
         @Override
         public AListCursor<E> advance() {
-            return new AListCursor<E>(Math.min(index + 1, size), size, elementData);
+            checkForComodification();
+            int i = Math.max(index + 1, 0);
+          for (; i < size && list.isRemovedAtCursor(i); i++) {
+            ;
+          }
+          if (i >= size) {
+            // end of the traversal, expunge the elements removed through a cursor
+            return list.endCursor();
+          }
+            return new AListCursor<E>(list, i, expectedModCount, false);
+        }
+
+        // next index, without skipping the removed elements nor expunging them,
+        // the cursor spliterator applies the removals before the traversal
+        private AListCursor<E> step() {
+            return new AListCursor<E>(list, index + 1, expectedModCount, false);
+        }
+
+        @Override
+        public AListCursor<E> retreat() {
+            checkForComodification();
+            int i = Math.min(index - 1, size - 1);
+          for (; i >= 0 && list.isRemovedAtCursor(i); i--) {
+            ;
+          }
+            return new AListCursor<E>(list, Math.max(i, -1), expectedModCount, false);
+        }
+
+        @Override
+        public AListCursor<E> remove() {
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
+            list.removeAtCursor(index);
+            return new AListCursor<E>(list, index, list.modCount, true);
+        }
+
+        @Override
+        public void set(E element) {
+            checkForComodification();
+          if (removed || index < 0 || index >= size) {
+            throw new NoSuchElementException();
+          }
+            elementData[index] = element;
+        }
+
+        @Override
+        public void close() {
+            list.applyCursorRemovals();
+        }
+    }
+
+    /**
+     * Creates a <em>fail-fast</em> {@link Spliterator} over the elements in
+     * this list that traverses the elements with an {@link InlineCursor}.
+     * Neither {@code tryAdvance} nor {@code forEachRemaining} allocate per
+     * element and the spliterator splits by halving the remaining range of
+     * indexes, like {@link #spliterator()}.
+     *
+     * <p>Like {@link #cursor()}, the spliterator does not see the elements
+     * removed through a cursor: the pending removals are applied when the
+     * spliterator is created, so outstanding cursors are invalidated if
+     * there was a pending removal.
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    public Spliterator<E> cursorSpliterator() {
+        applyCursorRemovals();
+        return new CursorSpliterator<E>(new AListCursor<E>(this, 0, modCount, false), size);
+    }
+
+    /**
+     * Returns a sequential {@code Stream} over the elements in this list
+     * using {@link #cursorSpliterator()}.
+     *
+     * @return a sequential {@code Stream} over the elements in this list
+     */
+    public Stream<E> cursorStream() {
+        return StreamSupport.stream(cursorSpliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel {@code Stream} over the elements in this
+     * list using {@link #cursorSpliterator()}.
+     *
+     * @return a possibly parallel {@code Stream} over the elements in this list
+     */
+    public Stream<E> parallelCursorStream() {
+        return StreamSupport.stream(cursorSpliterator(), true);
+    }
+
+    /** Index-based split-by-two Spliterator on top of an inline cursor */
+    private static final class CursorSpliterator<E> implements Spliterator<E> {
+        private AListCursor<E> cursor; // flattened, advancing does not allocate
+        private final int fence;       // one past last index
+
+        CursorSpliterator(AListCursor<E> cursor, int fence) {
+            this.cursor = cursor;
+            this.fence = fence;
+        }
+
+        public CursorSpliterator<E> trySplit() {
+            AListCursor<E> cur = cursor;
+            int lo = cur.index, mid = (lo + fence) >>> 1;
+          if (lo >= mid) {
+            return null;
+          }
+            cursor = new AListCursor<E>(cur.list, mid, cur.expectedModCount, false);
+            return new CursorSpliterator<E>(cur, mid);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            AListCursor<E> cur = cursor;
+          if (cur.index >= fence) {
+            return false;
+          }
+            action.accept(cur.get());
+            cursor = cur.step();
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            AListCursor<E> cur = cursor;
+            for (; cur.index < fence; cur = cur.step()) {
+                action.accept(cur.get());
+            }
+            cursor = cur;
+            cur.checkForComodification();
+        }
+
+        public long estimateSize() {
+            return fence - cursor.index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
         }
     }
 
@@ -1162,6 +1703,8 @@ public class XArrayList<E> extends AbstractList<E>
      * Returns a iterator (Using an InlineCursor) over the elements in this list in proper sequence.
      *
      * <p>The returned iterator is <a href="#fail-fast"><i>fail-fast</i></a>.
+     * Like for {@link #cursor()}, the elements removed through the iterator
+     * are expunged when the iteration reaches the end of this list.
      *
      * @return an iterator over the elements in this list in proper sequence
      */
@@ -1178,28 +1721,33 @@ public class XArrayList<E> extends AbstractList<E>
 
         // prevent creating a synthetic constructor
         CurItr() {
-            this.cursor = new AListCursor<E>(0, size, elementData);
-            this.lastRet = this.cursor;
+            this.cursor = firstCursor();
+            this.lastRet = new AListCursor<E>(XArrayList.this, -1, cursor.expectedModCount, false);
         }
 
         public boolean hasNext() {
-            return cursor.advance().exists();
+            return cursor.index < cursor.size;
         }
 
         @SuppressWarnings("unchecked")
         public E next() {
             E val = cursor.get();
-            lastRet = cursor;
-            cursor = cursor.advance();
+            AListCursor<E> next = cursor.advance();
+            // advancing past the last element may have expunged the removed
+            // elements, the returned element is then the last one of the list
+            lastRet = next.expectedModCount == cursor.expectedModCount ? cursor
+                : new AListCursor<E>(XArrayList.this, next.index - 1, next.expectedModCount, false);
+            cursor = next;
             return val;
         }
 
         public void remove() {
-          if (lastRet.exists()) {
-            lastRet.remove();
-          } else {
+          if (lastRet.removed || lastRet.index < 0) {
             throw new IllegalStateException();
           }
+            AListCursor<E> removed = lastRet.remove();
+            lastRet = removed;
+            cursor = removed.advance();
         }
 
         @Override
@@ -1304,21 +1852,21 @@ public class XArrayList<E> extends AbstractList<E>
 
         public void add(int index, E element) {
             rangeCheckForAdd(index);
-            checkForComodification();
+            checkForStructuralModification();
             root.add(offset + index, element);
             updateSizeAndModCount(1);
         }
 
         public E remove(int index) {
             Objects.checkIndex(index, size);
-            checkForComodification();
+            checkForStructuralModification();
             E result = root.remove(offset + index);
             updateSizeAndModCount(-1);
             return result;
         }
 
         protected void removeRange(int fromIndex, int toIndex) {
-            checkForComodification();
+            checkForStructuralModification();
             root.removeRange(offset + fromIndex, offset + toIndex);
             updateSizeAndModCount(fromIndex - toIndex);
         }
@@ -1333,7 +1881,7 @@ public class XArrayList<E> extends AbstractList<E>
           if (cSize == 0) {
             return false;
           }
-            checkForComodification();
+            checkForStructuralModification();
             root.addAll(offset + index, c);
             updateSizeAndModCount(cSize);
             return true;
@@ -1352,7 +1900,7 @@ public class XArrayList<E> extends AbstractList<E>
         }
 
         private boolean batchRemove(Collection<?> c, boolean complement) {
-            checkForComodification();
+            checkForStructuralModification();
             int oldSize = root.size;
             boolean modified =
                 root.batchRemove(c, complement, offset, offset + size);
@@ -1363,7 +1911,7 @@ public class XArrayList<E> extends AbstractList<E>
         }
 
         public boolean removeIf(Predicate<? super E> filter) {
-            checkForComodification();
+            checkForStructuralModification();
             int oldSize = root.size;
             boolean modified = root.removeIf(filter, offset, offset + size);
           if (modified) {
@@ -1577,6 +2125,15 @@ public class XArrayList<E> extends AbstractList<E>
           }
         }
 
+        // expunging the elements removed through a cursor would move
+        // the elements of this view, so structural changes are rejected
+        private void checkForStructuralModification() {
+            checkForComodification();
+          if (root.cursorDeathRow != null) {
+            throw new ConcurrentModificationException();
+          }
+        }
+
         private void updateSizeAndModCount(int sizeChange) {
             SubList<E> slist = this;
             do {
@@ -1821,12 +2378,20 @@ public class XArrayList<E> extends AbstractList<E>
     private static boolean isClear(long[] bits, int i) {
         return (bits[i >> 6] & (1L << i)) == 0;
     }
+    private static int firstSetBit(long[] bits) {
+        int word = 0;
+        while (bits[word] == 0L) {
+            word++;
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits[word]);
+    }
 
     /**
      * @throws NullPointerException {@inheritDoc}
      */
     @Override
     public boolean removeIf(Predicate<? super E> filter) {
+        applyCursorRemovals();
         return removeIf(filter, 0, size);
     }
 
@@ -1864,6 +2429,8 @@ public class XArrayList<E> extends AbstractList<E>
               es[w++] = es[i];
             }
           }
+            XArrayListFootprintEvent.emit("removeIf", es, es.length, es.length, size - (end - w),
+                                          w - beg, 1);
             shiftTailOverGap(es, w, end);
             return true;
         } else {
@@ -1876,6 +2443,7 @@ public class XArrayList<E> extends AbstractList<E>
 
     @Override
     public void replaceAll(UnaryOperator<E> operator) {
+        applyCursorRemovals();
         replaceAllRange(operator, 0, size);
         // TODO(8203662): remove increment of modCount from ...
         modCount++;
@@ -1896,6 +2464,7 @@ public class XArrayList<E> extends AbstractList<E>
     @Override
     @SuppressWarnings("unchecked")
     public void sort(Comparator<? super E> c) {
+        applyCursorRemovals();
         final int expectedModCount = modCount;
         Arrays.sort((E[]) elementData, 0, size, c);
       if (modCount != expectedModCount) {
@@ -1904,6 +2473,137 @@ public class XArrayList<E> extends AbstractList<E>
         modCount++;
     }
 
+    /**
+     * Minimum size of the list for the parallel bulk operations to use
+     * the common fork-join pool, smaller lists are processed sequentially.
+     */
+    private static final int MIN_PARALLEL_SIZE = 1 << 13;
+
+    /**
+     * Sorts this list like {@link #sort(Comparator)} but using
+     * {@link Arrays#parallelSort(Object[], int, int, Comparator)},
+     * which sorts sequentially the ranges too small to be split.
+     *
+     * @param c the comparator, {@code null} for the natural ordering
+     * @throws ConcurrentModificationException if the list is modified
+     *         during the sort
+     */
+    @SuppressWarnings("unchecked")
+    public void parallelSort(Comparator<? super E> c) {
+        applyCursorRemovals();
+        final int expectedModCount = modCount;
+        Arrays.parallelSort((E[]) elementData, 0, size, c);
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+        modCount++;
+    }
+
+    /**
+     * Removes all elements satisfying the given predicate like
+     * {@link #removeIf(Predicate)} but, if the list is large enough,
+     * the predicate is evaluated in parallel to mark the elements in a
+     * death-row bit set, then the survivors are compacted in place,
+     * in parallel inside each 64 elements word then word by word.
+     * The predicate must be safe to call from several threads.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be
+     *        removed
+     * @return {@code true} if any elements were removed
+     * @throws ConcurrentModificationException if the list is modified
+     *         by the predicate
+     */
+    public boolean parallelRemoveIf(Predicate<? super E> filter) {
+        applyCursorRemovals();
+        Objects.requireNonNull(filter);
+        final int end = size;
+      if (end < MIN_PARALLEL_SIZE) {
+        return removeIf(filter, 0, end);
+      }
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final long[] deathRow = nBits(end);
+        // each task owns a word of the bit set, survivors[word] is the
+        // number of survivors in the word, then up to the word included
+        final int[] survivors = new int[deathRow.length];
+        IntStream.range(0, deathRow.length).parallel().forEach(word -> {
+            final int from = word << 6, to = Math.min(from + 64, end);
+            long bits = 0L;
+          for (int i = from; i < to; i++) {
+            if (filter.test(elementAt(es, i))) {
+              bits |= 1L << i;
+            }
+          }
+            deathRow[word] = bits;
+            survivors[word] = to - from - Long.bitCount(bits);
+        });
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+        Arrays.parallelPrefix(survivors, Integer::sum);
+        final int newSize = survivors[survivors.length - 1];
+      if (newSize == end) {
+        return false;
+      }
+        modCount++;
+        // each task slides the survivors of its word at the start of the word,
+        // a task only writes in its own word
+        IntStream.range(0, deathRow.length).parallel().forEach(word -> {
+            final long bits = deathRow[word];
+          if (bits == 0L) {
+            return;
+          }
+            final int from = word << 6, to = Math.min(from + 64, end);
+            int w = from;
+          for (int i = from; i < to; i++) {
+            if ((bits & (1L << i)) == 0) {
+              es[w++] = es[i];
+            }
+          }
+        });
+        // then the survivors of each word are moved next to the ones of the
+        // previous words, the destination never overlaps a word not yet moved
+        int w = 0;
+        for (int word = 0; word < deathRow.length; word++) {
+            final int from = word << 6, count = survivors[word] - w;
+          if (from != w) {
+            System.arraycopy(es, from, es, w, count);
+          }
+            w += count;
+        }
+        XArrayListFootprintEvent.emit("parallelRemoveIf", es, es.length, es.length, newSize,
+                                      newSize - firstSetBit(deathRow), 1);
+        shiftTailOverGap(es, newSize, end);
+        return true;
+    }
+
+    /**
+     * Replaces each element of this list like {@link #replaceAll(UnaryOperator)}
+     * but, if the list is large enough, the operator is applied in parallel
+     * on chunks of the list.  The operator must be safe to call from several
+     * threads.
+     *
+     * @param operator the operator to apply to each element
+     * @throws ConcurrentModificationException if the list is modified
+     *         by the operator
+     */
+    public void parallelReplaceAll(UnaryOperator<E> operator) {
+        applyCursorRemovals();
+        Objects.requireNonNull(operator);
+        final int end = size;
+      if (end < MIN_PARALLEL_SIZE) {
+        replaceAll(operator);
+        return;
+      }
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        IntStream.range(0, end).parallel().forEach(i -> es[i] = operator.apply(elementAt(es, i)));
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+        modCount++;
+    }
+
     void checkInvariants() {
         // assert size >= 0;
         // assert size == elementData.length || elementData[size] == null;
@@ -0,0 +1,125 @@
+package fr.umlv.valuetype.xlist;
+
+import java.lang.reflect.Field;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import sun.misc.Unsafe;
+
+/**
+ * JFR event emitted when an {@link XArrayList} reallocates or compacts
+ * its backing array.
+ *
+ * <p>The event is disabled by default, it has to be enabled in the
+ * recording settings, by example
+ * <pre>
+ *   jfr configure +fr.umlv.valuetype.xlist.Footprint#enabled=true --output xlist.jfc
+ *   java -XX:StartFlightRecording:settings=xlist.jfc ...
+ * </pre>
+ * The stack trace of the event is the call site of the operation,
+ * so the over-allocated lists of a recording can be grouped by the
+ * code that allocates or shrinks them.
+ *
+ * <p>The totals per operation are reported by the cheaper periodic
+ * {@link XArrayListFootprintStatisticsEvent}.
+ */
+@Name("fr.umlv.valuetype.xlist.Footprint")
+@Label("XArrayList Footprint")
+@Category({"Valhalla", "XArrayList"})
+@Description("Reallocation or compaction of the backing array of an XArrayList")
+@Enabled(false)
+@StackTrace(true)
+final class XArrayListFootprintEvent extends Event {
+    @Label("Operation")
+    @Description("grow, ensureCapacity, trimToSize, shrink, fastRemove, batchRemove, "
+                 + "removeIf, expungeCursorRemovals or parallelRemoveIf")
+    String operation;
+
+    @Label("Element Class")
+    Class<?> elementClass;
+
+    @Label("Old Capacity")
+    int oldCapacity;
+
+    @Label("New Capacity")
+    int newCapacity;
+
+    @Label("Size")
+    @Description("Number of elements after the operation")
+    int size;
+
+    @Label("Elements Copied")
+    int elementsCopied;
+
+    @Label("Bytes Copied")
+    @Description("0 if the layout of the array is not known")
+    @DataAmount(DataAmount.BYTES)
+    long bytesCopied;
+
+    @Label("ModCount Churn")
+    @Description("Increment of the modification count of the list")
+    int modCountDelta;
+
+    private static final EventType EVENT_TYPE =
+        EventType.getEventType(XArrayListFootprintEvent.class);
+
+    /**
+     * Commits an event and updates the counters of the operation if they
+     * are enabled, nothing is allocated if both events are disabled.
+     */
+    static void emit(String operation, Object[] array, int oldCapacity, int newCapacity,
+                     int size, int elementsCopied, int modCountDelta) {
+        var counted = XArrayListFootprintStatisticsEvent.countersEnabled();
+        if (!counted && !EVENT_TYPE.isEnabled()) {
+            return;
+        }
+        var arrayClass = array.getClass();
+        var bytesCopied = (long) elementsCopied * ArrayLayout.indexScale(arrayClass);
+        if (counted) {
+            XArrayListFootprintStatisticsEvent.count(operation, elementsCopied, bytesCopied, modCountDelta);
+        }
+        var event = new XArrayListFootprintEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.operation = operation;
+        event.elementClass = arrayClass.getComponentType();
+        event.oldCapacity = oldCapacity;
+        event.newCapacity = newCapacity;
+        event.size = size;
+        event.elementsCopied = elementsCopied;
+        event.bytesCopied = bytesCopied;
+        event.modCountDelta = modCountDelta;
+        event.commit();
+    }
+
+    /**
+     * Size of the elements of an array, accurate for flattened arrays.
+     * The class is only initialized once an event is committed and
+     * if sun.misc.Unsafe is not accessible, the size is 0.
+     */
+    private static final class ArrayLayout {
+        private static final Unsafe UNSAFE = unsafe();
+
+        private static Unsafe unsafe() {
+            try {
+                Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return (Unsafe) theUnsafe.get(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        static int indexScale(Class<?> arrayClass) {
+            return (UNSAFE == null) ? 0 : UNSAFE.arrayIndexScale(arrayClass);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package fr.umlv.valuetype.xlist;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR event that reports, for each operation of
+ * {@link XArrayListFootprintEvent}, the totals since the counters
+ * were enabled.
+ *
+ * <p>The event is disabled by default, the counters are only updated
+ * while a recording enables it, by example
+ * <pre>
+ *   jfr configure +fr.umlv.valuetype.xlist.FootprintStatistics#enabled=true --output xlist.jfc
+ * </pre>
+ * Unlike the footprint event, the counters record no stack trace so
+ * they can stay enabled in production.
+ */
+@Name("fr.umlv.valuetype.xlist.FootprintStatistics")
+@Label("XArrayList Footprint Statistics")
+@Category({"Valhalla", "XArrayList"})
+@Description("Totals of the reallocations and compactions of the backing arrays of the XArrayLists")
+@Enabled(false)
+@StackTrace(false)
+@Period("1 s")
+final class XArrayListFootprintStatisticsEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Calls")
+    long calls;
+
+    @Label("Elements Copied")
+    long elementsCopied;
+
+    @Label("Bytes Copied")
+    @Description("0 if the layout of the arrays is not known")
+    @DataAmount(DataAmount.BYTES)
+    long bytesCopied;
+
+    @Label("ModCount Churn")
+    long modCountDelta;
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder elementsCopied = new LongAdder();
+        final LongAdder bytesCopied = new LongAdder();
+        final LongAdder modCountDelta = new LongAdder();
+    }
+
+    private static final Map<String, Counters> COUNTERS = Map.of(
+        "grow", new Counters(),
+        "ensureCapacity", new Counters(),
+        "trimToSize", new Counters(),
+        "shrink", new Counters(),
+        "fastRemove", new Counters(),
+        "batchRemove", new Counters(),
+        "removeIf", new Counters(),
+        "expungeCursorRemovals", new Counters(),
+        "parallelRemoveIf", new Counters());
+
+    private static final EventType EVENT_TYPE =
+        EventType.getEventType(XArrayListFootprintStatisticsEvent.class);
+
+    static {
+        FlightRecorder.addPeriodicEvent(XArrayListFootprintStatisticsEvent.class,
+                                        XArrayListFootprintStatisticsEvent::commitAll);
+    }
+
+    static boolean countersEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    static void count(String operation, int elementsCopied, long bytesCopied, int modCountDelta) {
+        var counters = COUNTERS.get(operation);
+        counters.calls.increment();
+        counters.elementsCopied.add(elementsCopied);
+        counters.bytesCopied.add(bytesCopied);
+        counters.modCountDelta.add(modCountDelta);
+    }
+
+    private static void commitAll() {
+        COUNTERS.forEach((operation, counters) -> {
+            var calls = counters.calls.sum();
+            if (calls == 0) {
+                return;
+            }
+            var event = new XArrayListFootprintStatisticsEvent();
+            event.operation = operation;
+            event.calls = calls;
+            event.elementsCopied = counters.elementsCopied.sum();
+            event.bytesCopied = counters.bytesCopied.sum();
+            event.modCountDelta = counters.modCountDelta.sum();
+            event.commit();
+        });
+    }
+}
@@ -0,0 +1,818 @@
+package fr.umlv.valuetype.xlist;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Resizable circular-array implementation of the {@code List} interface.
+ *
+ * <p>Unlike {@link XArrayList}, the elements do not necessarily start at
+ * index 0 of the backing array: the list keeps the index of its first
+ * element, the <i>head</i>, and the elements wrap around the end of the
+ * array.  Inserting or removing an element at either end of the list,
+ * {@code add(0, e)}, {@code remove(0)}, {@code add(e)} or
+ * {@code remove(size() - 1)}, runs in amortized constant time, and
+ * inserting or removing in the middle shifts the shorter side of the list.
+ * {@code get} and {@code set} still run in constant time so this class
+ * implements {@link RandomAccess}.
+ *
+ * <p>The growth policy is the one of {@link XArrayList}, when the array
+ * is grown the elements are unwrapped so the head is at index 0.
+ *
+ * <p>The iterators, the cursor and the spliterator are <em>fail-fast</em>
+ * like the ones of {@link XArrayList}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @param <E> the type of elements in this list
+ * @see XArrayList
+ */
+public class XCircularArrayList<E> extends AbstractList<E>
+        implements List<E>, RandomAccess, Cloneable
+{
+    /**
+     * Default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Shared empty array instance used for empty instances.
+     */
+    private static final Object[] EMPTY_ELEMENTDATA = {};
+
+    /**
+     * The array buffer into which the elements are stored, the element
+     * at index {@code i} of the list is stored at index
+     * {@code (head + i) % elementData.length}.
+     */
+    Object[] elementData; // non-private to simplify nested class access
+
+    /**
+     * The index in elementData of the first element.
+     */
+    int head;
+
+    /**
+     * The number of elements the list contains.
+     */
+    int size;
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param  initialCapacity  the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity
+     *         is negative
+     */
+    public XCircularArrayList(int initialCapacity) {
+        if (initialCapacity > 0) {
+            this.elementData = new Object[initialCapacity];
+        } else if (initialCapacity == 0) {
+            this.elementData = EMPTY_ELEMENTDATA;
+        } else {
+            throw new IllegalArgumentException("Illegal Capacity: "+
+                                               initialCapacity);
+        }
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public XCircularArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified
+     * collection, in the order they are returned by the collection's
+     * iterator.
+     *
+     * @param c the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the specified collection is null
+     */
+    public XCircularArrayList(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        this.elementData = (a.length == 0)
+            ? EMPTY_ELEMENTDATA
+            : Arrays.copyOf(a, a.length, Object[].class);
+        this.size = a.length;
+    }
+
+    /**
+     * Returns the index in elementData of the element at the specified
+     * index of the list, without overflow even for huge arrays.
+     */
+    static int physicalIndex(int head, int index, int length) {
+        return (index >= length - head) ? index - (length - head) : head + index;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> E elementAt(Object[] es, int index) {
+        return (E) es[index];
+    }
+
+    /**
+     * Copies the elements, in list order, at the start of a new array
+     * of the specified length.
+     */
+    private Object[] unwrap(int length) {
+        final Object[] es = elementData;
+        final Object[] newEs = new Object[length];
+        final int firstPart = Math.min(size, es.length - head);
+        System.arraycopy(es, head, newEs, 0, firstPart);
+        System.arraycopy(es, 0, newEs, firstPart, size - firstPart);
+        return newEs;
+    }
+
+    /**
+     * Increases the capacity to ensure that it can hold at least the
+     * number of elements specified by the minimum capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     * @throws OutOfMemoryError if minCapacity is less than zero
+     */
+    private Object[] grow(int minCapacity) {
+        int oldCapacity = elementData.length;
+        int newCapacity = (oldCapacity == 0)
+            ? Math.max(DEFAULT_CAPACITY, minCapacity)
+            : newLength(oldCapacity,
+                    minCapacity - oldCapacity, /* minimum growth */
+                    oldCapacity >> 1           /* preferred growth */);
+        elementData = unwrap(newCapacity);
+        head = 0;
+        return elementData;
+    }
+
+    private Object[] grow() {
+        return grow(size + 1);
+    }
+
+    /**
+     * Trims the capacity of this list to be the list's current size.
+     */
+    public void trimToSize() {
+        modCount++;
+        if (size < elementData.length) {
+            elementData = (size == 0) ? EMPTY_ELEMENTDATA : unwrap(size);
+            head = 0;
+        }
+    }
+
+    /**
+     * Increases the capacity of this list, if necessary, to ensure that it
+     * can hold at least the number of elements specified by the minimum
+     * capacity argument.
+     *
+     * @param minCapacity the desired minimum capacity
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elementData.length) {
+            modCount++;
+            grow(minCapacity);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        final Object[] es = elementData;
+        return elementAt(es, physicalIndex(head, index, es.length));
+    }
+
+    @Override
+    public E set(int index, E element) {
+        Objects.checkIndex(index, size);
+        final Object[] es = elementData;
+        final int i = physicalIndex(head, index, es.length);
+        E oldValue = elementAt(es, i);
+        es[i] = element;
+        return oldValue;
+    }
+
+    /**
+     * Returns the first element of this list.
+     *
+     * @return the first element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E getFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(elementData, head);
+    }
+
+    /**
+     * Returns the last element of this list.
+     *
+     * @return the last element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E getLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        final Object[] es = elementData;
+        return elementAt(es, physicalIndex(head, size - 1, es.length));
+    }
+
+    /**
+     * Inserts the specified element at the beginning of this list
+     * in amortized constant time.
+     *
+     * @param e the element to add
+     */
+    public void addFirst(E e) {
+        modCount++;
+        Object[] es = elementData;
+        if (size == es.length) {
+            es = grow();
+        }
+        final int h = (head == 0) ? es.length - 1 : head - 1;
+        es[h] = e;
+        head = h;
+        size++;
+    }
+
+    /**
+     * Appends the specified element to the end of this list
+     * in amortized constant time.
+     *
+     * @param e the element to add
+     */
+    public void addLast(E e) {
+        modCount++;
+        Object[] es = elementData;
+        final int s = size;
+        if (s == es.length) {
+            es = grow();
+        }
+        es[physicalIndex(head, s, es.length)] = e;
+        size = s + 1;
+    }
+
+    /**
+     * Removes and returns the first element of this list
+     * in constant time.
+     *
+     * @return the first element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        modCount++;
+        final Object[] es = elementData;
+        final int h = head;
+        E oldValue = elementAt(es, h);
+        es[h] = null;
+        head = (h + 1 == es.length) ? 0 : h + 1;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Removes and returns the last element of this list
+     * in constant time.
+     *
+     * @return the last element of this list
+     * @throws NoSuchElementException if this list is empty
+     */
+    public E removeLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        modCount++;
+        final Object[] es = elementData;
+        final int i = physicalIndex(head, size - 1, es.length);
+        E oldValue = elementAt(es, i);
+        es[i] = null;
+        size--;
+        return oldValue;
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element at the specified position in this
+     * list.  Inserting at the start or at the end of the list runs in
+     * amortized constant time, otherwise the shorter side of the list
+     * is shifted.
+     *
+     * @param index index at which the specified element is to be inserted
+     * @param element element to be inserted
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public void add(int index, E element) {
+        rangeCheckForAdd(index);
+        if (index == 0) {
+            addFirst(element);
+            return;
+        }
+        modCount++;
+        Object[] es = elementData;
+        final int s = size;
+        if (s == es.length) {
+            es = grow();
+        }
+        final int length = es.length;
+        if (index < s - index) {
+            // shift the elements before index one slot to the left
+            final int h = (head == 0) ? length - 1 : head - 1;
+            for (int i = 0; i < index; i++) {
+                es[physicalIndex(h, i, length)] = es[physicalIndex(h, i + 1, length)];
+            }
+            head = h;
+        } else {
+            // shift the elements from index one slot to the right
+            for (int i = s; i > index; i--) {
+                es[physicalIndex(head, i, length)] = es[physicalIndex(head, i - 1, length)];
+            }
+        }
+        es[physicalIndex(head, index, length)] = element;
+        size = s + 1;
+    }
+
+    /**
+     * Removes the element at the specified position in this list.
+     * Removing at the start or at the end of the list runs in
+     * constant time, otherwise the shorter side of the list is shifted.
+     *
+     * @param index the index of the element to be removed
+     * @return the element that was removed from the list
+     * @throws IndexOutOfBoundsException {@inheritDoc}
+     */
+    @Override
+    public E remove(int index) {
+        Objects.checkIndex(index, size);
+        if (index == 0) {
+            return removeFirst();
+        }
+        modCount++;
+        final Object[] es = elementData;
+        final int length = es.length;
+        final int s = size;
+        final int h = head;
+        E oldValue = elementAt(es, physicalIndex(h, index, length));
+        if (index < s - 1 - index) {
+            // shift the elements before index one slot to the right
+            for (int i = index; i > 0; i--) {
+                es[physicalIndex(h, i, length)] = es[physicalIndex(h, i - 1, length)];
+            }
+            es[h] = null;
+            head = (h + 1 == length) ? 0 : h + 1;
+        } else {
+            // shift the elements after index one slot to the left
+            for (int i = index; i < s - 1; i++) {
+                es[physicalIndex(h, i, length)] = es[physicalIndex(h, i + 1, length)];
+            }
+            es[physicalIndex(h, s - 1, length)] = null;
+        }
+        size = s - 1;
+        return oldValue;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        final Object[] es = elementData;
+        final int length = es.length;
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(o, es[physicalIndex(head, i, length)])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        final Object[] es = elementData;
+        final int length = es.length;
+        for (int i = size - 1; i >= 0; i--) {
+            if (Objects.equals(o, es[physicalIndex(head, i, length)])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        final Object[] es = elementData;
+        final int length = es.length;
+        for (int i = 0; i < size; i++) {
+            es[physicalIndex(head, i, length)] = null;
+        }
+        head = size = 0;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        modCount++;
+        shiftTailOverGap(elementData, fromIndex, toIndex);
+    }
+
+    /** Erases the gap from lo to hi, by sliding down following elements. */
+    private void shiftTailOverGap(Object[] es, int lo, int hi) {
+        final int length = es.length;
+        final int h = head;
+        final int s = size;
+        for (int i = hi; i < s; i++) {
+            es[physicalIndex(h, lo + i - hi, length)] = es[physicalIndex(h, i, length)];
+        }
+        for (int i = s - (hi - lo); i < s; i++) {
+            es[physicalIndex(h, i, length)] = null;
+        }
+        size = s - (hi - lo);
+    }
+
+    private void rangeCheckForAdd(int index) {
+        if (index > size || index < 0) {
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return unwrap(size);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        final Object[] es = unwrap(size);
+        if (a.length < size) {
+            return (T[]) Arrays.copyOf(es, size, a.getClass());
+        }
+        System.arraycopy(es, 0, a, 0, size);
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Returns a shallow copy of this list, the copy is not wrapped around.
+     *
+     * @return a clone of this list
+     */
+    @Override
+    public Object clone() {
+        try {
+            @SuppressWarnings("unchecked")
+            XCircularArrayList<E> v = (XCircularArrayList<E>) super.clone();
+            v.elementData = unwrap(size);
+            v.head = 0;
+            v.modCount = 0;
+            return v;
+        } catch (CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final int h = head;
+        final int size = this.size;
+        final int length = es.length;
+        for (int i = 0; modCount == expectedModCount && i < size; i++) {
+            action.accept(elementAt(es, physicalIndex(h, i, length)));
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    // A tiny bit set implementation
+
+    private static long[] nBits(int n) {
+        return new long[((n - 1) >> 6) + 1];
+    }
+    private static void setBit(long[] bits, int i) {
+        bits[i >> 6] |= 1L << i;
+    }
+    private static boolean isClear(long[] bits, int i) {
+        return (bits[i >> 6] & (1L << i)) == 0;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final int h = head;
+        final int end = size;
+        final int length = es.length;
+        int i = 0;
+        // Optimize for initial run of survivors
+        for (; i < end && !filter.test(elementAt(es, physicalIndex(h, i, length))); i++) {
+            ;
+        }
+        if (i == end) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return false;
+        }
+        // traverse once to find elements to delete, a second pass to
+        // physically expunge, like XArrayList.removeIf
+        final int beg = i;
+        final long[] deathRow = nBits(end - beg);
+        deathRow[0] = 1L;   // set bit 0
+        for (i = beg + 1; i < end; i++) {
+            if (filter.test(elementAt(es, physicalIndex(h, i, length)))) {
+                setBit(deathRow, i - beg);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+        int w = beg;
+        for (i = beg; i < end; i++) {
+            if (isClear(deathRow, i - beg)) {
+                es[physicalIndex(h, w++, length)] = es[physicalIndex(h, i, length)];
+            }
+        }
+        shiftTailOverGap(es, w, end);
+        return true;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator) {
+        Objects.requireNonNull(operator);
+        final int expectedModCount = modCount;
+        final Object[] es = elementData;
+        final int h = head;
+        final int length = es.length;
+        for (int i = 0, end = size; modCount == expectedModCount && i < end; i++) {
+            final int p = physicalIndex(h, i, length);
+            es[p] = operator.apply(elementAt(es, p));
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super E> c) {
+        final int expectedModCount = modCount;
+        if (size > elementData.length - head) {
+            // the elements wrap around, unwrap them in place of the array
+            elementData = unwrap(elementData.length);
+            head = 0;
+        }
+        Arrays.sort((E[]) elementData, head, head + size, c);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
+    /**
+     * Return a new cursor for this list.
+     *
+     * <p>The cursor supports {@link InlineCursor#remove() remove},
+     * {@link InlineCursor#set(Object) set} and
+     * {@link InlineCursor#retreat() retreat}, removing an element
+     * through the cursor shifts the shorter side of the list.
+     *
+     * <p>Unlike the cursor of {@link XArrayList}, the removals are not
+     * deferred, {@code remove} calls {@link #remove(int)} which moves up
+     * to {@code size() / 2} elements, so removing {@code k} elements of
+     * a list of {@code n} elements through a cursor costs {@code O(n * k)};
+     * use {@link #removeIf(Predicate) removeIf} to
+     * filter a large list.
+     *
+     * @return a cursor
+     */
+    public InlineCursor<E> cursor() {
+        return new CircularCursor<E>(this, 0, false);
+    }
+
+    /**
+     * Create an inline cursor for this XCircularArrayList.
+     */
+    private static inline class CircularCursor<E> implements InlineCursor<E> {
+        private XCircularArrayList<E> list;
+        private int index;          // index of the element, -1 or size if before the first or after the last
+        private int head;
+        private int size;
+        private Object[] elementData;
+        private int expectedModCount;
+        private boolean removed;    // true if the element at index has been removed by this cursor
+
+        private CircularCursor(XCircularArrayList<E> list, int index, boolean removed) {
+            this.list = list;
+            this.index = index;
+            this.head = list.head;
+            this.size = list.size;
+            this.elementData = list.elementData;
+            this.expectedModCount = list.modCount;
+            this.removed = removed;
+        }
+
+        private void checkForComodification() {
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean exists() {
+            checkForComodification();
+            return !removed && index >= 0 && index < size;
+        }
+
+        @Override
+        public E get() {
+            checkForComodification();
+            if (removed || index < 0 || index >= size) {
+                throw new NoSuchElementException();
+            }
+            return elementAt(elementData, physicalIndex(head, index, elementData.length));
+        }
+
+        @Override
+        public CircularCursor<E> advance() {
+            checkForComodification();
+            // after a removal, the next element has slid at index
+            int i = removed ? index : Math.max(index + 1, 0);
+            return new CircularCursor<E>(list, Math.min(i, size), false);
+        }
+
+        @Override
+        public CircularCursor<E> retreat() {
+            checkForComodification();
+            return new CircularCursor<E>(list, Math.max(Math.min(index - 1, size - 1), -1), false);
+        }
+
+        @Override
+        public CircularCursor<E> remove() {
+            checkForComodification();
+            if (removed || index < 0 || index >= size) {
+                throw new NoSuchElementException();
+            }
+            list.remove(index);
+            return new CircularCursor<E>(list, index, true);
+        }
+
+        @Override
+        public void set(E element) {
+            checkForComodification();
+            if (removed || index < 0 || index >= size) {
+                throw new NoSuchElementException();
+            }
+            elementData[physicalIndex(head, index, elementData.length)] = element;
+        }
+    }
+
+    /**
+     * Creates a <em>fail-fast</em> {@link Spliterator} over the elements in
+     * this list that follows the elements around the end of the array.
+     *
+     * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+     * {@link Spliterator#SUBSIZED}, and {@link Spliterator#ORDERED}.
+     *
+     * @return a {@code Spliterator} over the elements in this list
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new CircularSpliterator<E>(this, 0, size, modCount);
+    }
+
+    /** Index-based split-by-two Spliterator, indexes are list indexes */
+    private static final class CircularSpliterator<E> implements Spliterator<E> {
+        private final XCircularArrayList<E> list;
+        private int index;                   // current index, modified on advance/split
+        private final int fence;             // one past last index
+        private final int expectedModCount;
+
+        CircularSpliterator(XCircularArrayList<E> list, int origin, int fence, int expectedModCount) {
+            this.list = list;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        public CircularSpliterator<E> trySplit() {
+            int lo = index, mid = (lo + fence) >>> 1;
+            return (lo >= mid) ? null : // divide range in half unless too small
+                new CircularSpliterator<E>(list, lo, index = mid, expectedModCount);
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            int i = index;
+            if (i < fence) {
+                index = i + 1;
+                final Object[] es = list.elementData;
+                action.accept(elementAt(es, physicalIndex(list.head, i, es.length)));
+                if (list.modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            final Object[] es = list.elementData;
+            final int length = es.length;
+            final int lo = index, hi = fence;
+            index = hi;
+            if (hi > length) {
+                throw new ConcurrentModificationException();
+            }
+            // at most two contiguous segments: before and after the wrap
+            final int from = physicalIndex(list.head, lo, length);
+            final int firstPart = Math.min(hi - lo, length - from);
+            for (int i = from, end = from + firstPart; i < end; i++) {
+                action.accept(elementAt(es, i));
+            }
+            for (int i = 0, end = hi - lo - firstPart; i < end; i++) {
+                action.accept(elementAt(es, i));
+            }
+            if (list.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Calculates a new array length given an array's current length, a preferred
+     * growth value, and a minimum growth value, see XArrayList.newLength.
+     */
+    private static int newLength(int oldLength, int minGrowth, int prefGrowth) {
+        // assert oldLength >= 0
+        // assert minGrowth > 0
+
+        int newLength = Math.max(minGrowth, prefGrowth) + oldLength;
+        if (newLength - MAX_ARRAY_LENGTH <= 0) {
+            return newLength;
+        }
+        return hugeLength(oldLength, minGrowth);
+    }
+
+    private static int hugeLength(int oldLength, int minGrowth) {
+        int minLength = oldLength + minGrowth;
+        if (minLength < 0) { // overflow
+            throw new OutOfMemoryError("Required array length too large");
+        }
+        if (minLength <= MAX_ARRAY_LENGTH) {
+            return MAX_ARRAY_LENGTH;
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+}
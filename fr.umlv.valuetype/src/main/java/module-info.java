@@ -1,6 +1,7 @@
 module fr.umlv.valuetype { 
   requires java.desktop; // for mandelbrot
   requires jdk.unsupported; // for FourElementsArray 
+  requires jdk.jfr;         // for XArrayList events
   
   exports fr.umlv.valuetype;
 }
@@ -169,6 +169,83 @@ class CompactListTests {
 		}));
 	}
 	
+	@Test
+	void testAppendALot() {
+		var compact = CompactList.<Integer>of();
+		for(var i = 0; i < 10_000; i++) {
+			compact = compact.append(i);
+		}
+		assertEquals(10_000, compact.size());
+		var list = new ArrayList<Integer>();
+		for(var element: (Iterable<Integer>) compact) {
+			list.add(element);
+		}
+		assertEquals(range(0, 10_000).boxed().collect(toList()), list);
+	}
+	
+	@Test
+	void testAppendToOlderVersion() {
+		var compact = CompactList.of(0, 1, 2, 3, 4);
+		var version1 = compact.append(5);
+		var version2 = compact.append(6);   // can not append in place
+		var version3 = version1.append(7);
+		assertAll(
+				() -> assertEquals("[0, 1, 2, 3, 4]", compact.toString()),
+				() -> assertEquals("[0, 1, 2, 3, 4, 5]", version1.toString()),
+				() -> assertEquals("[0, 1, 2, 3, 4, 6]", version2.toString()),
+				() -> assertEquals("[0, 1, 2, 3, 4, 5, 7]", version3.toString()),
+				() -> assertEquals("[0, 1, 2, 3, 4, 6, 8]", version2.append(8).toString())
+				);
+	}
+	
+	@Test
+	void testForEach() {
+		var lists = Stream.of(
+				List.of(), List.of("foo"), List.of("foo", "bar"),
+				List.of("foo", "bar", "baz"), List.of("foo", "bar", "baz", "wizz"),
+				List.of("foo", "bar", "baz", "wizz", "buzz")
+				);
+		assertAll(lists.map(list -> () -> {
+			var compact = CompactList.of(list.toArray(String[]::new));
+			var arrayList = new ArrayList<String>();
+			compact.forEach(arrayList::add);
+			assertEquals(list, arrayList);
+		}));
+	}
+	
+	@Test
+	void testStream() {
+		var compacts = range(0, 10).mapToObj(i -> {
+			var compact = CompactList.<Integer>of();
+			for(var j = 0; j < i; j++) {
+				compact = compact.append(j);
+			}
+			return compact;
+		}).collect(toList());
+		assertAll(range(0, compacts.size()).mapToObj(i -> () -> {
+			var compact = compacts.get(i);
+			assertEquals(range(0, i).boxed().collect(toList()), compact.stream().collect(toList()));
+		}));
+	}
+	
+	@Test
+	void testSpliteratorTryAdvance() {
+		var lists = Stream.of(
+				List.of(), List.of("foo"), List.of("foo", "bar"),
+				List.of("foo", "bar", "baz"), List.of("foo", "bar", "baz", "wizz"),
+				List.of("foo", "bar", "baz", "wizz", "buzz")
+				);
+		assertAll(lists.map(list -> () -> {
+			var spliterator = CompactList.of(list.toArray(String[]::new)).spliterator();
+			assertEquals(list.size(), spliterator.estimateSize());
+			var arrayList = new ArrayList<String>();
+			if (spliterator.tryAdvance(arrayList::add)) {
+				spliterator.forEachRemaining(arrayList::add);
+			}
+			assertEquals(list, arrayList);
+		}));
+	}
+	
 	@Test
 	void testToArray() {
 		var lists = Stream.of(
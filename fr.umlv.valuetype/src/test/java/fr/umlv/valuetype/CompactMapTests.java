@@ -0,0 +1,148 @@
+package fr.umlv.valuetype;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("static-method")
+class CompactMapTests {
+  @Test
+  void testEmpty() {
+    var map = CompactMap.<String, Integer>of();
+    assertAll(
+      () -> assertEquals(0, map.size()),
+      () -> assertTrue(map.isEmpty()),
+      () -> assertNull(map.get("foo")),
+      () -> assertFalse(map.containsKey("foo")),
+      () -> assertEquals(Map.of(), map),
+      () -> assertEquals("{}", map.toString())
+    );
+  }
+  @Test
+  void testSimpleWithGet() {
+    var map = CompactMap.of("one", 1);
+    assertAll(
+      () -> assertEquals(1, map.size()),
+      () -> assertEquals(1, (int)map.get("one")),
+      () -> assertEquals(1, (int)map.get(new String("one"))),
+      () -> assertNull(map.get("two")),
+      () -> assertTrue(map.containsValue(1)),
+      () -> assertFalse(map.containsValue(2))
+    );
+  }
+  @Test
+  void testWithIsPersistent() {
+    var map1 = CompactMap.of("one", 1);
+    var map2 = map1.with("two", 2);
+    var map3 = map2.with("one", 11);
+    assertAll(
+      () -> assertEquals(Map.of("one", 1), map1),
+      () -> assertEquals(Map.of("one", 1, "two", 2), map2),
+      () -> assertEquals(Map.of("one", 11, "two", 2), map3)
+    );
+  }
+  @Test
+  void testWithALot() {
+    var map = CompactMap.<Integer, String>of();
+    var expected = new HashMap<Integer, String>();
+    for(var i = 0; i < 1_000; i++) {
+      map = map.with(i, "" + i);
+      expected.put(i, "" + i);
+      assertEquals(expected.size(), map.size());
+    }
+    for(var i = 0; i < 1_000; i += 3) {
+      map = map.with(i, "x" + i);
+      expected.put(i, "x" + i);
+    }
+    var result = map;
+    assertAll(
+      () -> assertEquals(expected, result),
+      () -> assertEquals(result, expected),
+      () -> assertEquals(expected.hashCode(), result.hashCode()),
+      () -> assertEquals(expected.keySet(), result.keySet()),
+      () -> assertEquals(expected.entrySet(), result.entrySet()),
+      () -> assertNull(result.get(1_000))
+    );
+  }
+  @Test
+  void testSpilledIsPersistent() {
+    var builder = CompactMap.<Integer, Integer>of();
+    for(var i = 0; i < 6; i++) {
+      builder = builder.with(i, i);
+    }
+    var map = builder;
+    var map2 = map.with(6, 6);
+    var map3 = map.with(0, 42);
+    assertAll(
+      () -> assertEquals(Map.of(0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5), map),
+      () -> assertEquals(Map.of(0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6), map2),
+      () -> assertEquals(Map.of(0, 42, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5), map3)
+    );
+  }
+  @Test
+  void testCollidingHashes() {
+    // "Aa" and "BB" have the same hash code
+    var map = CompactMap.of("Aa", 1).with("BB", 2);
+    for(var i = 0; i < 5; i++) {
+      map = map.with("AaAa" + i, i).with("BBBB" + i, -i);
+    }
+    var result = map;
+    assertAll(
+      () -> assertEquals(12, result.size()),
+      () -> assertEquals(1, (int)result.get("Aa")),
+      () -> assertEquals(2, (int)result.get("BB")),
+      () -> assertEquals(3, (int)result.get("AaAa3")),
+      () -> assertEquals(-3, (int)result.get("BBBB3"))
+    );
+  }
+  @Test
+  void testForEach() {
+    for(var size = 0; size < 10; size++) {
+      var map = CompactMap.<Integer, Integer>of();
+      for(var i = 0; i < size; i++) {
+        map = map.with(i, i * 2);
+      }
+      var copy = new HashMap<Integer, Integer>();
+      map.forEach(copy::put);
+      assertEquals(map, copy);
+    }
+  }
+  @Test
+  void testViews() {
+    var map = CompactMap.of("foo", 1).with("bar", 2).with("baz", 3);
+    assertAll(
+      () -> assertEquals(Set.of("foo", "bar", "baz"), map.keySet()),
+      () -> assertEquals(6, map.values().stream().mapToInt(v -> v).sum()),
+      () -> assertTrue(map.entrySet().contains(Map.entry("bar", 2))),
+      () -> assertFalse(map.entrySet().contains(Map.entry("bar", 3)))
+    );
+  }
+  @Test
+  void testNulls() {
+    var map = CompactMap.of("foo", 1);
+    assertAll(
+      () -> assertThrows(NullPointerException.class, () -> map.with(null, 1)),
+      () -> assertThrows(NullPointerException.class, () -> map.with("bar", null)),
+      () -> assertThrows(NullPointerException.class, () -> map.get(null))
+    );
+  }
+  @Test
+  void testImmutable() {
+    var map = CompactMap.of("foo", 1);
+    assertAll(
+      () -> assertThrows(UnsupportedOperationException.class, () -> map.put("bar", 2)),
+      () -> assertThrows(UnsupportedOperationException.class, () -> map.remove("foo")),
+      () -> assertThrows(UnsupportedOperationException.class, () -> map.clear()),
+      () -> assertThrows(UnsupportedOperationException.class, () -> map.keySet().remove("foo"))
+    );
+  }
+}
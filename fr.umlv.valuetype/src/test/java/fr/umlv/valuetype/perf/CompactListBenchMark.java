@@ -0,0 +1,69 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.CompactList;
+import fr.umlv.valuetype.persistent.PersistentList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)  // PersistentList.append must be called by the thread that created the list
+public class CompactListBenchMark {
+  private static final Integer ELEMENT = 42;
+
+  @Param({"1", "4", "5", "16", "100", "1000", "10000"})
+  public int size;
+
+  @Benchmark
+  public int compactlist_append() {
+    var list = CompactList.<Integer>of();
+    for(var i = 0; i < size; i++) {
+      list = list.append(ELEMENT);
+    }
+    return list.size();
+  }
+
+  @Benchmark
+  public int persistentlist_append() {
+    var list = PersistentList.<Integer>of();
+    for(var i = 0; i < size; i++) {
+      list = list.append(ELEMENT);
+    }
+    return list.size();
+  }
+
+  @Benchmark
+  public int arraylist_add() {
+    var list = new ArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(ELEMENT);
+    }
+    return list.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CompactListBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
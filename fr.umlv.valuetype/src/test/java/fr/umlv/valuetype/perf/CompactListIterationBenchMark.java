@@ -0,0 +1,84 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.CompactList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CompactListIterationBenchMark {
+  private static final int ROWS = 1_000_000;
+
+  // per row tag lists, mostly of 0 to 4 elements
+  private ArrayList<CompactList.ref<Integer>> rows;
+
+  @Setup
+  public void setup() {
+    var random = new Random(0);
+    rows = new ArrayList<>(ROWS);
+    for(var i = 0; i < ROWS; i++) {
+      var size = random.nextInt(20) == 0? 5 + random.nextInt(5): random.nextInt(5);
+      var list = CompactList.<Integer>of();
+      for(var j = 0; j < size; j++) {
+        list = list.append(j);
+      }
+      rows.add(list);
+    }
+  }
+
+  @Benchmark
+  public int compactlist_iterator() {
+    var sum = 0;
+    for(var row: rows) {
+      for(var element: (Iterable<Integer>) row) {
+        sum += element;
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int compactlist_forEach() {
+    var sum = new int[1];
+    for(var row: rows) {
+      row.forEach(element -> sum[0] += element);
+    }
+    return sum[0];
+  }
+
+  @Benchmark
+  public int compactlist_flatMap_stream() {
+    return rows.stream()
+        .flatMap(CompactList::stream)
+        .mapToInt(element -> element)
+        .sum();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CompactListIterationBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
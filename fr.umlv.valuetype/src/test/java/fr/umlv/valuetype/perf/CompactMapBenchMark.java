@@ -0,0 +1,130 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.CompactMap;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CompactMapBenchMark {
+  @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+  private int size;
+
+  // the keys are new strings so equals is not a reference check
+  private String[] keys;
+  private String[] lookups;
+
+  private CompactMap.ref<String, Integer> compactMap;
+  private HashMap<String, Integer> hashMap;
+  private Map<String, Integer> mapOf;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    keys = new String[size];
+    lookups = new String[size + 1];
+    var entries = (Map.Entry<String, Integer>[]) new Map.Entry<?, ?>[size];
+    var compactMap = CompactMap.<String, Integer>of();
+    hashMap = new HashMap<>();
+    for(var i = 0; i < size; i++) {
+      var key = keys[i] = "attribute" + i;
+      lookups[i] = new String(key);
+      entries[i] = Map.entry(key, i);
+      compactMap = compactMap.with(key, i);
+      hashMap.put(key, i);
+    }
+    lookups[size] = "missing";
+    this.compactMap = compactMap;
+    mapOf = Map.ofEntries(entries);
+  }
+
+  @Benchmark
+  public int compactmap_get() {
+    var map = compactMap;
+    var sum = 0;
+    for(var key: lookups) {
+      sum += map.getOrDefault(key, 0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int hashmap_get() {
+    var map = hashMap;
+    var sum = 0;
+    for(var key: lookups) {
+      sum += map.getOrDefault(key, 0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int mapof_get() {
+    var map = mapOf;
+    var sum = 0;
+    for(var key: lookups) {
+      sum += map.getOrDefault(key, 0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Map<String, Integer> compactmap_build() {
+    var map = CompactMap.<String, Integer>of();
+    var keys = this.keys;
+    for(var i = 0; i < keys.length; i++) {
+      map = map.with(keys[i], i);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public Map<String, Integer> hashmap_build() {
+    var map = new HashMap<String, Integer>();
+    var keys = this.keys;
+    for(var i = 0; i < keys.length; i++) {
+      map.put(keys[i], i);
+    }
+    return map;
+  }
+
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public Map<String, Integer> mapof_build() {
+    var keys = this.keys;
+    var entries = (Map.Entry<String, Integer>[]) new Map.Entry<?, ?>[keys.length];
+    for(var i = 0; i < keys.length; i++) {
+      entries[i] = Map.entry(keys[i], i);
+    }
+    return Map.ofEntries(entries);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CompactMapBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,79 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.persistent.PersistentList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PersistentListBulkBenchMark {
+  @Param({"1000", "1000000"})
+  public int size;
+
+  private Integer[] array;
+  private List<Integer> elements;
+
+  @Setup
+  public void setup() {
+    array = new Integer[size];
+    Arrays.setAll(array, i -> i);
+    elements = Arrays.asList(array);
+  }
+
+  @Benchmark
+  public int persistentlist_append_loop() {
+    var list = PersistentList.from(Integer[]::new);
+    for(var element: array) {
+      list = list.append(element);
+    }
+    return list.size();
+  }
+
+  @Benchmark
+  public int persistentlist_builder() {
+    var builder = PersistentList.builder(Integer[]::new);
+    for(var element: array) {
+      builder.add(element);
+    }
+    return builder.freeze().size();
+  }
+
+  @Benchmark
+  public int persistentlist_appendAll() {
+    return PersistentList.from(Integer[]::new).appendAll(elements).size();
+  }
+
+  @Benchmark
+  public int arrays_copyOf() {
+    return Arrays.copyOf(array, array.length).length;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentListBulkBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,69 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.persistent.PersistentList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PersistentListConcurrentAppendBenchMark {
+  private static final Integer ELEMENT = 42;
+
+  private final AtomicReference<PersistentList.ref<Integer>> head = new AtomicReference<>();
+  private List<Integer> synchronizedList;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    head.set(PersistentList.concurrent(Integer[]::new));
+    synchronizedList = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  @Benchmark
+  public int persistentlist_concurrent_append() {
+    PersistentList.ref<Integer> list;
+    PersistentList.ref<Integer> newList;
+    do {
+      list = head.get();
+      newList = list.append(ELEMENT);
+    } while(!head.compareAndSet(list, newList));
+    return newList.size();
+  }
+
+  @Benchmark
+  public boolean synchronized_arraylist_add() {
+    return synchronizedList.add(ELEMENT);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentListConcurrentAppendBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,88 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.persistent.PersistentList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PersistentListCursorBenchMark {
+  private static final int CHUNK_SIZE = 256;
+
+  @Param({"100000"})
+  public int size;
+
+  private PersistentList.ref<String> list;
+
+  @Setup
+  public void setup() {
+    list = PersistentList.generate(String[]::new, size, i -> "abc");
+  }
+
+  @Benchmark
+  public void cursor_loop(Blackhole blackhole) {
+    for(var cursor = list.cursor(); cursor.hasNext(); cursor = cursor.next()) {
+      blackhole.consume(cursor.element());
+    }
+  }
+
+  @Benchmark
+  public void cursor_forEachRemaining(Blackhole blackhole) {
+    list.cursor().forEachRemaining(blackhole::consume);
+  }
+
+  @Benchmark
+  public void cursor_nextChunk(Blackhole blackhole) {
+    for(var cursor = list.cursor(); cursor.hasNext();) {
+      var chunk = cursor.nextChunk(CHUNK_SIZE);
+      for(var i = 0; i < chunk.size(); i++) {
+        blackhole.consume(chunk.get(i));
+      }
+      cursor = cursor.skip(chunk.size());
+    }
+  }
+
+  @Benchmark
+  public void iterator_loop(Blackhole blackhole) {
+    for(var it = list.iterator(); it.hasNext();) {
+      blackhole.consume(it.next());
+    }
+  }
+
+  @Benchmark
+  public void cursor_iteratorRemaining(Blackhole blackhole) {
+    for(var it = list.cursor().iteratorRemaining(); it.hasNext();) {
+      blackhole.consume(it.next());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentListCursorBenchMark.class.getName())
+        .addProfiler(GCProfiler.class)  // gc.alloc.rate.norm shows the allocation per operation
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,120 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.persistent.PersistentList;
+import fr.umlv.valuetype.persistent.PersistentVector;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)  // PersistentList.append must be called by the thread that created the list
+public class PersistentListForkBenchMark {
+  private static final int FORKS = 1_000;
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private ArrayList<PersistentList.ref<Integer>> listVersions;
+  private ArrayList<PersistentVector.ref<Integer>> vectorVersions;
+  private int[] forks;
+
+  @Setup
+  public void setup() {
+    var list = PersistentList.<Integer>of();
+    var vector = PersistentVector.<Integer>of();
+    listVersions = new ArrayList<>(size + 1);
+    vectorVersions = new ArrayList<>(size + 1);
+    for(var i = 0; i < size; i++) {
+      listVersions.add(list);
+      vectorVersions.add(vector);
+      list = list.append(i);
+      vector = vector.append(i);
+    }
+    listVersions.add(list);
+    vectorVersions.add(vector);
+    forks = new Random(0).ints(FORKS, 0, size).toArray();  // never the newest version
+  }
+
+  @Benchmark
+  public int persistentlist_fork_append() {
+    var sum = 0;
+    for(var fork: forks) {
+      sum += listVersions.get(fork).append(fork).size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int persistentvector_fork_append() {
+    var sum = 0;
+    for(var fork: forks) {
+      sum += vectorVersions.get(fork).append(fork).size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int persistentvector_fork_update() {
+    var sum = 0;
+    for(var fork: forks) {
+      var version = vectorVersions.get(fork + 1);
+      sum += version.update(fork, -fork).size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int persistentvector_fork_removeLast() {
+    var sum = 0;
+    for(var fork: forks) {
+      sum += vectorVersions.get(fork + 1).removeLast().size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int persistentlist_linear_append() {
+    var list = PersistentList.<Integer>of();
+    for(var i = 0; i < size; i++) {
+      list = list.append(i);
+    }
+    return list.size();
+  }
+
+  @Benchmark
+  public int persistentvector_linear_append() {
+    var vector = PersistentVector.<Integer>of();
+    for(var i = 0; i < size; i++) {
+      vector = vector.append(i);
+    }
+    return vector.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentListForkBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,193 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.persistent.PersistentMap;
+import fr.umlv.valuetype.persistent.PersistentMap.GenEntry;
+import fr.umlv.valuetype.persistent.PersistentTrieMap;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)  // PersistentMap.append must be called by the thread that created the map
+public class PersistentMapBenchMark {
+  private static final int OPERATIONS = 1_000;
+
+  @__inline__
+  static final /*inline*/ class IntEntry implements GenEntry<Integer, Integer> {
+    private final Integer key;
+    private final Integer value;
+    private final int generation;
+
+    IntEntry(Integer key, Integer value, int generation) {
+      this.key = key;
+      this.value = value;
+      this.generation = generation;
+    }
+
+    @Override
+    public Integer key() {
+      return key;
+    }
+    @Override
+    public Integer value() {
+      return value;
+    }
+    @Override
+    public int generation() {
+      return generation;
+    }
+    @Override
+    public GenEntry<Integer, Integer> with(Integer key, Integer value, int generation) {
+      return new IntEntry(key, value, generation);
+    }
+    @Override
+    public Integer getKey() {
+      return key;
+    }
+    @Override
+    public Integer getValue() {
+      return value;
+    }
+  }
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  // percentage of updates in the mixed workload
+  @Param({"10", "50"})
+  public int updatePercent;
+
+  private PersistentMap.ref<Integer, Integer> genMap;
+  private PersistentTrieMap.ref<Integer, Integer> trieMap;
+  private Integer[] keys;
+  private boolean[] updates;
+  private LinkedHashMap<Integer, Integer> source;
+
+  @Setup
+  public void setup() {
+    var genMap = PersistentMap.<Integer, Integer>fromArrayCreator(IntEntry[]::new);
+    var trieMap = PersistentTrieMap.<Integer, Integer>empty();
+    for(var i = 0; i < size; i++) {
+      genMap = genMap.append(i, i);
+      trieMap = trieMap.append(i, i);
+    }
+    this.genMap = genMap;
+    this.trieMap = trieMap;
+    source = new LinkedHashMap<>();
+    for(var i = 0; i < size; i++) {
+      source.put(i, i);
+    }
+    var random = new Random(0);
+    keys = random.ints(OPERATIONS, 0, size).boxed().toArray(Integer[]::new);
+    updates = new boolean[OPERATIONS];
+    for(var i = 0; i < OPERATIONS; i++) {
+      updates[i] = random.nextInt(100) < updatePercent;
+    }
+  }
+
+  @Benchmark
+  public int genmap_lookup() {
+    var sum = 0;
+    for(var key: keys) {
+      sum += genMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int triemap_lookup() {
+    var sum = 0;
+    for(var key: keys) {
+      sum += trieMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int genmap_mixed() {
+    var map = genMap;
+    var sum = 0;
+    for(var i = 0; i < OPERATIONS; i++) {
+      var key = keys[i];
+      if (updates[i]) {
+        map = map.append(key, -key);
+      } else {
+        sum += map.get(key);
+      }
+    }
+    return sum + map.size();
+  }
+
+  @Benchmark
+  public int triemap_mixed() {
+    var map = trieMap;
+    var sum = 0;
+    for(var i = 0; i < OPERATIONS; i++) {
+      var key = keys[i];
+      if (updates[i]) {
+        map = map.append(key, -key);
+      } else {
+        sum += map.get(key);
+      }
+    }
+    return sum + map.size();
+  }
+
+  @Benchmark
+  public int triemap_without() {
+    var map = trieMap;
+    for(var key: keys) {
+      map = map.without(key);
+    }
+    return map.size();
+  }
+
+  @Benchmark
+  public int genmap_load_append() {
+    var map = PersistentMap.<Integer, Integer>fromArrayCreator(IntEntry[]::new);
+    for(var entry: source.entrySet()) {
+      map = map.append(entry.getKey(), entry.getValue());
+    }
+    return map.size();
+  }
+
+  @Benchmark
+  public int genmap_load_appendAll() {
+    return PersistentMap.<Integer, Integer>fromArrayCreator(IntEntry[]::new).appendAll(source).size();
+  }
+
+  @Benchmark
+  public int genmap_load_collector() {
+    return source.keySet().stream()
+        .collect(PersistentMap.toPersistentMap(IntEntry[]::new, key -> key, key -> key))
+        .size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentMapBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,126 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.perf.PersistentMapBenchMark.IntEntry;
+import fr.umlv.valuetype.persistent.PersistentMap;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)  // PersistentMap.get must be called by the thread that created the map
+public class PersistentMapProbingBenchMark {
+  private static final int OPERATIONS = 1_000;
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  // sequential: ids 0, 1, 2...
+  // stride: the 12 low bits are always zero, so a table masking the raw hashCode uses one slot in 4096
+  // random: uniformly distributed keys
+  @Param({"sequential", "stride", "random"})
+  public String distribution;
+
+  private PersistentMap.ref<Integer, Integer> map;
+  private HashMap<Integer, Integer> hashMap;
+  private Integer[] hits;
+  private Integer[] misses;
+
+  private IntUnaryOperator keyFunction() {
+    switch(distribution) {
+    case "sequential":
+      return i -> i;
+    case "stride":
+      return i -> i << 12;
+    case "random":
+      var random = new Random(0).ints().distinct().limit(size + OPERATIONS).toArray();
+      return i -> random[i];
+    default:
+      throw new AssertionError(distribution);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    var keyFunction = keyFunction();
+    var map = PersistentMap.<Integer, Integer>fromArrayCreator(IntEntry[]::new);
+    hashMap = new HashMap<>();
+    for(var i = 0; i < size; i++) {
+      var key = keyFunction.applyAsInt(i);
+      map = map.append(key, i);
+      hashMap.put(key, i);
+    }
+    this.map = map;
+    var random = new Random(0);
+    hits = random.ints(OPERATIONS, 0, size).mapToObj(keyFunction::applyAsInt).toArray(Integer[]::new);
+    misses = random.ints(OPERATIONS, size, size + OPERATIONS).mapToObj(keyFunction::applyAsInt).toArray(Integer[]::new);
+  }
+
+  @Benchmark
+  public int persistentmap_hit() {
+    var sum = 0;
+    for(var key: hits) {
+      sum += map.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int persistentmap_miss() {
+    var count = 0;
+    for(var key: misses) {
+      if (!map.containsKey(key)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int hashmap_hit() {
+    var sum = 0;
+    for(var key: hits) {
+      sum += hashMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int hashmap_miss() {
+    var count = 0;
+    for(var key: misses) {
+      if (!hashMap.containsKey(key)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(PersistentMapProbingBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
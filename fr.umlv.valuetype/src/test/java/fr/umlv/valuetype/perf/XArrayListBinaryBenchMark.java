@@ -0,0 +1,126 @@
+package fr.umlv.valuetype.perf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.Point;
+import fr.umlv.valuetype.xlist.XArrayList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class XArrayListBinaryBenchMark {
+  @Param({"100000", "10000000"})
+  public int size;
+
+  private XArrayList<Point.ref> list;
+  private Path channelFile;
+  private Path streamFile;
+
+  @Setup
+  public void setup() throws IOException {
+    list = new XArrayList<>(Point.class, size);
+    var random = new Random(0);
+    for(var i = 0; i < size; i++) {
+      list.add(new Point(random.nextInt(), random.nextInt()));
+    }
+    channelFile = Files.createTempFile("xarraylist", ".bin");
+    streamFile = Files.createTempFile("xarraylist", ".data");
+    xarraylist_writeTo();
+    datastream_write();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(channelFile);
+    Files.delete(streamFile);
+  }
+
+  @Benchmark
+  public long xarraylist_writeTo() throws IOException {
+    try(var channel = FileChannel.open(channelFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      list.writeTo(channel);
+      return channel.position();
+    }
+  }
+
+  @Benchmark
+  public int datastream_write() throws IOException {
+    try(var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(streamFile)))) {
+      output.writeInt(list.size());
+      list.forEach(point -> {
+        try {
+          output.writeInt(point.x);
+          output.writeInt(point.y);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      return output.size();
+    }
+  }
+
+  @Benchmark
+  public int xarraylist_readFrom_mapped() throws IOException {
+    try(var channel = FileChannel.open(channelFile)) {
+      return XArrayList.readFrom(Point.class, channel).size();
+    }
+  }
+
+  @Benchmark
+  public int xarraylist_readFrom_stream() throws IOException {
+    try(var channel = Channels.newChannel(Files.newInputStream(channelFile))) {
+      return XArrayList.readFrom(Point.class, channel).size();
+    }
+  }
+
+  @Benchmark
+  public int datastream_read() throws IOException {
+    try(var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(streamFile)))) {
+      var size = input.readInt();
+      var list = new XArrayList<Point.ref>(Point.class, size);
+      for(var i = 0; i < size; i++) {
+        list.add(new Point(input.readInt(), input.readInt()));
+      }
+      return list.size();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(XArrayListBinaryBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -4,8 +4,13 @@
 package fr.umlv.valuetype.perf;
 
 import fr.umlv.valuetype.xlist.InlineCursor;
+import fr.umlv.valuetype.xlist.IntXArrayList;
+import fr.umlv.valuetype.xlist.LongXArrayList;
 import fr.umlv.valuetype.xlist.XArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
@@ -28,11 +33,24 @@ public class XArrayListCursorBenchMark {
 
     private static XArrayList<String> list;
 
+    private static XArrayList<Integer> boxedIntList;
+    private static IntXArrayList intList;
+    private static XArrayList<Long> boxedLongList;
+    private static LongXArrayList longList;
+
     @Setup
     public void setup() {
         list = new XArrayList<>();
+        boxedIntList = new XArrayList<>();
+        intList = new IntXArrayList();
+        boxedLongList = new XArrayList<>();
+        longList = new LongXArrayList();
         for (var i = 0; i < size; i++) {
             list.add(constantString);
+            boxedIntList.add(i);
+            intList.add(i);
+            boxedLongList.add((long) i);
+            longList.add(i);
         }
     }
 
@@ -77,6 +95,121 @@ public class XArrayListCursorBenchMark {
         }
     }
 
+    @Benchmark
+    public int streamViaSpliterator() {
+        return list.stream()
+            .filter(s -> !s.isEmpty())
+            .mapToInt(String::length)
+            .sum();
+    }
+
+    @Benchmark
+    public int streamViaCursor() {
+        return list.cursorStream()
+            .filter(s -> !s.isEmpty())
+            .mapToInt(String::length)
+            .sum();
+    }
+
+    @Benchmark
+    public int streamViaIterator() {
+        return StreamSupport.stream(
+                Spliterators.spliterator(list.iterator(), list.size(), Spliterator.ORDERED), false)
+            .filter(s -> !s.isEmpty())
+            .mapToInt(String::length)
+            .sum();
+    }
+
+    @Benchmark
+    public int parallelStreamViaSpliterator() {
+        return list.parallelStream()
+            .filter(s -> !s.isEmpty())
+            .mapToInt(String::length)
+            .sum();
+    }
+
+    @Benchmark
+    public int parallelStreamViaCursor() {
+        return list.parallelCursorStream()
+            .filter(s -> !s.isEmpty())
+            .mapToInt(String::length)
+            .sum();
+    }
+
+    @Benchmark
+    public int sumBoxedIntViaCursor() {
+        var sum = 0;
+        for (var cur = boxedIntList.cursor(); cur.exists(); cur = cur.advance()) {
+            sum += cur.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sumIntViaCursor() {
+        var sum = 0;
+        for (var cur = intList.cursor(); cur.exists(); cur = cur.advance()) {
+            sum += cur.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sumBoxedIntViaArray() {
+        var sum = 0;
+        for (var i = 0; i < boxedIntList.size(); i++) {
+            sum += boxedIntList.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sumIntViaArray() {
+        var sum = 0;
+        for (var i = 0; i < intList.size(); i++) {
+            sum += intList.get(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int sumBoxedIntViaStream() {
+        return boxedIntList.stream().mapToInt(x -> x).sum();
+    }
+
+    @Benchmark
+    public int sumIntViaStream() {
+        return intList.stream().sum();
+    }
+
+    @Benchmark
+    public long sumBoxedLongViaCursor() {
+        var sum = 0L;
+        for (var cur = boxedLongList.cursor(); cur.exists(); cur = cur.advance()) {
+            sum += cur.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumLongViaCursor() {
+        var sum = 0L;
+        for (var cur = longList.cursor(); cur.exists(); cur = cur.advance()) {
+            sum += cur.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumBoxedLongViaStream() {
+        return boxedLongList.stream().mapToLong(x -> x).sum();
+    }
+
+    @Benchmark
+    public long sumLongViaStream() {
+        return longList.stream().sum();
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
             .include(XArrayListCursorBenchMark.class.getName())
@@ -0,0 +1,101 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.xlist.XArrayList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class XArrayListParallelBenchMark {
+  @Param({"1000", "100000", "10000000"})
+  public int size;
+
+  private XArrayList<Integer> list;
+
+  @Setup
+  public void setup() {
+    list = new XArrayList<>(size);
+    new Random(0).ints(size).forEach(list::add);
+  }
+
+  // all benchmarks work on a copy so the baseline is the cost of the copy
+  @SuppressWarnings("unchecked")
+  private XArrayList<Integer> copy() {
+    return (XArrayList<Integer>) list.clone();
+  }
+
+  @Benchmark
+  public int xarraylist_copy() {
+    return copy().size();
+  }
+
+  @Benchmark
+  public int xarraylist_sort() {
+    var copy = copy();
+    copy.sort(null);
+    return copy.size();
+  }
+
+  @Benchmark
+  public int xarraylist_parallelSort() {
+    var copy = copy();
+    copy.parallelSort(null);
+    return copy.size();
+  }
+
+  @Benchmark
+  public int xarraylist_removeIf() {
+    var copy = copy();
+    copy.removeIf(v -> (v & 1) == 0);
+    return copy.size();
+  }
+
+  @Benchmark
+  public int xarraylist_parallelRemoveIf() {
+    var copy = copy();
+    copy.parallelRemoveIf(v -> (v & 1) == 0);
+    return copy.size();
+  }
+
+  @Benchmark
+  public int xarraylist_replaceAll() {
+    var copy = copy();
+    copy.replaceAll(v -> v >>> 1);
+    return copy.size();
+  }
+
+  @Benchmark
+  public int xarraylist_parallelReplaceAll() {
+    var copy = copy();
+    copy.parallelReplaceAll(v -> v >>> 1);
+    return copy.size();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(XArrayListParallelBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,89 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.Point;
+import fr.umlv.valuetype.xlist.XArrayList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class XArrayListPointBenchMark {
+  @Param({"1000", "100000"})
+  public int size;
+
+  private XArrayList<Point.ref> flattened;
+  private XArrayList<Point.ref> boxed;
+
+  @Setup
+  public void setup() {
+    flattened = new XArrayList<>(Point.class, size);
+    boxed = new XArrayList<>(size);
+    for(var i = 0; i < size; i++) {
+      flattened.add(new Point(i, -i));
+      boxed.add(new Point(i, -i));
+    }
+  }
+
+  private static int sumX(XArrayList<Point.ref> list) {
+    var sum = 0;
+    for(var i = 0; i < list.size(); i++) {
+      sum += list.get(i).x;
+    }
+    return sum;
+  }
+
+  private static int sumXCursor(XArrayList<Point.ref> list) {
+    var sum = 0;
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      sum += cursor.get().x;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int flattened_sum_x() {
+    return sumX(flattened);
+  }
+
+  @Benchmark
+  public int boxed_sum_x() {
+    return sumX(boxed);
+  }
+
+  @Benchmark
+  public int flattened_cursor_sum_x() {
+    return sumXCursor(flattened);
+  }
+
+  @Benchmark
+  public int boxed_cursor_sum_x() {
+    return sumXCursor(boxed);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(XArrayListPointBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
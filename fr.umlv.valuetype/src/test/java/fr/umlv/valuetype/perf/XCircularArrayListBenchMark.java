@@ -0,0 +1,124 @@
+package fr.umlv.valuetype.perf;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import fr.umlv.valuetype.xlist.XArrayList;
+import fr.umlv.valuetype.xlist.XCircularArrayList;
+
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 3, jvmArgsAppend = {"-XX:+EnableValhalla" })
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class XCircularArrayListBenchMark {
+  private static final Integer ELEMENT = 42;
+
+  @Param({"100", "10000"})
+  public int size;
+
+  // fill the queue then drain it from the head, like a FIFO work queue
+
+  @Benchmark
+  public int xarraylist_fifo() {
+    var list = new XArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(ELEMENT);
+    }
+    var sum = 0;
+    while(!list.isEmpty()) {
+      sum += list.remove(0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int xcirculararraylist_fifo() {
+    var list = new XCircularArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(ELEMENT);
+    }
+    var sum = 0;
+    while(!list.isEmpty()) {
+      sum += list.remove(0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int arraydeque_fifo() {
+    var deque = new ArrayDeque<Integer>();
+    for(var i = 0; i < size; i++) {
+      deque.addLast(ELEMENT);
+    }
+    var sum = 0;
+    while(!deque.isEmpty()) {
+      sum += deque.removeFirst();
+    }
+    return sum;
+  }
+
+  // push and pop at the head, like a LIFO work queue
+
+  @Benchmark
+  public int xarraylist_lifo() {
+    var list = new XArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(0, ELEMENT);
+    }
+    var sum = 0;
+    while(!list.isEmpty()) {
+      sum += list.remove(0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int xcirculararraylist_lifo() {
+    var list = new XCircularArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(0, ELEMENT);
+    }
+    var sum = 0;
+    while(!list.isEmpty()) {
+      sum += list.remove(0);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int xcirculararraylist_get() {
+    var list = new XCircularArrayList<Integer>();
+    for(var i = 0; i < size; i++) {
+      list.add(0, ELEMENT);
+    }
+    var sum = 0;
+    for(var i = 0; i < list.size(); i++) {
+      sum += list.get(i);
+    }
+    return sum;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(XCircularArrayListBenchMark.class.getName())
+        .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,107 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveListTest.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"WeakerAccess", "ResultOfMethodCallIgnored", "MagicNumber"})
+public class PersistentDoubleListTest {
+  @Test
+  public void ofZero() {
+    var list = PersistentDoubleList.of();
+    assertAll(
+        () -> assertEquals(list, list),
+        () -> assertEquals(List.of().hashCode(), list.hashCode()),
+        () -> assertEquals("[]", list.toString()),
+        () -> assertEquals(0, list.size()),
+        () -> assertTrue(list.isEmpty()),
+        () -> assertEquals(0.0, list.sum()),
+        () -> assertEquals(OptionalDouble.empty(), list.min()),
+        () -> assertEquals(OptionalDouble.empty(), list.max()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(0)));
+  }
+
+  @Test
+  public void ofThree() {
+    var list = PersistentDoubleList.of(12, -89, 56);
+    var boxed = List.<Double>of(12.0, -89.0, 56.0);
+    assertAll(
+        () -> assertEquals(PersistentDoubleList.of(12, -89, 56), list),
+        () -> assertNotEquals(PersistentDoubleList.of(12, -89), list),
+        () -> assertEquals(boxed.hashCode(), list.hashCode()),
+        () -> assertEquals(boxed.toString(), list.toString()),
+        () -> assertEquals(3, list.size()),
+        () -> assertEquals(-89.0, list.get(1)),
+        () -> assertEquals(2, list.indexOf(56)),
+        () -> assertTrue(list.contains(12)),
+        () -> assertFalse(list.contains(42)),
+        () -> assertEquals(-21.0, list.sum()),
+        () -> assertEquals(OptionalDouble.of(-89), list.min()),
+        () -> assertEquals(OptionalDouble.of(56), list.max()),
+        () -> assertArrayEquals(new double[] { 12, -89, 56 }, list.toArray()),
+        () -> assertEquals(boxed, list.stream().boxed().collect(Collectors.toList())));
+  }
+
+  @Test
+  public void sumDoesNotOverflow() {
+    var list = PersistentDoubleList.of(Integer.MAX_VALUE, Integer.MAX_VALUE, 2);
+    assertEquals(4_294_967_296.0, list.sum());
+  }
+
+  @Test
+  public void forEach() {
+    var list = PersistentDoubleList.of(12, -89, 56);
+    var elements = new ArrayList<Double>();
+    list.forEach(elements::add);
+    assertEquals(List.<Double>of(12.0, -89.0, 56.0), elements);
+  }
+
+  @Test
+  public void append() {
+    var list = PersistentDoubleList.of();
+    for(var i = 0; i < 1_000; i++) {
+      list = list.append(i);
+    }
+    assertEquals(PersistentDoubleList.generate(1_000, i -> i), list);
+  }
+
+  @Test
+  public void appendToOldVersion() {
+    var list = PersistentDoubleList.of(1, 2);
+    var list2 = list.append(3);
+    var list3 = list.append(4);
+    assertAll(
+        () -> assertEquals(PersistentDoubleList.of(1, 2), list),
+        () -> assertEquals(PersistentDoubleList.of(1, 2, 3), list2),
+        () -> assertEquals(PersistentDoubleList.of(1, 2, 4), list3),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(2)));
+  }
+
+  @Test
+  public void ownership() throws InterruptedException {
+    var list = PersistentDoubleList.of(1, 2);
+    var thread = new Thread(() -> assertThrows(IllegalStateException.class, () -> list.append(3)));
+    thread.start();
+    thread.join();
+  }
+
+  @Test
+  public void cursor() {
+    var cursor = PersistentDoubleList.of(12, 89).cursor();
+    assertTrue(cursor.hasNext());
+    assertEquals(12.0, cursor.element());
+    cursor = cursor.next();
+    assertEquals(89.0, cursor.element());
+    cursor = cursor.next();
+    assertFalse(cursor.hasNext());
+    var _cursor = cursor;
+    assertThrows(NoSuchElementException.class, _cursor::element);
+    assertThrows(IllegalStateException.class, _cursor::next);
+  }
+}
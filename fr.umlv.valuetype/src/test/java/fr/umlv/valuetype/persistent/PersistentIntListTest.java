@@ -0,0 +1,101 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveListTest.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"WeakerAccess", "ResultOfMethodCallIgnored", "MagicNumber"})
+public class PersistentIntListTest {
+  @Test
+  public void ofZero() {
+    var list = PersistentIntList.of();
+    assertAll(
+        () -> assertEquals(list, list),
+        () -> assertEquals(List.of().hashCode(), list.hashCode()),
+        () -> assertEquals("[]", list.toString()),
+        () -> assertEquals(0, list.size()),
+        () -> assertTrue(list.isEmpty()),
+        () -> assertEquals(0, list.sum()),
+        () -> assertEquals(OptionalInt.empty(), list.min()),
+        () -> assertEquals(OptionalInt.empty(), list.max()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(0)));
+  }
+
+  @Test
+  public void ofThree() {
+    var list = PersistentIntList.of(12, -89, 56);
+    var boxed = List.<Integer>of(12, -89, 56);
+    assertAll(
+        () -> assertEquals(PersistentIntList.of(12, -89, 56), list),
+        () -> assertNotEquals(PersistentIntList.of(12, -89), list),
+        () -> assertEquals(boxed.hashCode(), list.hashCode()),
+        () -> assertEquals(boxed.toString(), list.toString()),
+        () -> assertEquals(3, list.size()),
+        () -> assertEquals(-89, list.get(1)),
+        () -> assertEquals(2, list.indexOf(56)),
+        () -> assertTrue(list.contains(12)),
+        () -> assertFalse(list.contains(42)),
+        () -> assertEquals(-21, list.sum()),
+        () -> assertEquals(OptionalInt.of(-89), list.min()),
+        () -> assertEquals(OptionalInt.of(56), list.max()),
+        () -> assertArrayEquals(new int[] { 12, -89, 56 }, list.toArray()),
+        () -> assertEquals(boxed, list.stream().boxed().collect(Collectors.toList())));
+  }
+
+  @Test
+  public void forEach() {
+    var list = PersistentIntList.of(12, -89, 56);
+    var elements = new ArrayList<Integer>();
+    list.forEach(elements::add);
+    assertEquals(List.<Integer>of(12, -89, 56), elements);
+  }
+
+  @Test
+  public void append() {
+    var list = PersistentIntList.of();
+    for(var i = 0; i < 1_000; i++) {
+      list = list.append(i);
+    }
+    assertEquals(PersistentIntList.generate(1_000, i -> i), list);
+  }
+
+  @Test
+  public void appendToOldVersion() {
+    var list = PersistentIntList.of(1, 2);
+    var list2 = list.append(3);
+    var list3 = list.append(4);
+    assertAll(
+        () -> assertEquals(PersistentIntList.of(1, 2), list),
+        () -> assertEquals(PersistentIntList.of(1, 2, 3), list2),
+        () -> assertEquals(PersistentIntList.of(1, 2, 4), list3),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(2)));
+  }
+
+  @Test
+  public void ownership() throws InterruptedException {
+    var list = PersistentIntList.of(1, 2);
+    var thread = new Thread(() -> assertThrows(IllegalStateException.class, () -> list.append(3)));
+    thread.start();
+    thread.join();
+  }
+
+  @Test
+  public void cursor() {
+    var cursor = PersistentIntList.of(12, 89).cursor();
+    assertTrue(cursor.hasNext());
+    assertEquals(12, cursor.element());
+    cursor = cursor.next();
+    assertEquals(89, cursor.element());
+    cursor = cursor.next();
+    assertFalse(cursor.hasNext());
+    var _cursor = cursor;
+    assertThrows(NoSuchElementException.class, _cursor::element);
+    assertThrows(IllegalStateException.class, _cursor::next);
+  }
+}
@@ -1,10 +1,17 @@
 package fr.umlv.valuetype.persistent;
 
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 @SuppressWarnings({"WeakerAccess", "ResultOfMethodCallIgnored"})
@@ -99,6 +106,174 @@ public class PersistentListTest {
     ).start();
   }
 
+  @Test
+  public void concurrentOwnership() throws InterruptedException {
+    var list = PersistentList.<String>concurrent(String[]::new).append("foo");
+    var result = new AtomicReference<PersistentList.ref<String>>();
+    var thread = new Thread(() -> result.set(list.append("bar")));
+    thread.start();
+    thread.join();
+    assertEquals(List.of("foo", "bar"), result.get());
+  }
+
+  @Test
+  public void concurrentAppendSameVersion() {
+    var list = PersistentList.<String>concurrent(String[]::new).append("foo");
+    var list1 = list.append("bar");
+    var list2 = list.append("baz");
+    assertAll(
+        () -> assertEquals(List.of("foo"), list),
+        () -> assertEquals(List.of("foo", "bar"), list1),
+        () -> assertEquals(List.of("foo", "baz"), list2));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void concurrentAppendManyThreads() throws InterruptedException {
+    var head = new AtomicReference<PersistentList.ref<Integer>>(PersistentList.concurrent(Integer[]::new));
+    var threads = IntStream.range(0, 4).mapToObj(id -> new Thread(() -> {
+      for(var i = 0; i < 10_000; i++) {
+        var value = id * 10_000 + i;
+        PersistentList.ref<Integer> list;
+        do {
+          list = head.get();
+        } while(!head.compareAndSet(list, list.append(value)));
+      }
+    })).collect(toList());
+    for(var thread: threads) {
+      thread.start();
+    }
+    for(var thread: threads) {
+      thread.join();
+    }
+    var list = head.get();
+    assertEquals(40_000, list.size());
+    assertEquals(40_000, new HashSet<>(list).size());
+  }
+
+  @Test
+  public void spliterator() {
+    var spliterator = PersistentList.of("foo", "bar", "baz").spliterator();
+    assertAll(
+        () -> assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED)),
+        () -> assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED)),
+        () -> assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED)),
+        () -> assertTrue(spliterator.hasCharacteristics(Spliterator.IMMUTABLE)),
+        () -> assertEquals(3, spliterator.getExactSizeIfKnown()));
+  }
+
+  @Test
+  public void spliteratorDoesNotSeeNextVersions() {
+    var list = PersistentList.<String>from(String[]::new).append("foo");
+    list.append("bar");
+    assertEquals(List.of("foo"), list.stream().collect(toList()));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void parallelOperations() {
+    var list = PersistentList.generate(Integer[]::new, 1_000_000, i -> i % 1_000);
+    assertAll(
+        () -> assertTrue(list.contains(999)),
+        () -> assertFalse(list.contains(1_000)),
+        () -> assertEquals(42, list.indexOf(42)),
+        () -> assertEquals(999_042, list.lastIndexOf(42)),
+        () -> assertEquals(499_500_000L, (long) list.reduce(0L, (acc, e) -> acc + e)),
+        () -> assertEquals(499_500_000, (int) list.parallelReduce(0, Integer::sum)),
+        () -> assertEquals(499_500_000L, list.parallelStream().mapToLong(e -> e).sum()));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void parallelLastIndexOf() {
+    // the size is not a multiple of the chunk size, the last chunk is partial
+    var list = PersistentList.generate(Integer[]::new, 100_003, i -> (i == 5 || i == 100_002) ? -1 : (i == 7) ? -2 : i);
+    assertAll(
+        () -> assertEquals(100_002, list.lastIndexOf(-1)),
+        () -> assertEquals(7, list.lastIndexOf(-2)),
+        () -> assertEquals(0, list.lastIndexOf(0)),
+        () -> assertEquals(100_001, list.lastIndexOf(100_001)),
+        () -> assertEquals(-1, list.lastIndexOf(-3)));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void parallelForEach() {
+    var list = PersistentList.generate(Integer[]::new, 100_000, i -> i);
+    var sum = new LongAdder();
+    list.parallelForEach(sum::add);
+    assertEquals(4_999_950_000L, sum.sum());
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void builder() {
+    var builder = PersistentList.builder(Integer[]::new);
+    for(var i = 0; i < 1_000; i++) {
+      builder.add(i);
+    }
+    builder.addAll(List.of(1_000, 1_001));
+    var list = builder.freeze();
+    assertAll(
+        () -> assertEquals(1_002, list.size()),
+        () -> assertEquals(IntStream.range(0, 1_002).boxed().collect(toList()), list),
+        () -> assertThrows(IllegalStateException.class, () -> builder.add(3)),
+        () -> assertThrows(IllegalStateException.class, builder::freeze),
+        () -> assertThrows(NullPointerException.class, () -> PersistentList.builder(String[]::new).add(null)));
+  }
+
+  @Test
+  public void appendAll() {
+    var list = PersistentList.<String>from(String[]::new).append("foo");
+    var list2 = list.appendAll(List.of("bar", "baz"));
+    var list3 = list.appendAll(List.of("whizz"));
+    var list4 = list2.appendAll(List.of());
+    assertAll(
+        () -> assertEquals(List.of("foo"), list),
+        () -> assertEquals(List.of("foo", "bar", "baz"), list2),
+        () -> assertEquals(List.of("foo", "whizz"), list3),
+        () -> assertEquals(list2, list4),
+        () -> assertThrows(NullPointerException.class, () -> list.appendAll(Arrays.asList("a", null))));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void appendAllALot() {
+    var elements = IntStream.range(0, 100_000).boxed().collect(toList());
+    var list = PersistentList.from(Integer[]::new).appendAll(elements);
+    assertEquals(elements, list);
+    assertEquals(elements.subList(0, 3), PersistentList.of(0, 1).appendAll(elements.subList(2, 3)));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void hashCodeOfVersions() {
+    var list = PersistentList.from(Integer[]::new);
+    var expected = new ArrayList<Integer>();
+    for(var i = 0; i < 100; i++) {
+      list = list.append(i);
+      expected.add(i);
+      assertEquals(expected.hashCode(), list.hashCode());
+    }
+    assertEquals(expected.hashCode(), PersistentList.builder(Integer[]::new).addAll(expected).freeze().hashCode());
+    assertEquals(expected.hashCode(), PersistentList.from(Integer[]::new).appendAll(expected).hashCode());
+    assertEquals(expected.hashCode(), PersistentList.generate(Integer[]::new, 100, i -> i).hashCode());
+  }
+
+  @Test
+  public void equalsVersions() {
+    var list = PersistentList.of("foo");
+    var list2 = list.append("bar");
+    var list3 = list.append("baz");
+    assertAll(
+        () -> assertEquals(list2, list.append("bar")),
+        () -> assertNotEquals(list, list2),
+        () -> assertNotEquals(list2, list3),
+        () -> assertNotEquals(list2, List.of("foo")),
+        () -> assertNotEquals(list, List.of("foo", "bar")),
+        () -> assertEquals(list2, PersistentList.of("foo", "bar")));
+  }
+
   @Test
   public void from() {}
 
@@ -173,6 +348,48 @@ public class PersistentListTest {
     assertThrows(IllegalStateException.class, _cursor::next);
   }
 
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void cursorForEachRemaining() {
+    var list = new ArrayList<Integer>();
+    PersistentList.of(12, 89, 56).cursor().next().forEachRemaining(list::add);
+    assertEquals(List.of(89, 56), list);
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void cursorSkip() {
+    var cursor = PersistentList.of(12, 89, 56).cursor();
+    assertAll(
+        () -> assertEquals(12, (int) cursor.skip(0).element()),
+        () -> assertEquals(56, (int) cursor.skip(2).element()),
+        () -> assertFalse(cursor.skip(3).hasNext()),
+        () -> assertFalse(cursor.skip(10).hasNext()),
+        () -> assertThrows(IllegalArgumentException.class, () -> cursor.skip(-1)));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void cursorNextChunk() {
+    var list = PersistentList.generate(Integer[]::new, 10, i -> i);
+    var chunks = new ArrayList<List<Integer>>();
+    for(var cursor = list.cursor(); cursor.hasNext();) {
+      var chunk = cursor.nextChunk(4);
+      chunks.add(chunk);
+      cursor = cursor.skip(chunk.size());
+    }
+    assertEquals(List.of(List.of(0, 1, 2, 3), List.of(4, 5, 6, 7), List.of(8, 9)), chunks);
+    assertThrows(IllegalArgumentException.class, () -> list.cursor().nextChunk(-1));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void cursorIteratorRemaining() {
+    var list = new ArrayList<Integer>();
+    PersistentList.of(12, 89, 56).cursor().next().iteratorRemaining().forEachRemaining(list::add);
+    assertEquals(List.of(89, 56), list);
+  }
+
   @Test
   @SuppressWarnings("MagicNumber")
   public void toObjectArray() {
@@ -247,5 +464,49 @@ public class PersistentListTest {
   public void testListIterator() {}
 
   @Test
-  public void subList() {}
+  public void subList() {
+    var list = PersistentList.<String>from(String[]::new).appendAll(List.of("foo", "bar", "baz", "whizz"));
+    var subList = list.subList(1, 3);
+    assertAll(
+        () -> assertEquals(List.of("bar", "baz"), subList),
+        () -> assertEquals(List.of("bar", "baz").hashCode(), subList.hashCode()),
+        () -> assertEquals(2, subList.size()),
+        () -> assertEquals("baz", subList.get(1)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> subList.get(2)),
+        () -> assertEquals(1, subList.indexOf("baz")),
+        () -> assertEquals(-1, subList.indexOf("foo")),
+        () -> assertFalse(subList.contains("whizz")),
+        () -> assertEquals(List.of("bar", "baz"), List.of(subList.toArray())),
+        () -> assertEquals(List.of("bar", "baz"), subList.stream().collect(toList())),
+        () -> assertThrows(UnsupportedOperationException.class, () -> subList.add("hello")),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.subList(2, 5)));
+  }
+
+  @Test
+  public void subListOfNextVersion() {
+    var list = PersistentList.<String>from(String[]::new).append("foo");
+    list.append("bar");  // the slot after the end of list is not null
+    assertEquals(List.of("foo"), list.subList(0, 1));
+    assertEquals(List.of(), list.subList(1, 1));
+  }
+
+  @Test
+  public void nestedSubList() {
+    var list = PersistentList.of("foo", "bar", "baz", "whizz", "buzz");
+    var subList = list.subList(1, 5).subList(1, 3);
+    assertEquals(List.of("baz", "whizz"), subList);
+    assertEquals(List.of("whizz"), subList.subList(1, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> subList.subList(0, 3));
+  }
+
+  @Test
+  public void subListCursor() {
+    var subList = PersistentList.of("foo", "bar", "baz").subList(1, 3);
+    var cursor = subList.cursor();
+    assertEquals("bar", cursor.element());
+    cursor = cursor.next();
+    assertEquals("baz", cursor.element());
+    cursor = cursor.next();
+    assertFalse(cursor.hasNext());
+  }
 }
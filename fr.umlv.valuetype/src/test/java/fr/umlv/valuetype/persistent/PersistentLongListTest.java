@@ -0,0 +1,107 @@
+// Generated by GeneratePrimitiveLists from PersistentPrimitiveListTest.java.template, do not edit.
+package fr.umlv.valuetype.persistent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"WeakerAccess", "ResultOfMethodCallIgnored", "MagicNumber"})
+public class PersistentLongListTest {
+  @Test
+  public void ofZero() {
+    var list = PersistentLongList.of();
+    assertAll(
+        () -> assertEquals(list, list),
+        () -> assertEquals(List.of().hashCode(), list.hashCode()),
+        () -> assertEquals("[]", list.toString()),
+        () -> assertEquals(0, list.size()),
+        () -> assertTrue(list.isEmpty()),
+        () -> assertEquals(0L, list.sum()),
+        () -> assertEquals(OptionalLong.empty(), list.min()),
+        () -> assertEquals(OptionalLong.empty(), list.max()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(0)));
+  }
+
+  @Test
+  public void ofThree() {
+    var list = PersistentLongList.of(12, -89, 56);
+    var boxed = List.<Long>of(12L, -89L, 56L);
+    assertAll(
+        () -> assertEquals(PersistentLongList.of(12, -89, 56), list),
+        () -> assertNotEquals(PersistentLongList.of(12, -89), list),
+        () -> assertEquals(boxed.hashCode(), list.hashCode()),
+        () -> assertEquals(boxed.toString(), list.toString()),
+        () -> assertEquals(3, list.size()),
+        () -> assertEquals(-89L, list.get(1)),
+        () -> assertEquals(2, list.indexOf(56)),
+        () -> assertTrue(list.contains(12)),
+        () -> assertFalse(list.contains(42)),
+        () -> assertEquals(-21L, list.sum()),
+        () -> assertEquals(OptionalLong.of(-89), list.min()),
+        () -> assertEquals(OptionalLong.of(56), list.max()),
+        () -> assertArrayEquals(new long[] { 12, -89, 56 }, list.toArray()),
+        () -> assertEquals(boxed, list.stream().boxed().collect(Collectors.toList())));
+  }
+
+  @Test
+  public void sumDoesNotOverflow() {
+    var list = PersistentLongList.of(Integer.MAX_VALUE, Integer.MAX_VALUE, 2);
+    assertEquals(4_294_967_296L, list.sum());
+  }
+
+  @Test
+  public void forEach() {
+    var list = PersistentLongList.of(12, -89, 56);
+    var elements = new ArrayList<Long>();
+    list.forEach(elements::add);
+    assertEquals(List.<Long>of(12L, -89L, 56L), elements);
+  }
+
+  @Test
+  public void append() {
+    var list = PersistentLongList.of();
+    for(var i = 0; i < 1_000; i++) {
+      list = list.append(i);
+    }
+    assertEquals(PersistentLongList.generate(1_000, i -> i), list);
+  }
+
+  @Test
+  public void appendToOldVersion() {
+    var list = PersistentLongList.of(1, 2);
+    var list2 = list.append(3);
+    var list3 = list.append(4);
+    assertAll(
+        () -> assertEquals(PersistentLongList.of(1, 2), list),
+        () -> assertEquals(PersistentLongList.of(1, 2, 3), list2),
+        () -> assertEquals(PersistentLongList.of(1, 2, 4), list3),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(2)));
+  }
+
+  @Test
+  public void ownership() throws InterruptedException {
+    var list = PersistentLongList.of(1, 2);
+    var thread = new Thread(() -> assertThrows(IllegalStateException.class, () -> list.append(3)));
+    thread.start();
+    thread.join();
+  }
+
+  @Test
+  public void cursor() {
+    var cursor = PersistentLongList.of(12, 89).cursor();
+    assertTrue(cursor.hasNext());
+    assertEquals(12L, cursor.element());
+    cursor = cursor.next();
+    assertEquals(89L, cursor.element());
+    cursor = cursor.next();
+    assertFalse(cursor.hasNext());
+    var _cursor = cursor;
+    assertThrows(NoSuchElementException.class, _cursor::element);
+    assertThrows(IllegalStateException.class, _cursor::next);
+  }
+}
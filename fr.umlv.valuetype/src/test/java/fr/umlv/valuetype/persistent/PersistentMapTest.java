@@ -0,0 +1,387 @@
+package fr.umlv.valuetype.persistent;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+import fr.umlv.valuetype.persistent.PersistentMap.GenEntry;
+
+@SuppressWarnings({"WeakerAccess", "MagicNumber"})
+public class PersistentMapTest {
+  @__inline__
+  static final /*inline*/ class Entry implements GenEntry<String, Integer> {
+    private final String key;
+    private final Integer value;
+    private final int generation;
+
+    Entry(String key, Integer value, int generation) {
+      this.key = key;
+      this.value = value;
+      this.generation = generation;
+    }
+
+    @Override
+    public String key() {
+      return key;
+    }
+    @Override
+    public Integer value() {
+      return value;
+    }
+    @Override
+    public int generation() {
+      return generation;
+    }
+    @Override
+    public GenEntry<String, Integer> with(String key, Integer value, int generation) {
+      return new Entry(key, value, generation);
+    }
+    @Override
+    public String getKey() {
+      return key;
+    }
+    @Override
+    public Integer getValue() {
+      return value;
+    }
+  }
+
+  private static PersistentMap<String, Integer> empty() {
+    return PersistentMap.fromArrayCreator(Entry[]::new);
+  }
+
+  @Test
+  public void appendAndGet() {
+    var map = empty().append("foo", 1).append("bar", 2);
+    assertAll(
+        () -> assertEquals(2, map.size()),
+        () -> assertEquals(1, (int) map.get("foo")),
+        () -> assertEquals(2, (int) map.get("bar")),
+        () -> assertNull(map.get("baz")),
+        () -> assertTrue(map.containsKey("foo")),
+        () -> assertTrue(map.containsValue(2)),
+        () -> assertFalse(map.containsValue(3)));
+  }
+
+  @Test
+  public void appendALot() {
+    var map = empty();
+    for(var i = 0; i < 10_000; i++) {
+      map = map.append("" + i, i);
+    }
+    assertEquals(10_000, map.size());
+    for(var i = 0; i < 10_000; i++) {
+      assertEquals(i, (int) map.get("" + i));
+    }
+  }
+
+  // 2^10 strings made of "Aa" and "BB" that all have the same hash code
+  private static List<String> collidingKeys() {
+    var keys = new ArrayList<String>();
+    for(var i = 0; i < 1 << 10; i++) {
+      var builder = new StringBuilder();
+      for(var bit = 0; bit < 10; bit++) {
+        builder.append((i & 1 << bit) == 0? "Aa": "BB");
+      }
+      keys.add(builder.toString());
+    }
+    return keys;
+  }
+
+  @Test
+  public void hashCollisions() {
+    var keys = collidingKeys();
+    var absent = keys.remove(keys.size() - 1);
+    var map = empty();
+    for(var i = 0; i < keys.size(); i++) {
+      map = map.append(keys.get(i), i);
+    }
+    var _map = map;
+    var replaced = map.append(keys.get(512), -1);
+    assertAll(
+        () -> assertEquals((1 << 10) - 1, _map.size()),
+        () -> assertEquals(keys, new ArrayList<>(_map.keySet())),
+        () -> assertAll(IntStream.range(0, keys.size()).mapToObj(i -> () -> assertEquals(i, (int) _map.get(keys.get(i))))),
+        () -> assertNull(_map.get(absent)),  // same hash code, not a key
+        () -> assertEquals(-1, (int) replaced.get(keys.get(512))),
+        () -> assertEquals(511, (int) replaced.get(keys.get(511))),
+        () -> assertEquals(512, (int) _map.get(keys.get(512))));
+  }
+
+  @Test
+  public void keysWithTheSameTag() {
+    var tag = PersistentMap.tag(PersistentMap.spread("0".hashCode()));
+    var keys = IntStream.range(0, 200_000)
+        .mapToObj(i -> "" + i)
+        .filter(key -> PersistentMap.tag(PersistentMap.spread(key.hashCode())) == tag)
+        .limit(1_000)
+        .collect(toList());
+    var map = empty();
+    for(var i = 0; i < keys.size() / 2; i++) {
+      map = map.append(keys.get(i), i);
+    }
+    var _map = map;
+    assertAll(
+        () -> assertEquals(1_000, keys.size()),
+        () -> assertEquals(500, _map.size()),
+        () -> assertAll(IntStream.range(0, 500).mapToObj(i -> () -> assertEquals(i, (int) _map.get(keys.get(i))))),
+        () -> assertAll(IntStream.range(500, 1_000).mapToObj(i -> () -> assertFalse(_map.containsKey(keys.get(i))))));
+  }
+
+  @Test
+  public void growAtSevenEighth() {
+    var versions = new ArrayList<PersistentMap.ref<String, Integer>>();
+    var map = empty();
+    for(var i = 0; i < 64; i++) {  // tables of 16, 32, 64 and 128 slots
+      versions.add(map);
+      map = map.append("" + i, i);
+      var _map = map;
+      var _i = i;
+      assertAll(IntStream.rangeClosed(0, i).mapToObj(j -> () -> assertEquals(j, (int) _map.get("" + j), "size " + (_i + 1))));
+    }
+    for(var size = 0; size < versions.size(); size++) {
+      var version = versions.get(size);
+      var _size = size;
+      assertAll(
+          () -> assertEquals(_size, version.size()),
+          () -> assertAll(IntStream.range(0, 64).mapToObj(j -> () -> assertEquals(j < _size, version.containsKey("" + j)))));
+    }
+  }
+
+  @Test
+  public void notOwnerThread() {
+    var map = empty().append("foo", 1);
+    assertThrows(IllegalStateException.class, () -> {
+      try {
+        CompletableFuture.runAsync(() -> map.get("foo")).join();
+      } catch(RuntimeException e) {
+        throw e.getCause();
+      }
+    });
+  }
+
+  @Test
+  public void freeze() {
+    var map = empty().append("foo", 1).append("bar", 2);
+    var frozen = map.freeze();
+    var map2 = map.append("baz", 3);
+    assertAll(
+        () -> assertTrue(frozen.isFrozen()),
+        () -> assertFalse(map2.isFrozen()),
+        () -> assertEquals(frozen, frozen.freeze()),
+        () -> assertEquals(2, (int) CompletableFuture.supplyAsync(frozen::size).join()),
+        () -> assertEquals(1, (int) CompletableFuture.supplyAsync(() -> frozen.get("foo")).join()),
+        () -> assertNull(CompletableFuture.supplyAsync(() -> frozen.get("baz")).join()),
+        () -> assertEquals(3, map2.size()));
+  }
+
+  @Test
+  public void appendToFrozen() {
+    var frozen = empty().append("foo", 1).freeze();
+    var values = CompletableFuture.supplyAsync(() -> {
+      var map = frozen.append("bar", 2);
+      return List.of(map.size(), map.get("foo"), map.get("bar"));
+    }).join();
+    assertAll(
+        () -> assertEquals(List.of(2, 1, 2), values),
+        () -> assertEquals(1, frozen.size()),
+        () -> assertNull(frozen.get("bar")));
+  }
+
+  @Test
+  public void appendToOldVersion() {
+    var map = empty().append("foo", 1);
+    var map2 = map.append("bar", 2);
+    var fork = map.append("baz", 3);
+    assertAll(
+        () -> assertEquals(2, map2.size()),
+        () -> assertEquals(2, (int) map2.get("bar")),
+        () -> assertNull(map2.get("baz")),
+        () -> assertEquals(2, fork.size()),
+        () -> assertEquals(3, (int) fork.get("baz")),
+        () -> assertNull(fork.get("bar")));
+  }
+
+  @Test
+  public void deltaSince() {
+    var map = empty().append("foo", 1);
+    var map2 = map;
+    for(var i = 0; i < 100; i++) {
+      map2 = map2.append("" + i, i);
+    }
+    var delta = map2.deltaSince(map).map(Map.Entry::getValue).collect(toList());
+    var _map2 = map2;
+    assertAll(
+        () -> assertEquals(IntStream.range(0, 100).boxed().collect(toList()), delta),
+        () -> assertEquals(0, _map2.deltaSince(_map2).count()));
+  }
+
+  @Test
+  public void deltaSinceNotAnOlderVersion() {
+    var map = empty().append("foo", 1);
+    var map2 = map.append("bar", 2);
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> map.deltaSince(map2)),
+        () -> assertThrows(IllegalArgumentException.class, () -> map2.append("foo", 3).deltaSince(map)),
+        () -> assertThrows(IllegalArgumentException.class, () -> map.append("baz", 3).deltaSince(map)),
+        () -> assertThrows(IllegalArgumentException.class, () -> map.deltaSince(empty())));
+  }
+
+  @Test
+  public void deltaSinceForkWhenGrowing() {
+    var map = empty();
+    for(var i = 0; i < 14; i++) {  // the next append grows the table of 16 slots
+      map = map.append("" + i, i);
+    }
+    var _map = map;
+    var map2 = map.append("foo", 1);
+    var fork = map.append("bar", 2);
+    assertAll(
+        () -> assertEquals(List.of("foo"), map2.deltaSince(_map).map(Map.Entry::getKey).collect(toList())),
+        () -> assertThrows(IllegalArgumentException.class, () -> map2.append("baz", 3).deltaSince(fork)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fork.append("baz", 3).deltaSince(map2)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fork.deltaSince(_map)),
+        () -> assertEquals(1, (int) map2.get("foo")),
+        () -> assertNull(map2.get("bar")),
+        () -> assertEquals(2, (int) fork.get("bar")),
+        () -> assertNull(fork.get("foo")));
+  }
+
+  @Test
+  public void deltaSinceForkWhenGrowingEmpty() {
+    var map = empty();
+    var map2 = map.append("foo", 1);
+    var fork = map.append("bar", 2);
+    assertAll(
+        () -> assertEquals(List.of("foo"), map2.deltaSince(map).map(Map.Entry::getKey).collect(toList())),
+        () -> assertThrows(IllegalArgumentException.class, () -> map2.append("baz", 3).deltaSince(fork)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fork.append("baz", 3).deltaSince(map2)));
+  }
+
+  @Test
+  public void deltaSinceForkWhenAppendingAll() {
+    var map = empty().append("foo", 1);
+    var map2 = map.appendAll(Map.of("bar", 2));
+    var fork = map.appendAll(Map.of("baz", 3));
+    assertAll(
+        () -> assertEquals(List.of("bar"), map2.deltaSince(map).map(Map.Entry::getKey).collect(toList())),
+        () -> assertThrows(IllegalArgumentException.class, () -> map2.append("qux", 4).deltaSince(fork)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fork.append("qux", 4).deltaSince(map2)));
+  }
+
+  @Test
+  public void deltaSinceForkWhenFrozen() {
+    var map = empty().append("foo", 1);
+    var frozen = map.freeze();
+    var fromFrozen = frozen.append("bar", 2);
+    var fromFrozen2 = frozen.append("baz", 3);
+    var fromMap = map.append("qux", 4);
+    assertAll(
+        () -> assertEquals(0, frozen.deltaSince(map).count()),
+        () -> assertEquals(List.of("qux"), fromMap.deltaSince(frozen).map(Map.Entry::getKey).collect(toList())),
+        () -> assertThrows(IllegalArgumentException.class, () -> fromFrozen.deltaSince(fromMap)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fromMap.deltaSince(fromFrozen)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fromFrozen.append("quux", 5).deltaSince(fromFrozen2)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fromMap.append("quux", 5).deltaSince(fromFrozen)),
+        () -> assertThrows(IllegalArgumentException.class, () -> fromFrozen.appendAll(Map.of("quux", 5)).deltaSince(fromMap)));
+  }
+
+  @Test
+  public void appendToEmptyFrozen() {
+    var frozen = empty().freeze();
+    var map = frozen.append("foo", 1);
+    assertAll(
+        () -> assertEquals(0, frozen.size()),
+        () -> assertEquals(1, (int) map.get("foo")));
+  }
+
+  @Test
+  public void insertionOrder() {
+    var map = empty();
+    var keys = new ArrayList<String>();
+    for(var i = 0; i < 1_000; i++) {
+      map = map.append("" + (i * 7919 % 1_000), i);
+      keys.add("" + (i * 7919 % 1_000));
+    }
+    var _map = map;
+    assertAll(
+        () -> assertEquals(keys, new ArrayList<>(_map.keySet())),
+        () -> assertEquals(IntStream.range(0, 1_000).boxed().collect(toList()), new ArrayList<>(_map.values())),
+        () -> assertEquals(keys, _map.entrySet().stream().map(Map.Entry::getKey).collect(toList())),
+        () -> assertEquals(keys, Arrays.asList(_map.keySet().toArray(new String[0]))),
+        () -> assertTrue(_map.keySet().containsAll(keys)));
+  }
+
+  @Test
+  public void iterateOlderVersion() {
+    var map = empty().append("foo", 1).append("bar", 2);
+    map.append("baz", 3);
+    assertEquals(List.of("foo", "bar"), new ArrayList<>(map.keySet()));
+  }
+
+  @Test
+  public void parallelStream() {
+    var map = empty();
+    for(var i = 0; i < 10_000; i++) {
+      map = map.append("" + i, i);
+    }
+    var _map = map;
+    var spliterator = map.values().spliterator();
+    assertAll(
+        () -> assertEquals(10_000, spliterator.getExactSizeIfKnown()),
+        () -> assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED)),
+        () -> assertEquals(49_995_000, _map.values().parallelStream().mapToInt(x -> x).sum()),
+        () -> assertEquals(IntStream.range(0, 10_000).boxed().collect(toList()), _map.values().parallelStream().collect(toList())));
+  }
+
+  @Test
+  public void appendAll() {
+    var source = new LinkedHashMap<String, Integer>();
+    for(var i = 0; i < 1_000; i++) {
+      source.put("" + i, i);
+    }
+    var map = empty().append("foo", 1);
+    var map2 = map.appendAll(source);
+    assertAll(
+        () -> assertEquals(1_001, map2.size()),
+        () -> assertEquals(1, (int) map2.get("foo")),
+        () -> assertEquals(999, (int) map2.get("999")),
+        () -> assertEquals(1, map.size()),
+        () -> assertNull(map.get("999")),
+        () -> assertEquals(source.keySet(), map2.deltaSince(map).map(Map.Entry::getKey).collect(toSet())));
+  }
+
+  @Test
+  public void appendAllReplace() {
+    var map = empty().append("foo", 1).append("bar", 2);
+    var map2 = map.appendAll(Map.of("foo", 3, "baz", 4));
+    assertAll(
+        () -> assertEquals(List.of("foo", "bar", "baz"), new ArrayList<>(map2.keySet())),
+        () -> assertEquals(List.of(3, 2, 4), new ArrayList<>(map2.values())),
+        () -> assertEquals(1, (int) map.get("foo")),
+        () -> assertNull(map.get("baz")),
+        () -> assertThrows(IllegalArgumentException.class, () -> map2.deltaSince(map)));
+  }
+
+  @Test
+  public void toPersistentMap() {
+    var map = IntStream.range(0, 1_000).boxed().collect(PersistentMap.toPersistentMap(Entry[]::new, i -> "" + i, i -> i));
+    var parallelMap = IntStream.range(0, 1_000).boxed().parallel().collect(PersistentMap.toPersistentMap(Entry[]::new, i -> "" + i, i -> i));
+    assertAll(
+        () -> assertEquals(1_000, map.size()),
+        () -> assertEquals(IntStream.range(0, 1_000).boxed().collect(toList()), new ArrayList<>(map.values())),
+        () -> assertEquals(IntStream.range(0, 1_000).boxed().collect(toList()), new ArrayList<>(parallelMap.values())),
+        () -> assertThrows(IllegalStateException.class, () -> Stream.of(1, 1).collect(PersistentMap.toPersistentMap(Entry[]::new, i -> "" + i, i -> i))));
+  }
+}
@@ -0,0 +1,137 @@
+package fr.umlv.valuetype.persistent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"WeakerAccess", "MagicNumber"})
+public class PersistentTrieMapTest {
+  // all instances with the same id % 4 have the same hash code
+  private static final class Collider {
+    private final int id;
+
+    private Collider(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Collider && id == ((Collider) o).id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id % 4;
+    }
+  }
+
+  @Test
+  public void empty() {
+    var map = PersistentTrieMap.<String, Integer>empty();
+    assertAll(
+        () -> assertEquals(Map.of(), map),
+        () -> assertEquals(0, map.hashCode()),
+        () -> assertEquals("{}", map.toString()),
+        () -> assertEquals(0, map.size()),
+        () -> assertTrue(map.isEmpty()),
+        () -> assertNull(map.get("foo")),
+        () -> assertFalse(map.containsKey("foo")),
+        () -> assertEquals(map, map.without("foo")));
+  }
+
+  @Test
+  public void appendAndGet() {
+    var map = PersistentTrieMap.<String, Integer>empty().append("foo", 1).append("bar", 2);
+    assertAll(
+        () -> assertEquals(Map.of("foo", 1, "bar", 2), map),
+        () -> assertEquals(Map.of("foo", 1, "bar", 2).hashCode(), map.hashCode()),
+        () -> assertEquals(2, map.size()),
+        () -> assertEquals(1, (int) map.get("foo")),
+        () -> assertEquals(2, (int) map.getOrDefault("bar", 0)),
+        () -> assertEquals(0, (int) map.getOrDefault("baz", 0)),
+        () -> assertTrue(map.containsValue(2)),
+        () -> assertFalse(map.containsValue(3)),
+        () -> assertEquals(Set.of("foo", "bar"), map.keySet()));
+  }
+
+  @Test
+  public void replace() {
+    var map = PersistentTrieMap.<String, Integer>empty().append("foo", 1);
+    var map2 = map.append("foo", 2);
+    assertAll(
+        () -> assertEquals(Map.of("foo", 1), map),
+        () -> assertEquals(Map.of("foo", 2), map2),
+        () -> assertEquals(map, map.append("foo", 1)));
+  }
+
+  @Test
+  public void without() {
+    var map = PersistentTrieMap.<String, Integer>empty().append("foo", 1).append("bar", 2);
+    var map2 = map.without("foo");
+    assertAll(
+        () -> assertEquals(Map.of("foo", 1, "bar", 2), map),
+        () -> assertEquals(Map.of("bar", 2), map2),
+        () -> assertEquals(Map.of(), map2.without("bar")));
+  }
+
+  @Test
+  public void nulls() {
+    var map = PersistentTrieMap.<String, Integer>empty();
+    assertAll(
+        () -> assertThrows(NullPointerException.class, () -> map.append(null, 1)),
+        () -> assertThrows(NullPointerException.class, () -> map.append("foo", null)),
+        () -> assertThrows(NullPointerException.class, () -> map.get(null)),
+        () -> assertThrows(NullPointerException.class, () -> map.without(null)));
+  }
+
+  @Test
+  public void collisions() {
+    var map = PersistentTrieMap.<Collider, Integer>empty();
+    for(var i = 0; i < 100; i++) {
+      map = map.append(new Collider(i), i);
+    }
+    for(var i = 0; i < 100; i += 2) {
+      map = map.without(new Collider(i));
+    }
+    var _map = map;
+    assertEquals(50, map.size());
+    for(var i = 0; i < 100; i++) {
+      var expected = (i % 2 == 0)? null: i;
+      assertEquals(expected, _map.get(new Collider(i)));
+    }
+  }
+
+  @Test
+  public void randomVersions() {
+    var random = new Random(0);
+    var map = PersistentTrieMap.<Integer, Integer>empty();
+    var model = new HashMap<Integer, Integer>();
+    for(var i = 0; i < 100_000; i++) {
+      var key = random.nextInt(10_000);
+      if (random.nextInt(3) == 0) {
+        map = map.without(key);
+        model.remove(key);
+      } else {
+        map = map.append(key, i);
+        model.put(key, i);
+      }
+    }
+    assertEquals(model, map);
+    assertEquals(model.size(), map.size());
+    assertEquals(model.hashCode(), map.hashCode());
+  }
+
+  @Test
+  public void unsupportedOperations() {
+    var map = PersistentTrieMap.<String, Integer>empty().append("foo", 1);
+    assertAll(
+        () -> assertThrows(UnsupportedOperationException.class, () -> map.put("bar", 2)),
+        () -> assertThrows(UnsupportedOperationException.class, () -> map.remove("foo")),
+        () -> assertThrows(UnsupportedOperationException.class, map::clear),
+        () -> assertThrows(UnsupportedOperationException.class, () -> map.entrySet().iterator().next().setValue(3)));
+  }
+}
@@ -0,0 +1,138 @@
+package fr.umlv.valuetype.persistent;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"WeakerAccess", "ResultOfMethodCallIgnored"})
+public class PersistentVectorTest {
+  private static <T> List<T> listOf(PersistentVector<T> vector) {
+    var list = new ArrayList<T>();
+    vector.forEach(list::add);
+    return list;
+  }
+
+  @Test
+  public void ofZero() {
+    var vector = PersistentVector.<String>of();
+    assertAll(
+        () -> assertEquals(vector, vector),
+        () -> assertEquals(PersistentVector.of(), vector),
+        () -> assertEquals(List.of(), listOf(vector)),
+        () -> assertEquals(List.of().hashCode(), vector.hashCode()),
+        () -> assertEquals("[]", vector.toString()),
+        () -> assertEquals(0, vector.size()),
+        () -> assertTrue(vector.isEmpty()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> vector.get(0)),
+        () -> assertThrows(NoSuchElementException.class, vector::removeLast));
+  }
+
+  @Test
+  public void ofTwo() {
+    var vector = PersistentVector.of("foo", "bar");
+    assertAll(
+        () -> assertEquals(PersistentVector.of("foo", "bar"), vector),
+        () -> assertEquals(List.of("foo", "bar"), listOf(vector)),
+        () -> assertEquals(List.of("foo", "bar").hashCode(), vector.hashCode()),
+        () -> assertEquals("[foo, bar]", vector.toString()),
+        () -> assertEquals(2, vector.size()),
+        () -> assertEquals("foo", vector.get(0)),
+        () -> assertEquals("bar", vector.get(1)));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void appendALot() {
+    var vector = PersistentVector.<Integer>of();
+    for(var i = 0; i < 100_000; i++) {
+      vector = vector.append(i);
+    }
+    var _vector = vector;
+    assertEquals(100_000, vector.size());
+    assertAll(range(0, 100_000).mapToObj(i -> () -> assertEquals(i, (int) _vector.get(i))));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void appendFromOldVersions() {
+    var versions = new ArrayList<PersistentVector.ref<Integer>>();
+    var vector = PersistentVector.<Integer>of();
+    for(var i = 0; i < 2_000; i++) {
+      versions.add(vector);
+      vector = vector.append(i);
+    }
+    for(var i = 0; i < versions.size(); i++) {
+      var fork = versions.get(i).append(-1);
+      var expected = range(0, i).boxed().collect(toList());
+      expected.add(-1);
+      assertEquals(expected, listOf(fork));
+      assertEquals(i, versions.get(i).size());  // no side effect
+    }
+    assertEquals(range(0, 2_000).boxed().collect(toList()), listOf(vector));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void update() {
+    var vector = PersistentVector.<Integer>of();
+    for(var i = 0; i < 1_500; i++) {
+      vector = vector.append(i);
+    }
+    var updated = vector;
+    for(var i = 0; i < 1_500; i += 7) {
+      updated = updated.update(i, -i);
+    }
+    var _vector = vector;
+    var _updated = updated;
+    assertAll(range(0, 1_500).mapToObj(i -> () -> {
+      assertEquals(i, (int) _vector.get(i));
+      assertEquals(i % 7 == 0? -i: i, (int) _updated.get(i));
+    }));
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void removeLast() {
+    var vector = PersistentVector.<Integer>of();
+    for(var i = 0; i < 5_000; i++) {
+      vector = vector.append(i);
+    }
+    for(var i = 5_000; --i >= 0;) {
+      assertEquals(i, (int) vector.get(i));
+      vector = vector.removeLast();
+      assertEquals(i, vector.size());
+    }
+    assertTrue(vector.isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("MagicNumber")
+  public void cursor() {
+    var vector = PersistentVector.of(12, 89, 56);
+    var list = new ArrayList<Integer>();
+    for(var cursor = vector.cursor(); cursor.hasNext(); cursor = cursor.next()) {
+      list.add(cursor.element());
+    }
+    assertEquals(List.of(12, 89, 56), list);
+  }
+
+  @Test
+  public void equalsOnlyVectors() {
+    var vector = PersistentVector.of("foo", "bar");
+    assertAll(
+        () -> assertNotEquals(vector, PersistentVector.of("foo")),
+        () -> assertNotEquals(vector, PersistentVector.of("foo", "baz")),
+        () -> assertNotEquals(vector, List.of("foo", "bar")),
+        () -> assertNotEquals(List.of("foo", "bar"), vector));
+  }
+
+  @Test
+  public void appendNull() {
+    assertThrows(NullPointerException.class, () -> PersistentVector.of().append(null));
+  }
+}
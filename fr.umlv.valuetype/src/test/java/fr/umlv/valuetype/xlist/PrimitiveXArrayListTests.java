@@ -0,0 +1,342 @@
+package fr.umlv.valuetype.xlist;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests shared by IntXArrayList, LongXArrayList and DoubleXArrayList,
+ * each flavor is seen through {@link PrimitiveList} with the elements widened to double.
+ */
+@SuppressWarnings({"static-method", "MagicNumber"})
+class PrimitiveXArrayListTests {
+  interface PrimitiveList {
+    int size();
+    double get(int index);
+    int indexOf(int element);
+    int lastIndexOf(int element);
+    double[] toArray();
+    double sum();
+    void add(int element);
+    void addAll(PrimitiveList list);
+    Object unwrap();
+    double removeAt(int index);
+    boolean removeValue(int element);
+    void sort();
+    void applyCursorRemovals();
+    PrimitiveCursor cursor();
+  }
+
+  interface PrimitiveCursor {
+    boolean exists();
+    double get();
+    PrimitiveCursor advance();
+    PrimitiveCursor retreat();
+    PrimitiveCursor remove();
+    void set(int element);
+    void close();
+  }
+
+  enum Flavor {
+    INT {
+      @Override
+      PrimitiveList of(int... elements) {
+        var list = IntXArrayList.of(elements);
+        return new PrimitiveList() {
+          public int size() { return list.size(); }
+          public double get(int index) { return list.get(index); }
+          public int indexOf(int element) { return list.indexOf(element); }
+          public int lastIndexOf(int element) { return list.lastIndexOf(element); }
+          public double[] toArray() { return IntStream.of(list.toArray()).asDoubleStream().toArray(); }
+          public double sum() { return list.stream().sum(); }
+          public void add(int element) { list.add(element); }
+          public double removeAt(int index) { return list.removeAt(index); }
+          public boolean removeValue(int element) { return list.removeValue(element); }
+          public void sort() { list.sort(); }
+          public void applyCursorRemovals() { list.applyCursorRemovals(); }
+          public PrimitiveCursor cursor() { return wrap(list.cursor()); }
+          public void addAll(PrimitiveList other) { list.addAll((IntXArrayList) other.unwrap()); }
+          public Object unwrap() { return list; }
+        };
+      }
+
+      private PrimitiveCursor wrap(IntInlineCursor cursor) {
+        return new PrimitiveCursor() {
+          public boolean exists() { return cursor.exists(); }
+          public double get() { return cursor.get(); }
+          public PrimitiveCursor advance() { return wrap(cursor.advance()); }
+          public PrimitiveCursor retreat() { return wrap(cursor.retreat()); }
+          public PrimitiveCursor remove() { return wrap(cursor.remove()); }
+          public void set(int element) { cursor.set(element); }
+          public void close() { cursor.close(); }
+        };
+      }
+    },
+    LONG {
+      @Override
+      PrimitiveList of(int... elements) {
+        var list = LongXArrayList.of(IntStream.of(elements).asLongStream().toArray());
+        return new PrimitiveList() {
+          public int size() { return list.size(); }
+          public double get(int index) { return list.get(index); }
+          public int indexOf(int element) { return list.indexOf(element); }
+          public int lastIndexOf(int element) { return list.lastIndexOf(element); }
+          public double[] toArray() { return LongStream.of(list.toArray()).asDoubleStream().toArray(); }
+          public double sum() { return list.stream().sum(); }
+          public void add(int element) { list.add(element); }
+          public double removeAt(int index) { return list.removeAt(index); }
+          public boolean removeValue(int element) { return list.removeValue(element); }
+          public void sort() { list.sort(); }
+          public void applyCursorRemovals() { list.applyCursorRemovals(); }
+          public PrimitiveCursor cursor() { return wrap(list.cursor()); }
+          public void addAll(PrimitiveList other) { list.addAll((LongXArrayList) other.unwrap()); }
+          public Object unwrap() { return list; }
+        };
+      }
+
+      private PrimitiveCursor wrap(LongInlineCursor cursor) {
+        return new PrimitiveCursor() {
+          public boolean exists() { return cursor.exists(); }
+          public double get() { return cursor.get(); }
+          public PrimitiveCursor advance() { return wrap(cursor.advance()); }
+          public PrimitiveCursor retreat() { return wrap(cursor.retreat()); }
+          public PrimitiveCursor remove() { return wrap(cursor.remove()); }
+          public void set(int element) { cursor.set(element); }
+          public void close() { cursor.close(); }
+        };
+      }
+    },
+    DOUBLE {
+      @Override
+      PrimitiveList of(int... elements) {
+        var list = DoubleXArrayList.of(IntStream.of(elements).asDoubleStream().toArray());
+        return new PrimitiveList() {
+          public int size() { return list.size(); }
+          public double get(int index) { return list.get(index); }
+          public int indexOf(int element) { return list.indexOf(element); }
+          public int lastIndexOf(int element) { return list.lastIndexOf(element); }
+          public double[] toArray() { return list.toArray(); }
+          public double sum() { return list.stream().sum(); }
+          public void add(int element) { list.add(element); }
+          public double removeAt(int index) { return list.removeAt(index); }
+          public boolean removeValue(int element) { return list.removeValue(element); }
+          public void sort() { list.sort(); }
+          public void applyCursorRemovals() { list.applyCursorRemovals(); }
+          public PrimitiveCursor cursor() { return wrap(list.cursor()); }
+          public void addAll(PrimitiveList other) { list.addAll((DoubleXArrayList) other.unwrap()); }
+          public Object unwrap() { return list; }
+        };
+      }
+
+      private PrimitiveCursor wrap(DoubleInlineCursor cursor) {
+        return new PrimitiveCursor() {
+          public boolean exists() { return cursor.exists(); }
+          public double get() { return cursor.get(); }
+          public PrimitiveCursor advance() { return wrap(cursor.advance()); }
+          public PrimitiveCursor retreat() { return wrap(cursor.retreat()); }
+          public PrimitiveCursor remove() { return wrap(cursor.remove()); }
+          public void set(int element) { cursor.set(element); }
+          public void close() { cursor.close(); }
+        };
+      }
+    };
+
+    abstract PrimitiveList of(int... elements);
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void removeDuringTraversal(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    var visited = 0;
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      visited++;
+      assertEquals(10, list.size());  // reads do not apply the removals
+      if (cursor.get() % 2 == 0) {
+        cursor = cursor.remove();
+      }
+    }
+    assertEquals(10, visited);
+    assertArrayEquals(new double[] { 1, 3, 5, 7, 9 }, list.toArray());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void readsHaveNoSideEffect(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3);
+    var cursor = list.cursor().advance().remove();
+    assertAll(
+        () -> assertEquals(4, list.size()),
+        () -> assertEquals(1, list.get(1)),
+        () -> assertEquals(2, cursor.advance().get()),
+        () -> assertEquals(2, list.cursor().advance().get()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void applyCursorRemovals(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3);
+    var cursor = list.cursor().advance().remove();
+    list.applyCursorRemovals();
+    assertAll(
+        () -> assertArrayEquals(new double[] { 0, 2, 3 }, list.toArray()),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::exists));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void closeAppliesRemovals(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3);
+    var cursor = list.cursor().advance().remove();
+    cursor.close();
+    assertAll(
+        () -> assertEquals(3, list.size()),
+        () -> assertArrayEquals(new double[] { 0, 2, 3 }, list.toArray()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void toArrayAppliesRemovals(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3);
+    list.cursor().remove();
+    assertAll(
+        () -> assertArrayEquals(new double[] { 1, 2, 3 }, list.toArray()),
+        () -> assertEquals(3, list.size()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void addAllAppliesTheRemovalsOfTheSource(Flavor flavor) {
+    var list = flavor.of(0, 1);
+    var source = flavor.of(2, 3, 4);
+    source.cursor().advance().remove();
+    list.addAll(source);
+    assertAll(
+        () -> assertArrayEquals(new double[] { 0, 1, 2, 4 }, list.toArray()),
+        () -> assertArrayEquals(new double[] { 2, 4 }, source.toArray()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void structuralModificationAppliesRemovals(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3);
+    list.cursor().remove();
+    list.add(4);
+    assertArrayEquals(new double[] { 1, 2, 3, 4 }, list.toArray());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void staleCursor(Flavor flavor) {
+    var list = flavor.of(0, 1, 2);
+    var cursor = list.cursor();
+    list.add(3);
+    assertAll(
+        () -> assertThrows(ConcurrentModificationException.class, cursor::exists),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::get),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::advance),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::remove));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void set(Flavor flavor) {
+    var list = flavor.of(0, 1, 2);
+    var cursor = list.cursor().advance();
+    var other = list.cursor();
+    cursor.set(42);
+    assertAll(
+        () -> assertArrayEquals(new double[] { 0, 42, 2 }, list.toArray()),
+        () -> assertEquals(42, other.advance().get()),
+        () -> assertThrows(NoSuchElementException.class, () -> other.remove().set(7)));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void retreat(Flavor flavor) {
+    var list = flavor.of(0, 1, 2, 3, 4);
+    var cursor = list.cursor().advance().remove();     // remove 1
+    cursor = cursor.advance().advance().remove();      // remove 3
+    var previous = cursor.retreat();
+    assertAll(
+        () -> assertEquals(2, previous.get()),
+        () -> assertEquals(0, previous.retreat().get()),
+        () -> assertFalse(previous.retreat().retreat().exists()),
+        () -> assertEquals(4, previous.advance().get()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void add(Flavor flavor) {
+    var list = flavor.of();
+    for(var i = 0; i < 1_000; i++) {
+      list.add(i);
+    }
+    assertAll(
+        () -> assertEquals(1_000, list.size()),
+        () -> assertEquals(0, list.get(0)),
+        () -> assertEquals(999, list.get(999)),
+        () -> assertEquals(499_500, list.sum()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(1_000)));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void indexOf(Flavor flavor) {
+    var list = flavor.of(10, 20, 10);
+    assertAll(
+        () -> assertEquals(0, list.indexOf(10)),
+        () -> assertEquals(2, list.lastIndexOf(10)),
+        () -> assertEquals(-1, list.indexOf(42)),
+        () -> assertEquals(-1, list.lastIndexOf(42)));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void removeAt(Flavor flavor) {
+    var list = flavor.of(10, 20, 30, 40);
+    assertEquals(20, list.removeAt(1));
+    assertEquals(40, list.removeAt(2));
+    assertAll(
+        () -> assertArrayEquals(new double[] { 10, 30 }, list.toArray()),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.removeAt(2)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.removeAt(-1)));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void removeValue(Flavor flavor) {
+    var list = flavor.of(10, 20, 10);
+    assertTrue(list.removeValue(10));
+    assertFalse(list.removeValue(42));
+    assertArrayEquals(new double[] { 20, 10 }, list.toArray());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void removeValueAppliesCursorRemovals(Flavor flavor) {
+    var list = flavor.of(1, 2, 3);
+    list.cursor().remove();
+    assertTrue(list.removeValue(2));
+    assertArrayEquals(new double[] { 3 }, list.toArray());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Flavor.class)
+  void sort(Flavor flavor) {
+    var list = flavor.of(3, -1, 2, 0);
+    list.sort();
+    assertArrayEquals(new double[] { -1, 0, 2, 3 }, list.toArray());
+  }
+}
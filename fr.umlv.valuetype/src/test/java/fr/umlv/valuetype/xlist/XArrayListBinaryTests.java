@@ -0,0 +1,276 @@
+package fr.umlv.valuetype.xlist;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import fr.umlv.valuetype.IntBox;
+import fr.umlv.valuetype.Point;
+
+@SuppressWarnings({"static-method", "MagicNumber"})
+class XArrayListBinaryTests {
+  private static XArrayList<Point.ref> points(int size) {
+    var list = new XArrayList<Point.ref>(Point.class, size);
+    for(var i = 0; i < size; i++) {
+      list.add(new Point(i, -i));
+    }
+    return list;
+  }
+
+  private static XArrayList<IntBox.ref> boxes(int size) {
+    var list = new XArrayList<IntBox.ref>(IntBox.class, size);
+    for(var i = 0; i < size; i++) {
+      list.add(IntBox.valueOf(i * 3));
+    }
+    return list;
+  }
+
+  private interface ChannelConsumer<C extends ReadableByteChannel> {
+    void accept(C channel) throws IOException;
+  }
+
+  // writes the list to a temporary file, then reads it back through a memory-mapped FileChannel
+  private static void withFile(XArrayList<?> list, ChannelConsumer<FileChannel> consumer) throws IOException {
+    var file = Files.createTempFile("xlist", ".bin");
+    try {
+      try(var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        list.writeTo(channel);
+      }
+      try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        consumer.accept(channel);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  // writes the list to a pipe from another thread, so it is read back in chunks
+  private static void withPipe(XArrayList<?> list, ChannelConsumer<Pipe.SourceChannel> consumer) throws IOException {
+    var pipe = Pipe.open();
+    var writer = CompletableFuture.runAsync(() -> {
+      try(var sink = pipe.sink()) {
+        list.writeTo(sink);
+      } catch(IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    try(var source = pipe.source()) {
+      consumer.accept(source);
+    }
+    try {
+      writer.get();
+    } catch(InterruptedException | ExecutionException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static ReadableByteChannel bytes(int... ints) {
+    var buffer = ByteBuffer.allocate(ints.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+    for(var value: ints) {
+      buffer.putInt(value);
+    }
+    return Channels.newChannel(new ByteArrayInputStream(buffer.array()));
+  }
+
+  // the sizes are around the number of points that fit in the direct buffer
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 8_191, 8_192, 8_193, 20_000 })
+  void pointRoundTripWithAFile(int size) throws IOException {
+    var list = points(size);
+    withFile(list, channel -> {
+      var result = XArrayList.readFrom(Point.class, channel);
+      assertAll(
+          () -> assertSame(Point.class, result.elementData.getClass().getComponentType()),
+          () -> assertEquals(list, result),
+          () -> assertEquals(channel.size(), channel.position()));
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 8_191, 8_192, 8_193, 20_000 })
+  void pointRoundTripWithAPipe(int size) throws IOException {
+    var list = points(size);
+    withPipe(list, channel -> {
+      var result = XArrayList.readFrom(Point.class, channel);
+      assertAll(
+          () -> assertSame(Point.class, result.elementData.getClass().getComponentType()),
+          () -> assertEquals(list, result),
+          () -> assertEquals(-1, channel.read(ByteBuffer.allocate(1))));
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 16_384, 20_000 })
+  void intBoxRoundTripWithAFile(int size) throws IOException {
+    var list = boxes(size);
+    withFile(list, channel -> assertEquals(list, XArrayList.readFrom(IntBox.class, channel)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 16_384, 20_000 })
+  void intBoxRoundTripWithAPipe(int size) throws IOException {
+    var list = boxes(size);
+    withPipe(list, channel -> assertEquals(list, XArrayList.readFrom(IntBox.class, channel)));
+  }
+
+  @Test
+  void readSeveralListsFromAFile() throws IOException {
+    var file = Files.createTempFile("xlist", ".bin");
+    try {
+      try(var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        points(10).writeTo(channel);
+        boxes(20).writeTo(channel);
+      }
+      try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        assertEquals(points(10), XArrayList.readFrom(Point.class, channel));
+        assertEquals(boxes(20), XArrayList.readFrom(IntBox.class, channel));
+        assertEquals(channel.size(), channel.position());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void writeToAppliesCursorRemovals() throws IOException {
+    var list = points(4);
+    list.cursor().advance().remove();
+    withPipe(list, channel -> assertEquals(
+        List.<Point.ref>of(new Point(0, 0), new Point(2, -2), new Point(3, -3)),
+        XArrayList.readFrom(Point.class, channel)));
+  }
+
+  // same fields as Point but declared in the reverse order of the parameters of the constructor
+  static final class ReversedPoint {
+    final int y;
+    final int x;
+
+    ReversedPoint(int x, int y) {
+      this.y = y;
+      this.x = x;
+    }
+  }
+
+  @Test
+  void fieldsAreEncodedByName() throws IOException {
+    withFile(points(3), channel -> {
+      var result = XArrayList.readFrom(ReversedPoint.class, channel);
+      assertAll(
+          () -> assertEquals(3, result.size()),
+          () -> assertEquals(2, result.get(2).x),
+          () -> assertEquals(-2, result.get(2).y));
+    });
+  }
+
+  static final class NoFactory {
+    final int x;
+    final int y;
+
+    NoFactory(int x, int z) {
+      this.x = x;
+      this.y = z;
+    }
+  }
+
+  @Test
+  void parametersAreMatchedByName() {
+    assertThrows(IllegalArgumentException.class, () -> PrimitiveLayout.of(NoFactory.class));
+  }
+
+  @Test
+  void descriptorContainsTheNamesOfTheFields() {
+    assertAll(
+        () -> assertEquals("x:I;y:I;", new String(PrimitiveLayout.of(Point.class).descriptor, StandardCharsets.UTF_8)),
+        () -> assertEquals("value:I;", new String(PrimitiveLayout.of(IntBox.class).descriptor, StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void badMagicNumber() {
+    assertThrows(StreamCorruptedException.class, () -> XArrayList.readFrom(Point.class, bytes(0, 0, 0, 0)));
+  }
+
+  @Test
+  void negativeDescriptorLength() {
+    assertThrows(StreamCorruptedException.class, () -> XArrayList.readFrom(Point.class, bytes(0x58414C31, -1, 0)));
+  }
+
+  @Test
+  void negativeSize() throws IOException {
+    var header = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(0x58414C31).putInt(8).put("x:I;y:I;".getBytes(StandardCharsets.UTF_8)).putInt(-1);
+    var channel = Channels.newChannel(new ByteArrayInputStream(header.array()));
+    assertThrows(IOException.class, () -> XArrayList.readFrom(Point.class, channel));
+  }
+
+  // the size is read before the data, the list must not be allocated with it
+  @Test
+  void hugeSizeWithoutData() throws IOException {
+    var header = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(0x58414C31).putInt(8).put("x:I;y:I;".getBytes(StandardCharsets.UTF_8)).putInt(Integer.MAX_VALUE);
+    var channel = Channels.newChannel(new ByteArrayInputStream(header.array()));
+    assertThrows(EOFException.class, () -> XArrayList.readFrom(Point.class, channel));
+  }
+
+  @Test
+  void descriptorMismatch() throws IOException {
+    withFile(points(3), channel ->
+        assertThrows(InvalidClassException.class, () -> XArrayList.readFrom(IntBox.class, channel)));
+    withPipe(boxes(3), channel ->
+        assertThrows(InvalidClassException.class, () -> XArrayList.readFrom(Point.class, channel)));
+  }
+
+  @Test
+  void descriptorLengthMismatch() {
+    assertThrows(InvalidClassException.class, () -> XArrayList.readFrom(Point.class, bytes(0x58414C31, 4, 0, 0)));
+  }
+
+  @Test
+  void truncatedData() throws IOException {
+    var file = Files.createTempFile("xlist", ".bin");
+    try {
+      try(var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        points(10).writeTo(channel);
+        channel.truncate(channel.size() - 1);
+      }
+      try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        assertThrows(EOFException.class, () -> XArrayList.readFrom(Point.class, channel));
+      }
+      try(var channel = Channels.newChannel(Files.newInputStream(file))) {
+        assertThrows(EOFException.class, () -> XArrayList.readFrom(Point.class, channel));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void writeANonPrimitiveList() {
+    var list = new XArrayList<String>(String.class, 1);
+    list.add("foo");
+    assertThrows(IllegalStateException.class, () -> list.writeTo(Channels.newChannel(OutputStream.nullOutputStream())));
+  }
+}
@@ -0,0 +1,444 @@
+package fr.umlv.valuetype.xlist;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"static-method", "MagicNumber"})
+class XArrayListCursorTests {
+  private static XArrayList<Integer> range(int end) {
+    return IntStream.range(0, end).boxed().collect(Collectors.toCollection(XArrayList::new));
+  }
+
+  @Test
+  void traversal() {
+    var list = range(5);
+    var elements = new ArrayList<Integer>();
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      elements.add(cursor.get());
+    }
+    assertEquals(List.of(0, 1, 2, 3, 4), elements);
+  }
+
+  @Test
+  void traversalOfAnEmptyList() {
+    var cursor = new XArrayList<Integer>().cursor();
+    assertAll(
+        () -> assertFalse(cursor.exists()),
+        () -> assertThrows(NoSuchElementException.class, cursor::get));
+  }
+
+  @Test
+  void removeDuringTraversal() {
+    var list = range(10);
+    var visited = new ArrayList<Integer>();
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      var element = cursor.get();
+      visited.add(element);
+      assertEquals(10, list.size());  // reads do not apply the removals
+      if (element % 2 == 0) {
+        cursor = cursor.remove();
+      }
+    }
+    assertAll(
+        () -> assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), visited),
+        () -> assertEquals(List.of(1, 3, 5, 7, 9), list),
+        () -> assertEquals(5, list.size()));
+  }
+
+  @Test
+  void removeTheLastElement() {
+    var list = range(3);
+    var cursor = list.cursor().advance().advance().remove();
+    assertFalse(cursor.exists());
+    var end = cursor.advance();
+    assertAll(
+        () -> assertFalse(end.exists()),
+        () -> assertEquals(List.of(0, 1), list));
+  }
+
+  @Test
+  void removeTwice() {
+    var list = range(3);
+    var removed = list.cursor().remove();
+    assertThrows(NoSuchElementException.class, removed::remove);
+  }
+
+  @Test
+  void readsHaveNoSideEffect() {
+    var list = range(4);
+    var cursor = list.cursor().advance().remove();   // remove 1 and stop the traversal
+    assertAll(
+        () -> assertEquals(4, list.size()),
+        () -> assertFalse(list.isEmpty()),
+        () -> assertEquals(1, list.get(1)),
+        () -> assertEquals(1, list.indexOf(1)),
+        () -> assertEquals(List.of(0, 1, 2, 3), list),
+        () -> assertEquals(List.of(0, 1, 2, 3).hashCode(), list.hashCode()),
+        () -> assertEquals(2, cursor.advance().get()));
+  }
+
+  @Test
+  void closeAppliesRemovals() {
+    var list = range(6);
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      if (cursor.get() % 2 == 0) {
+        cursor = cursor.remove();
+      }
+      if (cursor.advance().get() == 3) {
+        cursor.close();
+        break;
+      }
+    }
+    assertEquals(List.of(1, 3, 4, 5), list);
+  }
+
+  @Test
+  void closeWithoutRemovalDoesNothing() {
+    var list = range(3);
+    var cursor = list.cursor();
+    cursor.close();
+    assertAll(
+        () -> assertEquals(0, cursor.get()),
+        () -> assertEquals(List.of(0, 1, 2), list));
+  }
+
+  @Test
+  void toArrayAppliesRemovals() {
+    var list = range(4);
+    list.cursor().advance().remove();
+    assertAll(
+        () -> assertEquals(List.of(0, 2, 3), List.of(list.toArray())),
+        () -> assertEquals(List.of(0, 2, 3), List.of(list.toArray(new Integer[0]))),
+        () -> assertEquals(List.of(0, 2, 3), new ArrayList<>(list)),
+        () -> assertEquals(3, list.size()));
+  }
+
+  @Test
+  void serializationAppliesRemovals() throws IOException, ClassNotFoundException {
+    var list = range(4);
+    list.cursor().advance().remove();
+    var output = new ByteArrayOutputStream();
+    try(var out = new ObjectOutputStream(output)) {
+      out.writeObject(list);
+    }
+    try(var in = new ObjectInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+      assertEquals(List.of(0, 2, 3), in.readObject());
+    }
+    assertEquals(List.of(0, 2, 3), list);
+  }
+
+  @Test
+  void newCursorSkipsPendingRemovals() {
+    var list = range(3);
+    list.cursor().remove();
+    var cursor = list.cursor();
+    assertAll(
+        () -> assertEquals(1, cursor.get()),
+        () -> assertFalse(cursor.retreat().exists()),
+        () -> assertEquals(3, list.size()));
+  }
+
+  @Test
+  void applyCursorRemovals() {
+    var list = range(4);
+    var cursor = list.cursor().advance().remove();
+    list.applyCursorRemovals();
+    assertAll(
+        () -> assertEquals(List.of(0, 2, 3), list),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::exists),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::advance));
+  }
+
+  @Test
+  void structuralModificationAppliesRemovals() {
+    var list = range(4);
+    list.cursor().remove();
+    list.add(4);
+    assertEquals(List.of(1, 2, 3, 4), list);
+  }
+
+  @Test
+  void subListRejectsStructuralModificationWithPendingRemovals() {
+    var list = range(4);
+    list.cursor().remove();
+    var subList = list.subList(1, 3);
+    assertAll(
+        () -> assertThrows(ConcurrentModificationException.class, () -> subList.add(42)),
+        () -> assertThrows(ConcurrentModificationException.class, () -> subList.remove(0)),
+        () -> assertThrows(ConcurrentModificationException.class, subList::clear));
+  }
+
+  @Test
+  void cloneAppliesRemovals() {
+    var list = range(4);
+    list.cursor().remove();
+    @SuppressWarnings("unchecked")
+    var clone = (XArrayList<Integer>) list.clone();
+    assertAll(
+        () -> assertEquals(List.of(1, 2, 3), clone),
+        () -> assertEquals(List.of(1, 2, 3), list));
+  }
+
+  @Test
+  void staleCursor() {
+    var list = range(3);
+    var cursor = list.cursor();
+    list.add(3);
+    assertAll(
+        () -> assertThrows(ConcurrentModificationException.class, cursor::exists),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::get),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::advance),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::retreat),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::remove),
+        () -> assertThrows(ConcurrentModificationException.class, () -> cursor.set(42)));
+  }
+
+  @Test
+  void removeInvalidatesTheOtherCursors() {
+    var list = range(3);
+    var cursor = list.cursor();
+    var other = list.cursor().advance();
+    cursor.remove();
+    assertThrows(ConcurrentModificationException.class, other::exists);
+  }
+
+  @Test
+  void set() {
+    var list = range(3);
+    var cursor = list.cursor().advance();
+    var other = list.cursor();
+    cursor.set(42);
+    assertAll(
+        () -> assertEquals(List.of(0, 42, 2), list),
+        () -> assertEquals(42, cursor.get()),
+        () -> assertEquals(42, other.advance().get()));
+  }
+
+  @Test
+  void setRemoved() {
+    var list = range(3);
+    var removed = list.cursor().remove();
+    assertThrows(NoSuchElementException.class, () -> removed.set(42));
+  }
+
+  @Test
+  void retreat() {
+    var list = range(5);
+    var cursor = list.cursor();
+    while(cursor.advance().exists()) {
+      cursor = cursor.advance();
+    }
+    var elements = new ArrayList<Integer>();
+    for(; cursor.exists(); cursor = cursor.retreat()) {
+      elements.add(cursor.get());
+    }
+    var beforeFirst = cursor;
+    assertAll(
+        () -> assertEquals(List.of(4, 3, 2, 1, 0), elements),
+        () -> assertThrows(NoSuchElementException.class, beforeFirst::get),
+        () -> assertEquals(0, beforeFirst.advance().get()));
+  }
+
+  @Test
+  void retreatSkipsRemovedElements() {
+    var list = range(5);
+    var cursor = list.cursor().advance().remove();     // remove 1
+    cursor = cursor.advance().advance().remove();      // remove 3
+    var previous = cursor.retreat();
+    assertAll(
+        () -> assertEquals(2, previous.get()),
+        () -> assertEquals(0, previous.retreat().get()),
+        () -> assertEquals(4, previous.advance().get()));
+  }
+
+  @Test
+  void retreatFromTheEnd() {
+    var list = range(3);
+    var end = list.cursor().advance().advance().advance();
+    assertAll(
+        () -> assertFalse(end.exists()),
+        () -> assertEquals(2, end.retreat().get()));
+  }
+
+  @Test
+  void iteratorCurs() {
+    var list = range(3);
+    var iterator = list.iteratorCurs();
+    var elements = new ArrayList<Integer>();
+    while(iterator.hasNext()) {
+      elements.add(iterator.next());
+    }
+    assertAll(
+        () -> assertEquals(List.of(0, 1, 2), elements),
+        () -> assertThrows(NoSuchElementException.class, iterator::next));
+  }
+
+  @Test
+  void iteratorCursHasNextOnTheLastElement() {
+    var iterator = range(1).iteratorCurs();
+    assertTrue(iterator.hasNext());
+    assertEquals(0, iterator.next());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void iteratorCursRemove() {
+    var list = range(6);
+    var iterator = list.iteratorCurs();
+    assertThrows(IllegalStateException.class, iterator::remove);
+    while(iterator.hasNext()) {
+      if (iterator.next() % 3 != 0) {
+        iterator.remove();
+        assertThrows(IllegalStateException.class, iterator::remove);
+      }
+    }
+    assertEquals(List.of(0, 3), list);
+  }
+
+  @Test
+  void iteratorCursRemoveAll() {
+    var list = range(3);
+    var iterator = list.iteratorCurs();
+    while(iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+    assertTrue(list.isEmpty());
+  }
+
+  @Test
+  void iteratorCursForEachRemaining() {
+    var list = range(4);
+    var iterator = list.iteratorCurs();
+    iterator.next();
+    var elements = new ArrayList<Integer>();
+    iterator.forEachRemaining(elements::add);
+    assertAll(
+        () -> assertEquals(List.of(1, 2, 3), elements),
+        () -> assertFalse(iterator.hasNext()));
+  }
+
+  @Test
+  void iteratorCursConcurrentModification() {
+    var list = range(3);
+    var iterator = list.iteratorCurs();
+    iterator.next();
+    list.add(3);
+    assertAll(
+        () -> assertTrue(iterator.hasNext()),
+        () -> assertThrows(ConcurrentModificationException.class, iterator::next));
+  }
+
+  @Test
+  void cursorSpliteratorCharacteristics() {
+    var spliterator = range(10).cursorSpliterator();
+    assertAll(
+        () -> assertEquals(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, spliterator.characteristics()),
+        () -> assertEquals(10, spliterator.estimateSize()),
+        () -> assertEquals(10, spliterator.getExactSizeIfKnown()));
+  }
+
+  @Test
+  void cursorSpliteratorSplit() {
+    var spliterator = range(10).cursorSpliterator();
+    var prefix = spliterator.trySplit();
+    var prefixOfPrefix = prefix.trySplit();
+    var elements = new ArrayList<Integer>();
+    prefixOfPrefix.forEachRemaining(elements::add);
+    prefix.forEachRemaining(elements::add);
+    spliterator.forEachRemaining(elements::add);
+    assertAll(
+        () -> assertEquals(0, prefixOfPrefix.estimateSize()),
+        () -> assertEquals(0, prefix.estimateSize()),
+        () -> assertEquals(0, spliterator.estimateSize()),
+        () -> assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), elements));
+  }
+
+  @Test
+  void cursorSpliteratorSplitSizes() {
+    var spliterator = range(11).cursorSpliterator();
+    var prefix = spliterator.trySplit();
+    assertAll(
+        () -> assertEquals(5, prefix.estimateSize()),
+        () -> assertEquals(6, spliterator.estimateSize()),
+        () -> assertEquals(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, prefix.characteristics()));
+  }
+
+  @Test
+  void cursorSpliteratorDoesNotSplitASingleElement() {
+    var spliterator = range(1).cursorSpliterator();
+    assertAll(
+        () -> assertNull(spliterator.trySplit()),
+        () -> assertEquals(1, spliterator.estimateSize()));
+  }
+
+  @Test
+  void cursorSpliteratorTryAdvance() {
+    var spliterator = range(2).cursorSpliterator();
+    var elements = new ArrayList<Integer>();
+    assertTrue(spliterator.tryAdvance(elements::add));
+    assertEquals(1, spliterator.estimateSize());
+    assertTrue(spliterator.tryAdvance(elements::add));
+    assertFalse(spliterator.tryAdvance(elements::add));
+    assertEquals(List.of(0, 1), elements);
+  }
+
+  @Test
+  void cursorSpliteratorConcurrentModification() {
+    var list = range(3);
+    var spliterator = list.cursorSpliterator();
+    assertThrows(ConcurrentModificationException.class,
+        () -> spliterator.forEachRemaining(element -> list.add(42)));
+  }
+
+  @Test
+  void cursorStreamSkipsPendingRemovals() {
+    var list = range(5);
+    list.cursor().advance().remove();
+    var streamed = list.cursorStream().collect(Collectors.toList());
+    var elements = new ArrayList<Integer>();
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      elements.add(cursor.get());
+    }
+    assertAll(
+        () -> assertEquals(List.of(0, 2, 3, 4), streamed),
+        () -> assertEquals(elements, streamed),
+        () -> assertEquals(4, list.cursorSpliterator().estimateSize()));
+  }
+
+  @Test
+  void cursorSpliteratorInvalidatesCursorsWithPendingRemovals() {
+    var list = range(3);
+    var cursor = list.cursor().remove();
+    list.cursorSpliterator();
+    assertThrows(ConcurrentModificationException.class, cursor::advance);
+  }
+
+  @Test
+  void cursorStream() {
+    var list = range(1_000);
+    assertAll(
+        () -> assertEquals(499_500, list.cursorStream().mapToInt(x -> x).sum()),
+        () -> assertEquals(499_500, list.parallelCursorStream().mapToInt(x -> x).sum()),
+        () -> assertEquals(list, list.parallelCursorStream().collect(Collectors.toList())));
+  }
+}
@@ -0,0 +1,373 @@
+package fr.umlv.valuetype.xlist;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import fr.umlv.valuetype.Point;
+
+@SuppressWarnings({"static-method", "MagicNumber"})
+class XArrayListTests {
+  private static XArrayList<Point.ref> points(int capacity, int size) {
+    var list = new XArrayList<Point.ref>(Point.class, capacity);
+    for(var i = 0; i < size; i++) {
+      list.add(new Point(i, -i));
+    }
+    return list;
+  }
+
+  @Test
+  void flattenedStorage() {
+    var list = points(4, 3);
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(4, list.elementData.length),
+        () -> assertEquals(List.<Point.ref>of(new Point(0, 0), new Point(1, -1), new Point(2, -2)), list));
+  }
+
+  @Test
+  void flattenedStorageIllegalArguments() {
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> new XArrayList<Point.ref>(Point.class, -1)),
+        () -> assertThrows(IllegalArgumentException.class, () -> new XArrayList<Integer>(int.class, 10)));
+  }
+
+  @Test
+  void growKeepsTheFlattenedLayout() {
+    var list = points(0, 100);
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(100, list.size()),
+        () -> assertEquals(new Point(99, -99), list.get(99)));
+  }
+
+  @Test
+  void toArrayAndCloneKeepTheFlattenedLayout() {
+    var list = points(10, 3);
+    @SuppressWarnings("unchecked")
+    var clone = (XArrayList<Point.ref>) list.clone();
+    assertAll(
+        () -> assertSame(Point.class, list.toArray().getClass().getComponentType()),
+        () -> assertEquals(3, list.toArray().length),
+        () -> assertSame(Point.class, clone.elementData.getClass().getComponentType()),
+        () -> assertEquals(list, clone));
+  }
+
+  @Test
+  void trimToSizeKeepsTheFlattenedLayout() {
+    var list = points(10, 3);
+    list.trimToSize();
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(3, list.elementData.length),
+        () -> assertEquals(List.<Point.ref>of(new Point(0, 0), new Point(1, -1), new Point(2, -2)), list));
+  }
+
+  @Test
+  void trimToSizeOfAnEmptyFlattenedList() {
+    var list = points(10, 0);
+    list.trimToSize();
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(0, list.elementData.length));
+  }
+
+  @Test
+  void removedSlotsHoldTheDefaultValue() {
+    var list = points(10, 4);
+    list.remove(0);
+    list.remove(new Point(3, -3));
+    var es = list.elementData;
+    assertAll(
+        () -> assertEquals(List.<Point.ref>of(new Point(1, -1), new Point(2, -2)), list),
+        () -> assertEquals(Point.default, es[2]),
+        () -> assertEquals(Point.default, es[3]));
+  }
+
+  @Test
+  void removeIfAndRemoveRangeClearToTheDefaultValue() {
+    var list = points(10, 6);
+    list.removeIf(p -> p.x % 2 == 0);
+    list.subList(0, 1).clear();
+    var es = list.elementData;
+    assertAll(
+        () -> assertEquals(List.<Point.ref>of(new Point(3, -3), new Point(5, -5)), list),
+        () -> assertEquals(Point.default, es[2]),
+        () -> assertEquals(Point.default, es[5]));
+  }
+
+  @Test
+  void clearHoldsTheDefaultValue() {
+    var list = points(10, 4);
+    list.clear();
+    var es = list.elementData;
+    assertAll(
+        () -> assertEquals(0, list.size()),
+        () -> assertEquals(Point.default, es[0]),
+        () -> assertEquals(Point.default, es[3]));
+  }
+
+  @Test
+  void removedSlotsOfABoxedListAreNull() {
+    var list = new XArrayList<Integer>();
+    list.add(1);
+    list.add(2);
+    list.remove(1);
+    assertNull(list.elementData[1]);
+  }
+
+  @Test
+  void sortKeepsTheFlattenedLayout() {
+    var list = points(10, 5);
+    list.sort(Comparator.comparingInt(p -> p.y));
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(new Point(4, -4), list.get(0)),
+        () -> assertEquals(new Point(0, 0), list.get(4)));
+  }
+
+  @Test
+  void cursorOverFlattenedElements() {
+    var list = points(10, 3);
+    var cursor = list.cursor().advance();
+    cursor.set(new Point(42, 42));
+    assertEquals(new Point(42, 42), list.get(1));
+  }
+
+  // a permutation of the integers from 0 to size - 1
+  private static XArrayList<Integer> shuffled(int size) {
+    return IntStream.range(0, size).map(i -> (i * 7_919) % size).boxed()
+        .collect(Collectors.toCollection(XArrayList::new));
+  }
+
+  // the sizes are below and above the threshold of the parallel bulk operations
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 100, 8_191, 8_192, 20_000 })
+  void parallelSort(int size) {
+    var list = shuffled(size);
+    var expected = new ArrayList<>(list);
+    expected.sort(null);
+    list.parallelSort(null);
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 100, 20_000 })
+  void parallelSortWithAComparator(int size) {
+    var list = shuffled(size);
+    var expected = new ArrayList<>(list);
+    expected.sort(Comparator.reverseOrder());
+    list.parallelSort(Comparator.reverseOrder());
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 100, 8_191, 8_192, 8_257, 20_000 })
+  void parallelRemoveIf(int size) {
+    List<Predicate<Integer>> filters = List.of(
+        v -> v % 3 == 0,
+        v -> v >= 64 && v < 200,      // a run across several words of the bit set
+        v -> v == size - 1,
+        v -> true,
+        v -> false);
+    for(var filter: filters) {
+      var list = shuffled(size);
+      var expected = new ArrayList<>(list);
+      var expectedModified = expected.removeIf(filter);
+      assertEquals(expectedModified, list.parallelRemoveIf(filter));
+      assertEquals(expected, list);
+    }
+  }
+
+  @Test
+  void parallelRemoveIfCompactsInPlace() {
+    var list = shuffled(20_000);
+    var es = list.elementData;
+    var capacity = es.length;
+    list.parallelRemoveIf(v -> v % 1_000 == 0);
+    assertAll(
+        () -> assertSame(es, list.elementData),
+        () -> assertEquals(capacity, list.elementData.length),
+        () -> assertEquals(19_980, list.size()),
+        () -> assertNull(es[19_980]),
+        () -> assertNull(es[19_999]));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 100, 20_000 })
+  void parallelRemoveIfKeepsTheFlattenedLayout(int size) {
+    var list = points(size, size);
+    list.parallelRemoveIf(p -> p.x % 2 == 0);
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(size / 2, list.size()),
+        () -> assertEquals(new Point(1, -1), list.get(0)),
+        () -> assertEquals(new Point(size - 1, 1 - size), list.get(size / 2 - 1)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 100, 8_192, 20_000 })
+  void parallelReplaceAll(int size) {
+    var list = shuffled(size);
+    var expected = new ArrayList<>(list);
+    expected.replaceAll(v -> v * 2 + 1);
+    list.parallelReplaceAll(v -> v * 2 + 1);
+    assertEquals(expected, list);
+  }
+
+  @Test
+  void setShrinkOccupancy() {
+    var list = new XArrayList<Integer>();
+    assertEquals(0f, list.getShrinkOccupancy());
+    list.setShrinkOccupancy(0.5f);
+    assertEquals(0.5f, list.getShrinkOccupancy());
+    list.setShrinkOccupancy(0f);
+    assertAll(
+        () -> assertEquals(0f, list.getShrinkOccupancy()),
+        () -> assertThrows(IllegalArgumentException.class, () -> list.setShrinkOccupancy(-0.1f)),
+        () -> assertThrows(IllegalArgumentException.class, () -> list.setShrinkOccupancy(0.6f)),
+        () -> assertThrows(IllegalArgumentException.class, () -> list.setShrinkOccupancy(Float.NaN)),
+        () -> assertEquals(0f, list.getShrinkOccupancy()));
+  }
+
+  @Test
+  void noShrinkByDefault() {
+    var list = shuffled(100);
+    var capacity = list.elementData.length;
+    list.removeIf(v -> v >= 1);
+    assertEquals(capacity, list.elementData.length);
+  }
+
+  @Test
+  void shrinkOnRemove() {
+    var list = shuffled(100);
+    list.trimToSize();
+    list.setShrinkOccupancy(0.25f);
+    while(list.size() >= 25) {
+      assertEquals(100, list.elementData.length);
+      list.remove(list.size() - 1);
+    }
+    assertAll(
+        () -> assertEquals(24, list.size()),
+        () -> assertEquals(36, list.elementData.length),
+        () -> assertEquals(shuffled(100).subList(0, 24), list));
+  }
+
+  @Test
+  void shrinkOnRemoveIfAndRemoveRange() {
+    var list = shuffled(100);
+    list.trimToSize();
+    list.setShrinkOccupancy(0.5f);
+    list.removeIf(v -> v >= 40);
+    assertEquals(60, list.elementData.length);
+    list.subList(0, 20).clear();
+    assertAll(
+        () -> assertEquals(20, list.size()),
+        () -> assertEquals(30, list.elementData.length));
+  }
+
+  @Test
+  void shrinkKeepsTheDefaultCapacity() {
+    var list = shuffled(20);
+    list.trimToSize();
+    list.setShrinkOccupancy(0.5f);
+    list.removeIf(v -> v >= 1);
+    assertAll(
+        () -> assertEquals(1, list.size()),
+        () -> assertEquals(10, list.elementData.length));
+  }
+
+  @Test
+  void shrinkOnParallelRemoveIf() {
+    var list = shuffled(20_000);
+    list.setShrinkOccupancy(0.5f);
+    list.parallelRemoveIf(v -> v >= 100);
+    assertAll(
+        () -> assertEquals(100, list.size()),
+        () -> assertEquals(150, list.elementData.length),
+        () -> assertEquals(shuffled(20_000).stream().filter(v -> v < 100).collect(Collectors.toList()), list));
+  }
+
+  @Test
+  void shrinkKeepsTheFlattenedLayout() {
+    var list = points(100, 100);
+    list.setShrinkOccupancy(0.5f);
+    list.removeIf(p -> p.x >= 10);
+    assertAll(
+        () -> assertSame(Point.class, list.elementData.getClass().getComponentType()),
+        () -> assertEquals(15, list.elementData.length),
+        () -> assertEquals(new Point(9, -9), list.get(9)));
+  }
+
+  @Test
+  void footprintEvents() throws IOException {
+    var file = Files.createTempFile("xlist", ".jfr");
+    try(var recording = new Recording()) {
+      recording.enable("fr.umlv.valuetype.xlist.Footprint");
+      recording.start();
+      var list = new XArrayList<Integer>();
+      for(var i = 0; i < 11; i++) {   // grow twice
+        list.add(i);
+      }
+      list.trimToSize();
+      list.ensureCapacity(20);
+      list.cursor().advance().remove();
+      list.applyCursorRemovals();
+      recording.stop();
+      recording.dump(file);
+    }
+    try {
+      var operations = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("fr.umlv.valuetype.xlist.Footprint"))
+          .map(event -> event.getString("operation") + " " + event.getInt("oldCapacity") + " " + event.getInt("newCapacity"))
+          .collect(Collectors.toList());
+      assertEquals(List.of("grow 0 10", "grow 10 15", "trimToSize 15 11", "ensureCapacity 11 20",
+          "expungeCursorRemovals 20 20"), operations);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void footprintStatistics() throws IOException {
+    var file = Files.createTempFile("xlist", ".jfr");
+    try(var recording = new Recording()) {
+      recording.enable("fr.umlv.valuetype.xlist.FootprintStatistics").with("period", "endChunk");
+      recording.start();
+      var list = new XArrayList<Integer>();
+      for(var i = 0; i < 11; i++) {   // grow twice
+        list.add(i);
+      }
+      list.removeIf(v -> v % 2 == 0);
+      recording.stop();
+      recording.dump(file);
+    }
+    try {
+      var statistics = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("fr.umlv.valuetype.xlist.FootprintStatistics"))
+          .collect(Collectors.toMap(event -> event.getString("operation"), event -> event.getLong("calls"), Math::max));
+      assertAll(
+          () -> assertEquals(2, statistics.get("grow")),
+          () -> assertEquals(1, statistics.get("removeIf")));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,381 @@
+package fr.umlv.valuetype.xlist;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Each operation is checked against ArrayList for every position of the head
+ * in an array of {@link #CAPACITY} slots, so most of the lists wrap around
+ * the end of the array.
+ */
+@SuppressWarnings({"static-method", "MagicNumber"})
+class XCircularArrayListTests {
+  private static final int CAPACITY = 8;
+  private static final int SIZE = 6;
+
+  // the elements are 0 .. size - 1, the first one is stored at index head of the array
+  private static XCircularArrayList<Integer> wrapped(int head, int size) {
+    var list = new XCircularArrayList<Integer>(CAPACITY);
+    for(var i = 0; i < head; i++) {
+      list.addLast(-1);
+    }
+    for(var i = 0; i < head; i++) {
+      list.removeFirst();
+    }
+    for(var i = 0; i < size; i++) {
+      list.addLast(i);
+    }
+    assertEquals(head, list.head);
+    return list;
+  }
+
+  private static List<Integer> expected(int size) {
+    return IntStream.range(0, size).boxed().collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  private static boolean wrapsAround(XCircularArrayList<?> list) {
+    return list.head + list.size > list.elementData.length;
+  }
+
+  @Test
+  void physicalIndex() {
+    assertAll(
+        () -> assertEquals(5, XCircularArrayList.physicalIndex(5, 0, 8)),
+        () -> assertEquals(7, XCircularArrayList.physicalIndex(5, 2, 8)),
+        () -> assertEquals(0, XCircularArrayList.physicalIndex(5, 3, 8)),
+        () -> assertEquals(4, XCircularArrayList.physicalIndex(5, 7, 8)),
+        () -> assertEquals(3, XCircularArrayList.physicalIndex(0, 3, 8)),
+        () -> assertEquals(18, XCircularArrayList.physicalIndex(Integer.MAX_VALUE - 10, 20, Integer.MAX_VALUE - 8)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void get(int head) {
+    var list = wrapped(head, SIZE);
+    var expected = expected(SIZE);
+    assertAll(
+        () -> assertEquals(head > CAPACITY - SIZE, wrapsAround(list)),
+        () -> assertEquals(expected, list),
+        () -> assertEquals(expected, new ArrayList<>(list)),
+        () -> assertEquals(expected, Arrays.asList(list.toArray())),
+        () -> assertEquals(expected, Arrays.asList(list.toArray(new Integer[0]))),
+        () -> assertEquals(0, list.getFirst()),
+        () -> assertEquals(SIZE - 1, list.getLast()),
+        () -> assertEquals(3, list.indexOf(3)),
+        () -> assertEquals(3, list.lastIndexOf(3)),
+        () -> assertThrows(IndexOutOfBoundsException.class, () -> list.get(SIZE)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void set(int head) {
+    var list = wrapped(head, SIZE);
+    var expected = expected(SIZE);
+    for(var i = 0; i < SIZE; i++) {
+      assertEquals(expected.set(i, 10 + i), list.set(i, 10 + i));
+    }
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void add(int head) {
+    for(var index = 0; index <= SIZE; index++) {
+      var list = wrapped(head, SIZE);
+      var expected = expected(SIZE);
+      list.add(index, 42);
+      expected.add(index, 42);
+      assertEquals(expected, list, "index " + index);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void addToAFullList(int head) {
+    for(var index = 0; index <= CAPACITY; index++) {
+      var list = wrapped(head, CAPACITY);
+      var expected = expected(CAPACITY);
+      list.add(index, 42);
+      expected.add(index, 42);
+      assertEquals(expected, list, "index " + index);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void addFirstAndAddLast(int head) {
+    var list = wrapped(head, SIZE);
+    var expected = expected(SIZE);
+    for(var i = 0; i < 5; i++) {
+      list.addFirst(-i);
+      expected.add(0, -i);
+      list.addLast(100 + i);
+      expected.add(100 + i);
+    }
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void remove(int head) {
+    for(var index = 0; index < SIZE; index++) {
+      var list = wrapped(head, SIZE);
+      var expected = expected(SIZE);
+      assertEquals(expected.remove(index), list.remove(index));
+      assertEquals(expected, list, "index " + index);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void removeClearsTheSlot(int head) {
+    for(var index = 0; index < SIZE; index++) {
+      var list = wrapped(head, SIZE);
+      list.remove(index);
+      var nulls = Arrays.stream(list.elementData).filter(e -> e == null).count();
+      assertEquals(CAPACITY - SIZE + 1, nulls, "index " + index);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void removeFirstAndRemoveLast(int head) {
+    var list = wrapped(head, SIZE);
+    assertAll(
+        () -> assertEquals(0, list.removeFirst()),
+        () -> assertEquals(SIZE - 1, list.removeLast()),
+        () -> assertEquals(expected(SIZE).subList(1, SIZE - 1), list));
+  }
+
+  @Test
+  void removeFirstAndRemoveLastOfAnEmptyList() {
+    var list = new XCircularArrayList<Integer>();
+    assertAll(
+        () -> assertThrows(NoSuchElementException.class, list::removeFirst),
+        () -> assertThrows(NoSuchElementException.class, list::removeLast),
+        () -> assertThrows(NoSuchElementException.class, list::getFirst),
+        () -> assertThrows(NoSuchElementException.class, list::getLast));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void removeRange(int head) {
+    for(var from = 0; from <= SIZE; from++) {
+      for(var to = from; to <= SIZE; to++) {
+        var list = wrapped(head, SIZE);
+        var expected = expected(SIZE);
+        list.subList(from, to).clear();
+        expected.subList(from, to).clear();
+        assertEquals(expected, list, "range " + from + " " + to);
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void removeIf(int head) {
+    List<Predicate<Integer>> filters = List.of(
+        v -> v % 2 == 0,
+        v -> v % 2 == 1,
+        v -> v == 0,
+        v -> v == SIZE - 1,
+        v -> v >= 2,
+        v -> true,
+        v -> false);
+    for(var filter: filters) {
+      var list = wrapped(head, SIZE);
+      var expected = expected(SIZE);
+      assertEquals(expected.removeIf(filter), list.removeIf(filter));
+      assertEquals(expected, list);
+      list.addLast(42);   // the removed slots are reusable
+      expected.add(42);
+      assertEquals(expected, list);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void replaceAll(int head) {
+    var list = wrapped(head, SIZE);
+    var expected = expected(SIZE);
+    list.replaceAll(v -> v * 2);
+    expected.replaceAll(v -> v * 2);
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void sort(int head) {
+    var list = wrapped(head, SIZE);
+    var expected = expected(SIZE);
+    list.sort(Comparator.reverseOrder());
+    expected.sort(Comparator.reverseOrder());
+    assertAll(
+        () -> assertEquals(expected, list),
+        () -> assertFalse(wrapsAround(list)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void cloneTrimToSizeAndGrowUnwrap(int head) {
+    var list = wrapped(head, SIZE);
+    @SuppressWarnings("unchecked")
+    var clone = (XCircularArrayList<Integer>) list.clone();
+    var trimmed = wrapped(head, SIZE);
+    trimmed.trimToSize();
+    var grown = wrapped(head, SIZE);
+    grown.ensureCapacity(100);
+    var expected = expected(SIZE);
+    assertAll(
+        () -> assertEquals(expected, clone),
+        () -> assertEquals(0, clone.head),
+        () -> assertEquals(expected, trimmed),
+        () -> assertEquals(SIZE, trimmed.elementData.length),
+        () -> assertEquals(expected, grown),
+        () -> assertEquals(0, grown.head));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void forEach(int head) {
+    var list = wrapped(head, SIZE);
+    var elements = new ArrayList<Integer>();
+    list.forEach(elements::add);
+    assertEquals(expected(SIZE), elements);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void cursor(int head) {
+    var list = wrapped(head, SIZE);
+    var elements = new ArrayList<Integer>();
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      elements.add(cursor.get());
+    }
+    assertEquals(expected(SIZE), elements);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void cursorRemove(int head) {
+    var list = wrapped(head, SIZE);
+    var visited = new ArrayList<Integer>();
+    for(var cursor = list.cursor(); cursor.exists(); cursor = cursor.advance()) {
+      var element = cursor.get();
+      visited.add(element);
+      if (element % 3 != 1) {
+        cursor = cursor.remove();
+      }
+    }
+    var expected = expected(SIZE);
+    assertEquals(expected, visited);
+    expected.removeIf(v -> v % 3 != 1);
+    assertEquals(expected, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void cursorSetAndRetreat(int head) {
+    var list = wrapped(head, SIZE);
+    var cursor = list.cursor();
+    while(cursor.advance().exists()) {
+      cursor = cursor.advance();
+    }
+    var elements = new ArrayList<Integer>();
+    for(; cursor.exists(); cursor = cursor.retreat()) {
+      elements.add(cursor.get());
+      cursor.set(-cursor.get());
+    }
+    var expected = expected(SIZE);
+    Collections.reverse(expected);
+    assertEquals(expected, elements);
+    var negated = expected(SIZE);
+    negated.replaceAll(v -> -v);
+    assertEquals(negated, list);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void cursorRetreatAfterRemove(int head) {
+    var list = wrapped(head, SIZE);
+    var removed = list.cursor().advance().advance().remove();   // remove 2
+    assertAll(
+        () -> assertFalse(removed.exists()),
+        () -> assertEquals(1, removed.retreat().get()),
+        () -> assertEquals(3, removed.advance().get()),
+        () -> assertEquals(List.of(0, 1, 3, 4, 5), list));
+  }
+
+  @Test
+  void staleCursor() {
+    var list = wrapped(5, SIZE);
+    var cursor = list.cursor();
+    list.addFirst(-1);
+    assertAll(
+        () -> assertThrows(ConcurrentModificationException.class, cursor::exists),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::get),
+        () -> assertThrows(ConcurrentModificationException.class, cursor::advance));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void spliteratorForEachRemaining(int head) {
+    var list = wrapped(head, SIZE);
+    var elements = new ArrayList<Integer>();
+    list.spliterator().forEachRemaining(elements::add);
+    assertEquals(expected(SIZE), elements);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void spliteratorSplit(int head) {
+    var list = wrapped(head, SIZE);
+    var spliterator = list.spliterator();
+    var prefix = spliterator.trySplit();
+    var elements = new ArrayList<Integer>();
+    assertTrue(prefix.tryAdvance(elements::add));
+    prefix.forEachRemaining(elements::add);
+    spliterator.forEachRemaining(elements::add);
+    assertAll(
+        () -> assertEquals(expected(SIZE), elements),
+        () -> assertEquals(Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, spliterator.characteristics()),
+        () -> assertEquals(0, prefix.estimateSize()),
+        () -> assertEquals(0, spliterator.estimateSize()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 3, 4, 5, 6, 7 })
+  void stream(int head) {
+    var list = wrapped(head, SIZE);
+    assertAll(
+        () -> assertEquals(expected(SIZE), list.stream().collect(Collectors.toList())),
+        () -> assertEquals(expected(SIZE), list.parallelStream().collect(Collectors.toList())));
+  }
+
+  @Test
+  void spliteratorConcurrentModification() {
+    var list = wrapped(5, SIZE);
+    var spliterator = list.spliterator();
+    list.removeFirst();
+    assertThrows(ConcurrentModificationException.class, () -> spliterator.forEachRemaining(e -> {}));
+  }
+}
@@ -0,0 +1,67 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates PersistentIntList, PersistentLongList, PersistentDoubleList and their tests,
+ * IntXArrayList, LongXArrayList, DoubleXArrayList and their cursors
+ * from the templates of this directory.
+ *
+ * Run it from the fr.umlv.valuetype directory with
+ * <pre>
+ *   java template/GeneratePrimitiveLists.java
+ * </pre>
+ *
+ * A template can contain {@code $placeholder$}s, replaced by the values of
+ * the flavor, and blocks between {@code //#if flag} and {@code //#end}
+ * lines, kept only for the flavors that have the flag.
+ */
+public class GeneratePrimitiveLists {
+  private static final List<Map<String, String>> FLAVORS = List.of(
+      Map.of("$type$", "int", "$Type$", "Int", "$Boxed$", "Integer",
+          "$Generator$", "IntUnaryOperator", "$zero$", "0", "$suffix$", "",
+          "#flags", ""),
+      Map.of("$type$", "long", "$Type$", "Long", "$Boxed$", "Long",
+          "$Generator$", "IntToLongFunction", "$zero$", "0L", "$suffix$", "L",
+          "#flags", "wide"),
+      Map.of("$type$", "double", "$Type$", "Double", "$Boxed$", "Double",
+          "$Generator$", "IntToDoubleFunction", "$zero$", "0.0", "$suffix$", ".0",
+          "#flags", "wide"));
+
+  private static final Pattern BLOCK = Pattern.compile("(?ms)^//#if (\\w+)\n(.*?)^//#end\n");
+
+  private static String keepBlocks(String text, List<String> flags) {
+    return BLOCK.matcher(text).replaceAll(result ->
+        flags.contains(result.group(1)) ? Matcher.quoteReplacement(result.group(2)) : "");
+  }
+
+  private static void generate(Path template, Path directory, String fileName) throws IOException {
+    var text = Files.readString(template);
+    for(var flavor: FLAVORS) {
+      var result = keepBlocks(text, List.of(flavor.get("#flags").split(",")));
+      for(var entry: flavor.entrySet()) {
+        result = result.replace(entry.getKey(), entry.getValue());
+      }
+      if (result.contains("$")) {
+        throw new IllegalStateException("unknown placeholder in " + template);
+      }
+      Files.writeString(directory.resolve(fileName.replace("$Type$", flavor.get("$Type$"))), result);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    var templates = Path.of("template");
+    generate(templates.resolve("PersistentPrimitiveList.java.template"),
+        Path.of("src/main/java/fr/umlv/valuetype/persistent"), "Persistent$Type$List.java");
+    generate(templates.resolve("PersistentPrimitiveListTest.java.template"),
+        Path.of("src/test/java/fr/umlv/valuetype/persistent"), "Persistent$Type$ListTest.java");
+    generate(templates.resolve("PrimitiveXArrayList.java.template"),
+        Path.of("src/main/java/fr/umlv/valuetype/xlist"), "$Type$XArrayList.java");
+    generate(templates.resolve("PrimitiveInlineCursor.java.template"),
+        Path.of("src/main/java/fr/umlv/valuetype/xlist"), "$Type$InlineCursor.java");
+  }
+}